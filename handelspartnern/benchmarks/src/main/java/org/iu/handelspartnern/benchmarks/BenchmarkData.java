@@ -0,0 +1,86 @@
+package org.iu.handelspartnern.benchmarks;
+
+import org.iu.handelspartnern.common.entity.Address;
+import org.iu.handelspartnern.common.entity.Contact;
+import org.iu.handelspartnern.common.entity.FinancialEntry;
+import org.iu.handelspartnern.common.entity.FinancialEntryStatus;
+import org.iu.handelspartnern.common.entity.FinancialEntryType;
+import org.iu.handelspartnern.common.entity.FinancialTotals;
+import org.iu.handelspartnern.common.entity.PartnerStatus;
+import org.iu.handelspartnern.common.entity.PartnerType;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproduzierbare Testdaten (fester Seed), damit Messläufe vergleichbar bleiben.
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 42L;
+    private static final String[] CITIES = { "Berlin", "Hamburg", "München", "Köln", "Frankfurt am Main" };
+    private static final String[] ROLES = { "Einkauf", "Vertrieb", "Buchhaltung", "Geschäftsführung" };
+
+    private BenchmarkData() {
+    }
+
+    static List<Contact> contacts(int count) {
+        Random random = new Random(SEED);
+        List<Contact> contacts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            contacts.add(new Contact("Ansprechpartner " + i, "kontakt" + i + "@example.com",
+                    "+49 30 " + (1000000 + random.nextInt(9000000)), ROLES[i % ROLES.length]));
+        }
+        return contacts;
+    }
+
+    static List<Address> addresses(int count) {
+        Random random = new Random(SEED);
+        List<Address> addresses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            addresses.add(new Address("Musterstraße " + (i + 1), CITIES[i % CITIES.length],
+                    String.valueOf(10000 + random.nextInt(89999)), "Deutschland", i == 0 ? "Rechnung" : "Lieferung"));
+        }
+        return addresses;
+    }
+
+    // Absteigend nach Datum sortiert, wie @OrderBy("date DESC, createdAt DESC") sie liefert
+    static List<FinancialEntry> financialEntries(long partnerId, int count) {
+        Random random = new Random(SEED);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        List<FinancialEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            FinancialEntryType type = random.nextBoolean() ? FinancialEntryType.CLAIM : FinancialEntryType.PAYABLE;
+            FinancialEntryStatus status = random.nextInt(3) == 0 ? FinancialEntryStatus.SETTLED
+                    : FinancialEntryStatus.OPEN;
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            FinancialEntry entry = new FinancialEntry(type, status, amount, "Rechnung " + i, "RE-" + i,
+                    start.plusDays(random.nextInt(730)));
+            entry.setPartnerId(partnerId);
+            entries.add(entry);
+        }
+        entries.sort(Comparator.comparing(FinancialEntry::getDate).reversed());
+        return entries;
+    }
+
+    static TradingPartner partner(long id, int entryCount) {
+        TradingPartner partner = new TradingPartner();
+        partner.setId(id);
+        partner.setName("Partner " + id);
+        partner.setTaxId("DE" + (100000000 + id));
+        partner.setPaymentTerms("30 Tage");
+        partner.setType(PartnerType.values()[(int) (id % PartnerType.values().length)]);
+        partner.setStatus(PartnerStatus.ACTIVE);
+        partner.setFinancialEntries(financialEntries(id, entryCount));
+        partner.setFinancialTotals(FinancialTotals.of(partner.getFinancialEntries()));
+        // Wie die Repositories: nur die neuesten Buchungen für die Übersicht, bereits absteigend sortiert
+        partner.setRecentFinancialEntries(new ArrayList<>(partner.getFinancialEntries()
+                .subList(0, Math.min(TradingPartner.RECENT_ENTRIES, entryCount))));
+        return partner;
+    }
+}
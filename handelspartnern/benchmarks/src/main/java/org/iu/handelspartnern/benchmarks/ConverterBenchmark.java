@@ -0,0 +1,84 @@
+package org.iu.handelspartnern.benchmarks;
+
+import org.iu.handelspartnern.common.entity.Address;
+import org.iu.handelspartnern.common.entity.Contact;
+import org.iu.handelspartnern.common.entity.FinancialEntry;
+import org.iu.handelspartnern.common.entity.converter.AddressConverter;
+import org.iu.handelspartnern.common.entity.converter.ContactConverter;
+import org.iu.handelspartnern.spark.util.JsonUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON-Round-Trips der JPA-Converter (Kontakte/Adressen als JSON-Spalte) und der Buchungsliste.
+ *
+ * Buchungen haben seit der eigenen Tabelle financial_entries keinen Converter mehr; gemessen wird stattdessen
+ * die JSON-Serialisierung der Buchungsliste, wie sie die Spark-API über JsonUtils ausliefert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    public int entries;
+
+    private final ContactConverter contactConverter = new ContactConverter();
+    private final AddressConverter addressConverter = new AddressConverter();
+
+    private List<Contact> contacts;
+    private List<Address> addresses;
+    private List<FinancialEntry> financialEntries;
+    private String contactsJson;
+    private String addressesJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contacts = BenchmarkData.contacts(entries);
+        addresses = BenchmarkData.addresses(entries);
+        financialEntries = BenchmarkData.financialEntries(1L, entries);
+        contactsJson = contactConverter.convertToDatabaseColumn(contacts);
+        addressesJson = addressConverter.convertToDatabaseColumn(addresses);
+    }
+
+    @Benchmark
+    public String contactsToJson() {
+        return contactConverter.convertToDatabaseColumn(contacts);
+    }
+
+    @Benchmark
+    public List<Contact> contactsFromJson() {
+        return contactConverter.convertToEntityAttribute(contactsJson);
+    }
+
+    @Benchmark
+    public String addressesToJson() {
+        return addressConverter.convertToDatabaseColumn(addresses);
+    }
+
+    @Benchmark
+    public List<Address> addressesFromJson() {
+        return addressConverter.convertToEntityAttribute(addressesJson);
+    }
+
+    @Benchmark
+    public String financialEntriesToJson() {
+        return JsonUtils.write(financialEntries);
+    }
+}
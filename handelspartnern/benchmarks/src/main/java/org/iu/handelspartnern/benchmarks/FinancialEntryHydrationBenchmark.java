@@ -0,0 +1,168 @@
+package org.iu.handelspartnern.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.iu.handelspartnern.common.entity.FinancialEntry;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+import org.iu.handelspartnern.spark.config.AppConfig;
+import org.iu.handelspartnern.spark.config.DatabaseConfig;
+import org.iu.handelspartnern.spark.repository.FinancialEntryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hydrierzeit der Buchungen eines Partners gegen eine In-Process-H2-Datenbank: Zeilen aus {@code financial_entries}
+ * (ganze Historie und die Seite für die Finanzübersicht) gegen die frühere JSON-Spalte, die der
+ * {@code FinancialEntryConverter} bei jedem Laden des Partners komplett dekodiert hat. Beide Wege laufen über eine
+ * eigene Session auf derselben Datenbank; die Latenz eines echten PostgreSQL-Servers ist nicht enthalten.
+ *
+ * 50 Buchungen entsprechen dem Schnitt der Speichermessung (100.000 auf 2.000 Partner).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FinancialEntryHydrationBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 500;
+
+    // Konfiguration wie im früheren FinancialEntryConverter
+    private static final ObjectMapper CONVERTER_MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Param({ "50", "1000", "10000" })
+    public int entries;
+
+    private DatabaseConfig databaseConfig;
+    private SessionFactory sessionFactory;
+    private FinancialEntryRepository repository;
+    private Long partnerId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        System.setProperty("db.url", "jdbc:h2:mem:entry-hydration-" + entries + ";DB_CLOSE_DELAY=-1");
+        System.setProperty("db.username", "sa");
+        System.setProperty("db.password", "");
+        System.setProperty("hibernate.show-sql", "false");
+        // Gemessen wird die Abfrage, nicht ein Treffer im Query-Cache
+        System.setProperty("hibernate.cache.queries", "false");
+
+        databaseConfig = new DatabaseConfig(new AppConfig(), new SimpleMeterRegistry());
+        databaseConfig.initialize();
+        sessionFactory = databaseConfig.getSessionFactory();
+        repository = new FinancialEntryRepository(databaseConfig);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        databaseConfig.shutdown();
+    }
+
+    // Ganze Historie als Zeilen, so wie sie früher die JSON-Liste lieferte
+    @Benchmark
+    public List<FinancialEntry> rows() {
+        return repository.findByPartnerId(partnerId);
+    }
+
+    // Was die Detailseite heute lädt: die neuesten Buchungen über den Index (partner_id, entry_date, created_at)
+    @Benchmark
+    public List<FinancialEntry> recentRows() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("FROM FinancialEntry e WHERE e.partnerId = :partnerId "
+                    + "ORDER BY e.date DESC, e.createdAt DESC", FinancialEntry.class)
+                    .setParameter("partnerId", partnerId)
+                    .setMaxResults(TradingPartner.RECENT_ENTRIES)
+                    .list();
+        }
+    }
+
+    // Früherer Weg: Spalte lesen und wie convertToEntityAttribute mit neuer TypeReference dekodieren
+    @Benchmark
+    public List<FinancialEntry> jsonList() {
+        try (Session session = sessionFactory.openSession()) {
+            String json = session.doReturningWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT financial_entries FROM legacy_entries WHERE partner_id = ?")) {
+                    statement.setLong(1, partnerId);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        rs.next();
+                        return rs.getString(1);
+                    }
+                }
+            });
+            return CONVERTER_MAPPER.readValue(json, new TypeReference<List<FinancialEntry>>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void seed() throws JsonProcessingException {
+        TradingPartner partner = BenchmarkData.partner(1L, 0);
+        partner.setId(null);
+        List<FinancialEntry> history;
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            session.persist(partner);
+            partnerId = partner.getId();
+            history = BenchmarkData.financialEntries(partnerId, entries);
+            for (int i = 0; i < history.size(); i++) {
+                session.persist(history.get(i));
+                if (i % SEED_BATCH_SIZE == SEED_BATCH_SIZE - 1) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            transaction.commit();
+        }
+
+        // Die JSON-Spalte war TEXT; der Converter schrieb die ganze Liste bei jeder Änderung neu
+        String json = CONVERTER_MAPPER.writeValueAsString(history);
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            session.doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE legacy_entries (partner_id BIGINT PRIMARY KEY, "
+                            + "financial_entries CLOB NOT NULL)");
+                }
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO legacy_entries VALUES (?, ?)")) {
+                    insert.setLong(1, partnerId);
+                    insert.setString(2, json);
+                    insert.executeUpdate();
+                }
+            });
+            transaction.commit();
+        }
+    }
+}
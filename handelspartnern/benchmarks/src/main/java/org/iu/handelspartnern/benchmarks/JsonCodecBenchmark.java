@@ -0,0 +1,87 @@
+package org.iu.handelspartnern.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.iu.handelspartnern.common.entity.Contact;
+import org.iu.handelspartnern.common.entity.converter.JsonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hydrieren und Schreiben der Kontaktliste: der frühere Converter-Weg (readValue mit neuer TypeReference je Aufruf)
+ * gegen JsonCodec mit vorab angelegtem ObjectReader/ObjectWriter, mit und ohne Blackbird.
+ *
+ * Die typischen Listen sind kurz (1 bis 5 Kontakte je Partner), dort fällt der Aufwand je Aufruf am stärksten ins
+ * Gewicht.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param({ "1", "5", "100", "10000" })
+    public int entries;
+
+    // Konfiguration wie in den Convertern vor JsonCodec
+    private final ObjectMapper plainMapper = new ObjectMapper();
+    private final JsonCodec<List<Contact>> codec = JsonCodec.listOf(JsonCodec.createMapper(false), Contact.class);
+    private final JsonCodec<List<Contact>> blackbirdCodec =
+            JsonCodec.listOf(JsonCodec.createMapper(true), Contact.class);
+
+    private List<Contact> contacts;
+    private String contactsJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JsonProcessingException {
+        contacts = BenchmarkData.contacts(entries);
+        contactsJson = plainMapper.writeValueAsString(contacts);
+    }
+
+    @Benchmark
+    public List<Contact> readTypeReference() throws JsonProcessingException {
+        return plainMapper.readValue(contactsJson, new TypeReference<List<Contact>>() {
+        });
+    }
+
+    @Benchmark
+    public List<Contact> readCodec() throws JsonProcessingException {
+        return codec.read(contactsJson);
+    }
+
+    @Benchmark
+    public List<Contact> readCodecBlackbird() throws JsonProcessingException {
+        return blackbirdCodec.read(contactsJson);
+    }
+
+    @Benchmark
+    public String writeObjectMapper() throws JsonProcessingException {
+        return plainMapper.writeValueAsString(contacts);
+    }
+
+    @Benchmark
+    public String writeCodec() throws JsonProcessingException {
+        return codec.write(contacts);
+    }
+
+    @Benchmark
+    public String writeCodecBlackbird() throws JsonProcessingException {
+        return blackbirdCodec.write(contacts);
+    }
+}
@@ -0,0 +1,124 @@
+package org.iu.handelspartnern.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.iu.handelspartnern.common.dto.PartnerListPage;
+import org.iu.handelspartnern.common.dto.TradingPartnerListDto;
+import org.iu.handelspartnern.common.entity.PartnerStatus;
+import org.iu.handelspartnern.common.entity.PartnerType;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+import org.iu.handelspartnern.common.infra.PartnerCache;
+import org.iu.handelspartnern.common.infra.PartnerChangeBus;
+import org.iu.handelspartnern.spark.config.AppConfig;
+import org.iu.handelspartnern.spark.config.DatabaseConfig;
+import org.iu.handelspartnern.spark.repository.FinancialEntryRepository;
+import org.iu.handelspartnern.spark.repository.TradingPartnerRepository;
+import org.iu.handelspartnern.spark.service.TradingPartnerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partnerliste über den echten Spark-Service (HQL-Filter, DTO-Projektion, Keyset-Seite) gegen eine
+ * In-Process-H2-Datenbank. Die Filterung läuft in der Datenbank; gemessen wird, was pro Request in der JVM
+ * und im JDBC-Treiber anfällt, nicht die Latenz eines echten PostgreSQL-Servers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartnerListBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 500;
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    public int partners;
+
+    private DatabaseConfig databaseConfig;
+    private TradingPartnerService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("db.url", "jdbc:h2:mem:partner-list-" + partners + ";DB_CLOSE_DELAY=-1");
+        System.setProperty("db.username", "sa");
+        System.setProperty("db.password", "");
+        System.setProperty("hibernate.show-sql", "false");
+        // Gemessen wird die Abfrage, nicht ein Treffer im Query-Cache
+        System.setProperty("hibernate.cache.queries", "false");
+
+        databaseConfig = new DatabaseConfig(new AppConfig(), new SimpleMeterRegistry());
+        databaseConfig.initialize();
+        seed();
+
+        TradingPartnerRepository repository = new TradingPartnerRepository(databaseConfig);
+        // Listen laufen nicht über den Partner-Cache
+        service = new TradingPartnerService(repository, new FinancialEntryRepository(databaseConfig),
+                new PartnerCache(0, Duration.ZERO), PartnerChangeBus.disabled());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        databaseConfig.shutdown();
+    }
+
+    @Benchmark
+    public List<TradingPartnerListDto> allPartners() {
+        return service.getAllPartners();
+    }
+
+    @Benchmark
+    public List<TradingPartnerListDto> filterByTypeAndStatus() {
+        return service.getAllPartners(PartnerType.SUPPLIER, PartnerStatus.ACTIVE, null);
+    }
+
+    // Trifft jeden zehnten Partner
+    @Benchmark
+    public List<TradingPartnerListDto> search() {
+        return service.getAllPartners(null, null, "acme");
+    }
+
+    @Benchmark
+    public PartnerListPage firstPage() {
+        return service.getFirstPartnerPage();
+    }
+
+    // Reguläre Session statt StatelessSession, damit @PrePersist dateCreated/dateModified setzt
+    private void seed() {
+        try (Session session = databaseConfig.getSessionFactory().openSession()) {
+            Transaction transaction = session.beginTransaction();
+            for (int i = 0; i < partners; i++) {
+                TradingPartner partner = BenchmarkData.partner(i + 1L, 0);
+                partner.setId(null);
+                if (i % 10 == 0) {
+                    partner.setName("Acme " + partner.getName());
+                }
+                if (i % 4 == 0) {
+                    partner.setStatus(PartnerStatus.INACTIVE);
+                }
+                session.persist(partner);
+                if (i % SEED_BATCH_SIZE == SEED_BATCH_SIZE - 1) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            transaction.commit();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.iu.handelspartnern.benchmarks;
+
+import org.iu.handelspartnern.common.entity.FinancialTotals;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-Logik von TradingPartner: Finanzsummen, Finanzübersicht und die Textdarstellung von Kontakten/Adressen
+ * (Formularfelder in beiden Frameworks).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradingPartnerBenchmark {
+
+    @Param({ "10", "100", "1000", "10000", "100000" })
+    public int entries;
+
+    private TradingPartner partner;
+    private TradingPartner formTarget;
+    private String contactsText;
+    private String addressesText;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        partner = BenchmarkData.partner(1L, entries);
+        partner.setContacts(BenchmarkData.contacts(entries));
+        partner.setAddresses(BenchmarkData.addresses(entries));
+        contactsText = partner.getContactsAsString();
+        addressesText = partner.getAddressesAsString();
+        formTarget = new TradingPartner();
+    }
+
+    // Vollständige Neuberechnung (Drift-Prüfung); O(n) über alle Buchungen
+    @Benchmark
+    public FinancialTotals recalculateFinancials() {
+        return partner.recalculateFinancials();
+    }
+
+    // Aus den gespeicherten Summen plus die fünf neuesten Buchungen; sollte unabhängig von entries sein
+    @Benchmark
+    public TradingPartner.FinancialOverview financialOverview() {
+        return partner.getFinancialOverview();
+    }
+
+    @Benchmark
+    public String contactsAsString() {
+        return partner.getContactsAsString();
+    }
+
+    @Benchmark
+    public void setContactsAsString(Blackhole blackhole) {
+        formTarget.setContactsAsString(contactsText);
+        blackhole.consume(formTarget.getContacts());
+    }
+
+    @Benchmark
+    public String addressesAsString() {
+        return partner.getAddressesAsString();
+    }
+
+    @Benchmark
+    public void setAddressesAsString(Blackhole blackhole) {
+        formTarget.setAddressesAsString(addressesText);
+        blackhole.consume(formTarget.getAddresses());
+    }
+}
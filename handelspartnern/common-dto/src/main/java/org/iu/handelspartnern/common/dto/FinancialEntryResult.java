@@ -0,0 +1,15 @@
+package org.iu.handelspartnern.common.dto;
+
+import org.iu.handelspartnern.common.entity.FinancialEntry;
+import org.iu.handelspartnern.common.entity.FinancialTotals;
+
+/**
+ * Ergebnis einer Buchung oder eines Statuswechsels: die gespeicherte Buchung und die Summen des Partners danach.
+ * Für die Antwort wird weder der Partner noch eine seiner übrigen Buchungen geladen.
+ */
+public record FinancialEntryResult(FinancialEntry entry, FinancialTotals totals) {
+
+    // Spaltenliste für "SELECT new ..." in beiden Repositories, passend zur Reihenfolge des Konstruktors
+    public static final String TOTALS_JPQL_SELECT = "SELECT new org.iu.handelspartnern.common.entity.FinancialTotals("
+            + "tp.claims, tp.settledClaims, tp.payable, tp.settledPayables, tp.transactionCount) FROM TradingPartner tp";
+}
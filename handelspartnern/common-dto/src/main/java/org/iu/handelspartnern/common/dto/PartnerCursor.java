@@ -0,0 +1,47 @@
+package org.iu.handelspartnern.common.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset-Cursor für die Partnerliste: Position (dateModified, id) des letzten
+ * gelieferten Eintrags. Die Liste ist nach dateModified DESC, id DESC sortiert,
+ * die nächste Seite beginnt also strikt "unterhalb" dieses Schlüssels.
+ */
+public record PartnerCursor(LocalDateTime dateModified, Long id) {
+
+    public PartnerCursor {
+        if (dateModified == null || id == null) {
+            throw new IllegalArgumentException("Cursor benötigt dateModified und id");
+        }
+    }
+
+    public static PartnerCursor after(TradingPartnerListDto last) {
+        return new PartnerCursor(last.dateModified(), last.id());
+    }
+
+    // Opaker, URL-sicherer Token für Query-Parameter und X-Next-Cursor Header
+    public String encode() {
+        String raw = dateModified + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PartnerCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Ungültiger Cursor: " + token);
+            }
+            return new PartnerCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Ungültiger Cursor: " + token, e);
+        }
+    }
+}
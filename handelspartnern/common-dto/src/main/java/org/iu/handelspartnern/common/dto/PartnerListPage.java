@@ -0,0 +1,42 @@
+package org.iu.handelspartnern.common.dto;
+
+import java.util.List;
+
+/**
+ * Eine Seite der Partnerliste. nextCursor ist null, wenn keine weiteren
+ * Einträge folgen.
+ */
+public record PartnerListPage(List<TradingPartnerListDto> partners, String nextCursor) {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    public static int normalizeLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    // Erwartet bis zu limit + 1 Zeilen: die zusätzliche Zeile zeigt nur an, dass eine weitere Seite existiert
+    public static PartnerListPage of(List<TradingPartnerListDto> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new PartnerListPage(rows, null);
+        }
+        List<TradingPartnerListDto> page = rows.subList(0, limit);
+        return new PartnerListPage(List.copyOf(page), PartnerCursor.after(page.get(limit - 1)).encode());
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    // Getter methods for compatibility
+    public List<TradingPartnerListDto> getPartners() {
+        return partners;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
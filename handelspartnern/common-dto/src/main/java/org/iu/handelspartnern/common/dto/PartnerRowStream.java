@@ -0,0 +1,84 @@
+package org.iu.handelspartnern.common.dto;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Eine Seite der Partnerliste, deren Zeilen erst beim Rendern aus einem Datenbank-Cursor gelesen werden.
+ * Gegenstück zu PartnerListPage für th:each ohne Zwischenliste: es liegt immer nur eine Zeile im Speicher.
+ *
+ * Nur einmal iterierbar. isEmpty() und getNextCursor() stehen nach dem Durchlauf fest; das Template fragt
+ * beide deshalb erst hinter den Zeilen ab. Schließen gibt Cursor und Connection frei.
+ */
+public final class PartnerRowStream implements Iterable<TradingPartnerListDto>, AutoCloseable {
+
+    private final Stream<TradingPartnerListDto> stream;
+    private final Iterator<TradingPartnerListDto> rows;
+    private final int limit;
+
+    private TradingPartnerListDto peeked;
+    private TradingPartnerListDto last;
+    private int count;
+    private boolean iterated;
+
+    // Erwartet wie PartnerListPage.of bis zu limit + 1 Zeilen
+    public PartnerRowStream(Stream<TradingPartnerListDto> stream, int limit) {
+        this.stream = stream;
+        this.rows = stream.iterator();
+        this.limit = limit;
+    }
+
+    @Override
+    public Iterator<TradingPartnerListDto> iterator() {
+        if (iterated) {
+            throw new IllegalStateException("PartnerRowStream kann nur einmal durchlaufen werden");
+        }
+        iterated = true;
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return count < limit && peek() != null;
+            }
+
+            @Override
+            public TradingPartnerListDto next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = peeked;
+                peeked = null;
+                count++;
+                return last;
+            }
+        };
+    }
+
+    public boolean isEmpty() {
+        return count == 0 && peek() == null;
+    }
+
+    // Cursor der Folgeseite, null wenn keine weitere Zeile existiert; erst nach dem Durchlauf gültig
+    public String getNextCursor() {
+        if (count < limit || peek() == null) {
+            return null;
+        }
+        return PartnerCursor.after(last).encode();
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private TradingPartnerListDto peek() {
+        if (peeked == null && rows.hasNext()) {
+            peeked = rows.next();
+        }
+        return peeked;
+    }
+}
@@ -0,0 +1,110 @@
+package org.iu.handelspartnern.common.dto;
+
+import org.iu.handelspartnern.common.entity.FinancialTotals;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Kontoauszug eines Partners als CSV: Kopf mit Stammdaten und per Aggregat-Query berechneten Summen, danach die
+ * Buchungen aus einem Datenbank-Cursor (neueste zuerst). writeCsv schreibt Zeile für Zeile in den Writer, der
+ * Auszug liegt also nie als Ganzes im Speicher.
+ *
+ * Nur einmal schreibbar. Schließen gibt Cursor und Connection frei.
+ */
+public final class PartnerStatement implements AutoCloseable {
+
+    private static final DateTimeFormatter CREATED_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    private final TradingPartner partner;
+    private final FinancialTotals totals;
+    private final Stream<StatementLine> lines;
+
+    public PartnerStatement(TradingPartner partner, FinancialTotals totals, Stream<StatementLine> lines) {
+        this.partner = partner;
+        this.totals = totals;
+        this.lines = lines;
+    }
+
+    public TradingPartner getPartner() {
+        return partner;
+    }
+
+    public String getFilename() {
+        return "kontoauszug-" + slugify(partner.getName()) + "-" + LocalDate.now() + ".csv";
+    }
+
+    // Eindeutig auch bei gleichnamigen Partnern (Sammel-Export als ZIP)
+    public String getArchiveEntryName() {
+        return "kontoauszug-" + partner.getId() + "-" + slugify(partner.getName()) + ".csv";
+    }
+
+    public void writeCsv(Writer out) throws IOException {
+        out.append("Kontoauszug für;").append(escapeCsv(partner.getName())).append('\n');
+        out.append("Erstellt am;").append(LocalDateTime.now().format(CREATED_FORMAT)).append('\n');
+        out.append("Partner-ID;").append(String.valueOf(partner.getId())).append('\n');
+        out.append("Partner-Typ;").append(String.valueOf(partner.getType())).append('\n');
+        out.append("Status;").append(String.valueOf(partner.getStatus())).append('\n');
+        out.append("Steuernummer;").append(escapeCsv(partner.getTaxId())).append('\n');
+        out.append('\n');
+        out.append("Offene Forderungen;").append(money(totals.openClaims())).append('\n');
+        out.append("Beglichene Forderungen;").append(money(totals.settledClaims())).append('\n');
+        out.append("Offene Verbindlichkeiten;").append(money(totals.openPayables())).append('\n');
+        out.append("Beglichene Verbindlichkeiten;").append(money(totals.settledPayables())).append('\n');
+        out.append("Transaktionen insgesamt;").append(String.valueOf(totals.transactionCount())).append('\n');
+        out.append('\n');
+        out.append("Typ;Status;Betrag;Datum;Verwendungszweck;Referenz\n");
+
+        Iterator<StatementLine> rows = lines.iterator();
+        while (rows.hasNext()) {
+            StatementLine line = rows.next();
+            out.append(String.valueOf(line.type()))
+                    .append(';').append(String.valueOf(line.status()))
+                    .append(';').append(line.amount() != null ? line.amount().toPlainString() : "0.00")
+                    .append(';').append(line.date() != null ? line.date().toString() : "-")
+                    .append(';').append(escapeCsv(line.purpose()))
+                    .append(';').append(escapeCsv(line.reference()))
+                    .append('\n');
+        }
+    }
+
+    @Override
+    public void close() {
+        lines.close();
+    }
+
+    // Summen aus dem Aggregat wie die gespeicherten Beträge mit zwei Nachkommastellen
+    private static String money(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        String sanitized = value.replaceAll("[\\r\\n]+", " ").trim();
+        if (sanitized.contains(";") || sanitized.contains("\"")) {
+            sanitized = '"' + sanitized.replace("\"", "\"\"") + '"';
+        }
+        return sanitized;
+    }
+
+    private static String slugify(String value) {
+        if (value == null || value.isBlank()) {
+            return "partner";
+        }
+        return value.toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", "-")
+                .replaceAll("-+", "-")
+                .replaceAll("(^-|-$)", "");
+    }
+}
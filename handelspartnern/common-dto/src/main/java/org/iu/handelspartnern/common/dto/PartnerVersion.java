@@ -0,0 +1,88 @@
+package org.iu.handelspartnern.common.dto;
+
+import org.iu.handelspartnern.common.entity.TradingPartner;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Stand eines Partners für bedingte GETs (ETag/Last-Modified), per Projektion ohne Buchungen und JSON-Spalten
+ * gelesen. version steigt mit jeder Änderung der Stammdaten und Listen, dateModified zusätzlich mit jeder Buchung
+ * und Summenänderung; beide zusammen identifizieren den Stand von Partner, Buchungen und Summen.
+ *
+ * Das ETag enthält die Darstellung (z. B. "detail" oder "transactions"), weil dieselbe Stand-Kombination je Route
+ * eine andere Antwort liefert.
+ */
+public record PartnerVersion(Long id, Long version, LocalDateTime dateModified) {
+
+    public PartnerVersion {
+        if (id == null || dateModified == null) {
+            throw new IllegalArgumentException("PartnerVersion benötigt id und dateModified");
+        }
+        if (version == null) {
+            version = 0L;
+        }
+    }
+
+    public static PartnerVersion of(TradingPartner partner) {
+        return new PartnerVersion(partner.getId(), partner.getVersion(), partner.getDateModified());
+    }
+
+    // Starkes ETag in Anführungszeichen
+    public String etag(String representation) {
+        return "\"" + id + "-" + version + "-" + ChronoUnit.MICROS.between(Instant.EPOCH, instant()) + "-"
+                + representation + "\"";
+    }
+
+    // Last-Modified hat nur Sekunden-Auflösung
+    public long lastModifiedMillis() {
+        return instant().truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+    }
+
+    public String lastModifiedHeader() {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(lastModifiedMillis()), ZoneOffset.UTC));
+    }
+
+    // Bedingungen nach RFC 9110: If-None-Match hat Vorrang, If-Modified-Since zählt nur ohne If-None-Match.
+    // Für GET genügt der schwache Vergleich, ein W/-Präfix des Clients wird also ignoriert.
+    public boolean isNotModified(String ifNoneMatch, String ifModifiedSince, String representation) {
+        if (ifNoneMatch != null && !ifNoneMatch.isBlank()) {
+            String etag = etag(representation);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (ifModifiedSince != null && !ifModifiedSince.isBlank()) {
+            try {
+                long since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant().toEpochMilli();
+                return lastModifiedMillis() <= since;
+            } catch (DateTimeParseException e) {
+                // Ungültiges Datum: Bedingung ignorieren (RFC 9110, 13.1.3)
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // dateModified ist lokale Zeit der Anwendung (LocalDateTime.now() in TradingPartner). Auf Mikrosekunden
+    // gerundet wie von PostgreSQL, sonst passt ein gerade gespeicherter Partner nicht zum Stand aus der Datenbank
+    private Instant instant() {
+        Instant instant = dateModified.atZone(ZoneId.systemDefault()).toInstant();
+        return instant.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+    }
+}
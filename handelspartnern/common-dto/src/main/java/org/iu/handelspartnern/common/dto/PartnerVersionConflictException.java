@@ -0,0 +1,26 @@
+package org.iu.handelspartnern.common.dto;
+
+/**
+ * Der Client hat einen Partner auf Basis einer veralteten version bearbeitet (Formular oder API). Die Controller
+ * antworten darauf mit 409, statt die Änderung eines anderen Nutzers still zu überschreiben.
+ */
+public class PartnerVersionConflictException extends RuntimeException {
+
+    private final Long expectedVersion;
+    private final Long currentVersion;
+
+    public PartnerVersionConflictException(Long partnerId, Long expectedVersion, Long currentVersion) {
+        super("Partner " + partnerId + " wurde inzwischen geändert (Version " + expectedVersion + ", aktuell "
+                + currentVersion + "). Bitte neu laden und erneut speichern.");
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,19 @@
+package org.iu.handelspartnern.common.dto;
+
+import org.iu.handelspartnern.common.entity.FinancialEntryStatus;
+import org.iu.handelspartnern.common.entity.FinancialEntryType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Eine Buchungszeile des Kontoauszugs als JPQL-Projektion. Anders als FinancialEntry-Entities landen die Zeilen
+ * nicht im Persistence Context und bleiben beim Streamen nicht im Speicher.
+ */
+public record StatementLine(FinancialEntryType type, FinancialEntryStatus status, BigDecimal amount,
+        LocalDate date, String purpose, String reference) {
+
+    // Spaltenliste für "SELECT new ..." in beiden Repositories, passend zur Reihenfolge des Konstruktors
+    public static final String JPQL_SELECT = "SELECT new org.iu.handelspartnern.common.dto.StatementLine("
+            + "e.type, e.status, e.amount, e.date, e.purpose, e.reference) FROM FinancialEntry e";
+}
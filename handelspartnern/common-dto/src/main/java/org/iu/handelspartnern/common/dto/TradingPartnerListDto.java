@@ -2,12 +2,20 @@ package org.iu.handelspartnern.common.dto;
 
 import org.iu.handelspartnern.common.entity.PartnerStatus;
 import org.iu.handelspartnern.common.entity.PartnerType;
+import org.iu.handelspartnern.common.entity.TradingPartner;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public record TradingPartnerListDto(Long id, String name, String corporateImageUrl, PartnerType type,
                 PartnerStatus status, BigDecimal claims, BigDecimal payable, LocalDateTime dateModified) {
 
+        // Wird auch direkt per JPQL-Konstruktorausdruck befüllt, daher gleicher Fallback wie im Entity-Getter
+        public TradingPartnerListDto {
+                if (corporateImageUrl == null) {
+                        corporateImageUrl = TradingPartner.defaultCorporateImageUrl(id);
+                }
+        }
+
         // Getter methods for compatibility
         public Long getId() {
                 return id;
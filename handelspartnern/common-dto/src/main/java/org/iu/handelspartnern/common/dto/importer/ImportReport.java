@@ -0,0 +1,97 @@
+package org.iu.handelspartnern.common.dto.importer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Ergebnis eines Bulk-Imports: Zähler, Fehler je Zeile (die ersten MAX_REPORTED_ERRORS) und Durchsatz.
+ * Wird als JSON an den Aufrufer zurückgegeben. Fortgeschrieben wird er nur vom BulkImporter (common-infra).
+ */
+public final class ImportReport {
+
+    // Obergrenze, damit eine durchgehend fehlerhafte Datei den Report nicht beliebig wachsen lässt
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    public record RowError(long row, String message) {
+    }
+
+    private final long startNanos = System.nanoTime();
+    private final List<RowError> errors = new ArrayList<>();
+
+    private long rows;
+    private long imported;
+    private long entries;
+    private long failed;
+    private String aborted;
+    private long durationMs;
+
+    public void countRow() {
+        rows++;
+    }
+
+    public void imported(long partners, long financialEntries) {
+        imported += partners;
+        entries += financialEntries;
+    }
+
+    public void reject(long row, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, message));
+        }
+    }
+
+    // Nicht zeilenbezogener Abbruch (kaputte Datei, Datenbank weg); bereits übernommene Blöcke bleiben bestehen
+    public void abort(String message) {
+        aborted = message;
+    }
+
+    public ImportReport finish() {
+        // Prüfungen gegen die Datenbank melden erst beim Schreiben des Blocks, daher nach Zeile sortieren
+        errors.sort(Comparator.comparingLong(RowError::row));
+        durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        return this;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFinancialEntries() {
+        return entries;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public boolean isErrorsTruncated() {
+        return failed > errors.size();
+    }
+
+    public String getAborted() {
+        return aborted;
+    }
+
+    public boolean isSuccess() {
+        return failed == 0 && aborted == null;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public long getRowsPerSecond() {
+        return durationMs > 0 ? rows * 1000 / durationMs : rows;
+    }
+}
@@ -1,5 +1,7 @@
 package org.iu.handelspartnern.common.entity;
 
+import java.util.Objects;
+
 public class Address {
     private String street;
     private String city;
@@ -25,6 +27,29 @@ public class Address {
                 + ", country='" + country + '\'' + ", type='" + type + '\'' + '}';
     }
 
+    // Wertsemantik: Hibernate vergleicht beim Flush den Snapshot der Liste per equals (JsonbListType),
+    // ohne equals gälte jeder geladene Partner als geändert
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Address)) {
+            return false;
+        }
+        Address a = (Address) o;
+        return Objects.equals(street, a.street)
+                && Objects.equals(city, a.city)
+                && Objects.equals(zipCode, a.zipCode)
+                && Objects.equals(country, a.country)
+                && Objects.equals(type, a.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(street, city, zipCode, country, type);
+    }
+
     // Getters and Setters
     public String getStreet() {
         return street;
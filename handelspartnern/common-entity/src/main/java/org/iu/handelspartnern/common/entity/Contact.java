@@ -1,5 +1,7 @@
 package org.iu.handelspartnern.common.entity;
 
+import java.util.Objects;
+
 public class Contact {
     private String name;
     private String email;
@@ -23,6 +25,27 @@ public class Contact {
                 + ", role='" + role + '\'' + '}';
     }
 
+    // Wertsemantik wie Address, für das Dirty-Checking der Kontaktliste
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Contact)) {
+            return false;
+        }
+        Contact c = (Contact) o;
+        return Objects.equals(name, c.name)
+                && Objects.equals(email, c.email)
+                && Objects.equals(phone, c.phone)
+                && Objects.equals(role, c.role);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, email, phone, role);
+    }
+
     // Getters and Setters
     public String getName() {
         return name;
@@ -1,5 +1,14 @@
 package org.iu.handelspartnern.common.entity;
 
+import org.hibernate.annotations.Type;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -7,15 +16,39 @@ import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 import java.util.UUID;
 
+@Entity
+@Table(name = "financial_entries", indexes = {
+        @Index(name = "idx_financial_entries_partner_date", columnList = "partner_id, entry_date, created_at") })
 public class FinancialEntry {
 
+    @Id
+    @Type(type = "org.hibernate.type.PostgresUUIDType")
+    @Column(columnDefinition = "uuid")
     private UUID id;
+
+    @Column(name = "partner_id", nullable = false)
+    private Long partnerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
     private FinancialEntryType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
     private FinancialEntryStatus status;
+
+    @Column(nullable = false, columnDefinition = "NUMERIC(19,2)")
     private BigDecimal amount;
+
+    @Column(columnDefinition = "TEXT")
     private String purpose;
+
     private String reference;
+
+    @Column(name = "entry_date", nullable = false)
     private LocalDate date;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     public FinancialEntry() {
@@ -38,6 +71,18 @@ public class FinancialEntry {
         this.date = date != null ? date : LocalDate.now();
     }
 
+    public FinancialEntry(FinancialEntry source) {
+        this.id = source.id;
+        this.partnerId = source.partnerId;
+        this.type = source.type;
+        this.status = source.status;
+        this.amount = source.amount;
+        this.purpose = source.purpose;
+        this.reference = source.reference;
+        this.date = source.date;
+        this.createdAt = source.createdAt;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -46,6 +91,14 @@ public class FinancialEntry {
         this.id = id;
     }
 
+    public Long getPartnerId() {
+        return partnerId;
+    }
+
+    public void setPartnerId(Long partnerId) {
+        this.partnerId = partnerId;
+    }
+
     public FinancialEntryType getType() {
         return type;
     }
@@ -0,0 +1,88 @@
+package org.iu.handelspartnern.common.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * Laufende Finanzsummen eines Partners bzw. deren Änderung (Delta) durch eine einzelne Buchung.
+ * Die Summen werden am Partner per Delta fortgeschrieben; {@link #of(Iterable)} rechnet nur noch für die
+ * Drift-Prüfung alle Buchungen neu durch.
+ */
+public record FinancialTotals(BigDecimal openClaims, BigDecimal settledClaims, BigDecimal openPayables,
+        BigDecimal settledPayables, int transactionCount) {
+
+    public static final FinancialTotals ZERO = new FinancialTotals(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+            BigDecimal.ZERO, 0);
+
+    public FinancialTotals {
+        openClaims = openClaims != null ? openClaims : BigDecimal.ZERO;
+        settledClaims = settledClaims != null ? settledClaims : BigDecimal.ZERO;
+        openPayables = openPayables != null ? openPayables : BigDecimal.ZERO;
+        settledPayables = settledPayables != null ? settledPayables : BigDecimal.ZERO;
+    }
+
+    // Vollständige Neuberechnung aus allen Buchungen (nur für Verifikation/Reparatur)
+    public static FinancialTotals of(Iterable<FinancialEntry> entries) {
+        FinancialTotals totals = ZERO;
+        for (FinancialEntry entry : entries) {
+            if (entry != null) {
+                totals = totals.plus(forNewEntry(entry));
+            }
+        }
+        return totals;
+    }
+
+    // Eine Zeile aus "GROUP BY type, status" (Summe und Anzahl der Buchungen je Typ und Status)
+    public static FinancialTotals ofGroup(FinancialEntryType type, FinancialEntryStatus status, BigDecimal sum,
+            long count) {
+        return bucket(type, status, sum, Math.toIntExact(count));
+    }
+
+    // Delta für eine neu angelegte Buchung
+    public static FinancialTotals forNewEntry(FinancialEntry entry) {
+        return bucket(entry.getType(), entry.getStatus(), entry.getAmount(), 1);
+    }
+
+    // Delta für einen Statuswechsel; entry trägt noch den bisherigen Status
+    public static FinancialTotals forStatusChange(FinancialEntry entry, FinancialEntryStatus newStatus) {
+        if (newStatus == null || newStatus.equals(entry.getStatus())) {
+            return ZERO;
+        }
+        return bucket(entry.getType(), newStatus, entry.getAmount(), 0)
+                .minus(bucket(entry.getType(), entry.getStatus(), entry.getAmount(), 0));
+    }
+
+    public FinancialTotals plus(FinancialTotals other) {
+        return new FinancialTotals(openClaims.add(other.openClaims), settledClaims.add(other.settledClaims),
+                openPayables.add(other.openPayables), settledPayables.add(other.settledPayables),
+                transactionCount + other.transactionCount);
+    }
+
+    public FinancialTotals minus(FinancialTotals other) {
+        return new FinancialTotals(openClaims.subtract(other.openClaims),
+                settledClaims.subtract(other.settledClaims), openPayables.subtract(other.openPayables),
+                settledPayables.subtract(other.settledPayables), transactionCount - other.transactionCount);
+    }
+
+    public boolean isZero() {
+        return openClaims.signum() == 0 && settledClaims.signum() == 0 && openPayables.signum() == 0
+                && settledPayables.signum() == 0 && transactionCount == 0;
+    }
+
+    private static FinancialTotals bucket(FinancialEntryType type, FinancialEntryStatus status, BigDecimal amount,
+            int count) {
+        BigDecimal value = amount != null ? amount : BigDecimal.ZERO;
+        boolean settled = FinancialEntryStatus.SETTLED.equals(status);
+
+        if (FinancialEntryType.CLAIM.equals(type)) {
+            return settled
+                    ? new FinancialTotals(null, value, null, null, count)
+                    : new FinancialTotals(value, null, null, null, count);
+        }
+        if (FinancialEntryType.PAYABLE.equals(type)) {
+            return settled
+                    ? new FinancialTotals(null, null, null, value, count)
+                    : new FinancialTotals(null, null, value, null, count);
+        }
+        return new FinancialTotals(null, null, null, null, count);
+    }
+}
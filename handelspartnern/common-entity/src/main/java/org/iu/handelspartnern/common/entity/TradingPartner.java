@@ -1,34 +1,56 @@
 package org.iu.handelspartnern.common.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
-import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.OneToMany;
+import javax.persistence.OrderBy;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Table;
-import org.iu.handelspartnern.common.entity.converter.AddressConverter;
-import org.iu.handelspartnern.common.entity.converter.ContactConverter;
-import org.iu.handelspartnern.common.entity.converter.FinancialEntryConverter;
+import javax.persistence.Transient;
+import javax.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.annotations.Type;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.LocalDate;
-import java.util.Comparator;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.stream.Collectors;
 
 @Entity
-@Table(name = "trading_partners")
+@Table(name = "trading_partners", indexes = {
+        @Index(name = "idx_trading_partners_type_status", columnList = "type, status"),
+        @Index(name = "idx_trading_partners_keyset", columnList = "dateModified, id") })
+// Second-Level-Cache (nur wirksam, wenn hibernate.cache.use_second_level_cache gesetzt ist); die Buchungen sind
+// nicht gecacht und werden weiterhin aus der Datenbank nachgeladen
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class TradingPartner {
+    // Anzahl der Buchungen in der Finanzübersicht der Detailansicht
+    public static final int RECENT_ENTRIES = 5;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Optimistic Locking für Stammdaten und JSON-Listen; die Finanzsummen laufen per Delta-UPDATE daran vorbei
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     @Column(length = 2048)
     private String corporateImageUrl;
 
@@ -47,12 +69,23 @@ public class TradingPartner {
     @Column(nullable = false)
     private LocalDateTime dateModified;
 
-    @Column(nullable = false, columnDefinition = "NUMERIC(19,2)")
+    // Laufende Summen (offen = claims/payable): nur per Delta-UPDATE im Repository fortgeschrieben,
+    // daher nicht updatable - ein Speichern des Partners überschreibt sie nie mit veralteten Werten
+    @Column(nullable = false, updatable = false, columnDefinition = "NUMERIC(19,2)")
     private BigDecimal claims;
 
-    @Column(nullable = false, columnDefinition = "NUMERIC(19,2)")
+    @Column(nullable = false, updatable = false, columnDefinition = "NUMERIC(19,2)")
     private BigDecimal payable;
 
+    @Column(nullable = false, updatable = false, columnDefinition = "NUMERIC(19,2) DEFAULT 0")
+    private BigDecimal settledClaims;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "NUMERIC(19,2) DEFAULT 0")
+    private BigDecimal settledPayables;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "INTEGER DEFAULT 0")
+    private int transactionCount;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private PartnerType type;
@@ -64,18 +97,30 @@ public class TradingPartner {
     @Column(columnDefinition = "TEXT")
     private String about;
 
+    // TEXT für hbm2ddl/H2; auf PostgreSQL jsonb (Migration 004 bzw. JsonbListColumns beim Start), einzelne
+    // Elemente ändern die Repositories dann per jsonb_set
     @Column(columnDefinition = "TEXT")
-    @Convert(converter = AddressConverter.class)
+    @Type(type = "org.iu.handelspartnern.common.entity.converter.JsonbListType$Addresses")
     private List<Address> addresses;
 
     @Column(columnDefinition = "TEXT", nullable = false)
-    @Convert(converter = ContactConverter.class)
+    @Type(type = "org.iu.handelspartnern.common.entity.converter.JsonbListType$Contacts")
     private List<Contact> contacts;
 
-    @Column(columnDefinition = "TEXT")
-    @Convert(converter = FinancialEntryConverter.class)
+    // Nur-Lese-Sicht auf financial_entries: Buchungen werden einzeln per INSERT/UPDATE
+    // über das FinancialEntry-Repository geschrieben, nie über diese Collection. Die Historie liefern die
+    // Repositories bei Bedarf; nicht im JSON, damit ein getrennter Partner nie die Lazy-Collection anfasst.
+    @OneToMany(fetch = FetchType.LAZY)
+    @JoinColumn(name = "partner_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @OrderBy("date DESC, createdAt DESC")
     private List<FinancialEntry> financialEntries;
 
+    // Die letzten RECENT_ENTRIES Buchungen für die Finanzübersicht, von den Repositories per ORDER BY ... LIMIT
+    // gesetzt; so muss für die Detailansicht nie die ganze Collection geladen werden
+    @Transient
+    private List<FinancialEntry> recentFinancialEntries;
+
     // Default Constructor
     public TradingPartner() {
         this.name = "Unbenannt";
@@ -87,6 +132,43 @@ public class TradingPartner {
         this.financialEntries = new ArrayList<>();
         this.claims = BigDecimal.ZERO;
         this.payable = BigDecimal.ZERO;
+        this.settledClaims = BigDecimal.ZERO;
+        this.settledPayables = BigDecimal.ZERO;
+    }
+
+    // Tiefe Kopie (Listen und ihre Elemente) für den Partner-Cache: jeder Aufrufer bekommt eine eigene Instanz.
+    // Ohne die Buchungs-Historie (die Lazy-Collection wird nicht angefasst), nur mit den letzten Buchungen für die
+    // Finanzübersicht; Kopieren kostet damit gleich viel, egal wie viele Buchungen der Partner hat.
+    public TradingPartner(TradingPartner source) {
+        this.id = source.id;
+        this.version = source.version;
+        this.corporateImageUrl = source.corporateImageUrl;
+        this.name = source.name;
+        this.taxId = source.taxId;
+        this.paymentTerms = source.paymentTerms;
+        this.dateCreated = source.dateCreated;
+        this.dateModified = source.dateModified;
+        this.claims = source.claims;
+        this.payable = source.payable;
+        this.settledClaims = source.settledClaims;
+        this.settledPayables = source.settledPayables;
+        this.transactionCount = source.transactionCount;
+        this.type = source.type;
+        this.status = source.status;
+        this.about = source.about;
+        this.addresses = new ArrayList<>(source.getAddresses().size());
+        for (Address a : source.getAddresses()) {
+            this.addresses.add(a == null ? null
+                    : new Address(a.getStreet(), a.getCity(), a.getZipCode(), a.getCountry(), a.getType()));
+        }
+        this.contacts = new ArrayList<>(source.getContacts().size());
+        for (Contact c : source.getContacts()) {
+            this.contacts.add(c == null ? null : new Contact(c.getName(), c.getEmail(), c.getPhone(), c.getRole()));
+        }
+        this.recentFinancialEntries = new ArrayList<>(source.getRecentFinancialEntries().size());
+        for (FinancialEntry entry : source.getRecentFinancialEntries()) {
+            this.recentFinancialEntries.add(new FinancialEntry(entry));
+        }
     }
 
     @PrePersist
@@ -110,8 +192,21 @@ public class TradingPartner {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getCorporateImageUrl() {
-        return corporateImageUrl != null ? corporateImageUrl : "https://picsum.photos/60/60?random=" + id;
+        return corporateImageUrl != null ? corporateImageUrl : defaultCorporateImageUrl(id);
+    }
+
+    // Platzhalterbild, auch für Projektionen ohne geladene Entität (TradingPartnerListDto)
+    public static String defaultCorporateImageUrl(Long id) {
+        return "https://picsum.photos/60/60?random=" + id;
     }
 
     public void setCorporateImageUrl(String corporateImageUrl) {
@@ -166,6 +261,30 @@ public class TradingPartner {
         this.payable = payable;
     }
 
+    public BigDecimal getSettledClaims() {
+        return settledClaims;
+    }
+
+    public BigDecimal getSettledPayables() {
+        return settledPayables;
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public FinancialTotals getFinancialTotals() {
+        return new FinancialTotals(claims, settledClaims, payable, settledPayables, transactionCount);
+    }
+
+    public void setFinancialTotals(FinancialTotals totals) {
+        this.claims = totals.openClaims();
+        this.settledClaims = totals.settledClaims();
+        this.payable = totals.openPayables();
+        this.settledPayables = totals.settledPayables();
+        this.transactionCount = totals.transactionCount();
+    }
+
     public PartnerType getType() {
         return type;
     }
@@ -212,6 +331,7 @@ public class TradingPartner {
         this.contacts = contacts;
     }
 
+    @JsonIgnore
     public List<FinancialEntry> getFinancialEntries() {
         if (financialEntries == null) {
             financialEntries = new ArrayList<>();
@@ -221,12 +341,17 @@ public class TradingPartner {
 
     public void setFinancialEntries(List<FinancialEntry> financialEntries) {
         this.financialEntries = financialEntries;
-        recalculateFinancials();
     }
 
-    public void addFinancialEntry(FinancialEntry entry) {
-        getFinancialEntries().add(entry);
-        recalculateFinancials();
+    public List<FinancialEntry> getRecentFinancialEntries() {
+        if (recentFinancialEntries == null) {
+            recentFinancialEntries = new ArrayList<>();
+        }
+        return recentFinancialEntries;
+    }
+
+    public void setRecentFinancialEntries(List<FinancialEntry> recentFinancialEntries) {
+        this.recentFinancialEntries = recentFinancialEntries;
     }
 
     // ===== ALIAS METHODS FOR COMPATIBILITY =====
@@ -386,65 +511,21 @@ public class TradingPartner {
         }
     }
 
+    // Aus den gespeicherten Summen und den separat geladenen letzten Buchungen (setRecentFinancialEntries);
+    // die Lazy-Collection financialEntries wird hier nicht angefasst
     public FinancialOverview getFinancialOverview() {
-        recalculateFinancials();
-
-        BigDecimal openClaims = BigDecimal.ZERO;
-        BigDecimal settledClaims = BigDecimal.ZERO;
-        BigDecimal openPayables = BigDecimal.ZERO;
-        BigDecimal settledPayables = BigDecimal.ZERO;
-
-        for (FinancialEntry entry : getFinancialEntries()) {
-            if (entry.getAmount() == null) {
-                continue;
-            }
-
-            if (FinancialEntryType.CLAIM.equals(entry.getType())) {
-                if (entry.isSettled()) {
-                    settledClaims = settledClaims.add(entry.getAmount());
-                } else {
-                    openClaims = openClaims.add(entry.getAmount());
-                }
-            } else if (FinancialEntryType.PAYABLE.equals(entry.getType())) {
-                if (entry.isSettled()) {
-                    settledPayables = settledPayables.add(entry.getAmount());
-                } else {
-                    openPayables = openPayables.add(entry.getAmount());
-                }
-            }
-        }
-
-        List<FinancialEntryView> recent = getFinancialEntries().stream()
-                .sorted(Comparator.comparing(FinancialEntry::getDate, Comparator.nullsLast(LocalDate::compareTo))
-                        .reversed())
-                .limit(5)
+        List<FinancialEntryView> recent = getRecentFinancialEntries().stream()
                 .map(FinancialEntryView::from)
                 .collect(Collectors.toList());
 
-        return new FinancialOverview(openClaims, settledClaims, openPayables, settledPayables,
-                getFinancialEntries().size(), recent);
+        FinancialTotals totals = getFinancialTotals();
+        return new FinancialOverview(totals.openClaims(), totals.settledClaims(), totals.openPayables(),
+                totals.settledPayables(), totals.transactionCount(), recent);
     }
 
-    public void recalculateFinancials() {
-        BigDecimal openClaims = BigDecimal.ZERO;
-        BigDecimal openPayables = BigDecimal.ZERO;
-
-        for (FinancialEntry entry : getFinancialEntries()) {
-            if (entry.getAmount() == null) {
-                continue;
-            }
-
-            if (FinancialEntryType.CLAIM.equals(entry.getType()) && !entry.isSettled()) {
-                openClaims = openClaims.add(entry.getAmount());
-            }
-
-            if (FinancialEntryType.PAYABLE.equals(entry.getType()) && !entry.isSettled()) {
-                openPayables = openPayables.add(entry.getAmount());
-            }
-        }
-
-        this.claims = openClaims;
-        this.payable = openPayables;
+    // Vollständige Neuberechnung aus den geladenen Buchungen, nur für Drift-Prüfung und Reparatur
+    public FinancialTotals recalculateFinancials() {
+        return FinancialTotals.of(getFinancialEntries());
     }
 
     public static class FinancialOverview {
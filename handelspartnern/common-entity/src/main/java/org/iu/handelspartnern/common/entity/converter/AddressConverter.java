@@ -1,8 +1,6 @@
 package org.iu.handelspartnern.common.entity.converter;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.iu.handelspartnern.common.entity.Address;
 import javax.persistence.AttributeConverter;
 import javax.persistence.Converter;
@@ -12,7 +10,7 @@ import java.util.List;
 @Converter
 public class AddressConverter implements AttributeConverter<List<Address>, String> {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final JsonCodec<List<Address>> CODEC = JsonCodec.listOf(Address.class);
 
     @Override
     public String convertToDatabaseColumn(List<Address> addresses) {
@@ -20,7 +18,7 @@ public class AddressConverter implements AttributeConverter<List<Address>, Strin
             return "[]";
         }
         try {
-            return objectMapper.writeValueAsString(addresses);
+            return CODEC.write(addresses);
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Error converting addresses to JSON", e);
         }
@@ -32,8 +30,7 @@ public class AddressConverter implements AttributeConverter<List<Address>, Strin
             return Collections.emptyList();
         }
         try {
-            return objectMapper.readValue(dbData, new TypeReference<List<Address>>() {
-            });
+            return CODEC.read(dbData);
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Error converting JSON to addresses", e);
         }
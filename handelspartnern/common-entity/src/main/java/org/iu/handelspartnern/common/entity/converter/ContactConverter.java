@@ -1,8 +1,6 @@
 package org.iu.handelspartnern.common.entity.converter;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.iu.handelspartnern.common.entity.Contact;
 import javax.persistence.AttributeConverter;
 import javax.persistence.Converter;
@@ -12,7 +10,7 @@ import java.util.List;
 @Converter
 public class ContactConverter implements AttributeConverter<List<Contact>, String> {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final JsonCodec<List<Contact>> CODEC = JsonCodec.listOf(Contact.class);
 
     @Override
     public String convertToDatabaseColumn(List<Contact> contacts) {
@@ -20,7 +18,7 @@ public class ContactConverter implements AttributeConverter<List<Contact>, Strin
             return "[]";
         }
         try {
-            return objectMapper.writeValueAsString(contacts);
+            return CODEC.write(contacts);
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Error converting contacts to JSON", e);
         }
@@ -32,8 +30,7 @@ public class ContactConverter implements AttributeConverter<List<Contact>, Strin
             return Collections.emptyList();
         }
         try {
-            return objectMapper.readValue(dbData, new TypeReference<List<Contact>>() {
-            });
+            return CODEC.read(dbData);
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Error converting JSON to contacts", e);
         }
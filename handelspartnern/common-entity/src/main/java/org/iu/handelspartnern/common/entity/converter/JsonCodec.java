@@ -0,0 +1,65 @@
+package org.iu.handelspartnern.common.entity.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import java.util.List;
+
+/**
+ * JSON-Codec für einen festen Typ: ObjectReader/ObjectWriter werden einmal für den aufgelösten Typ angelegt und
+ * sind danach unveränderlich und thread-safe. Alle Converter teilen sich einen ObjectMapper mit derselben
+ * Konfiguration (JavaTimeModule, unbekannte Felder ignorieren, Datumswerte als ISO-Text).
+ *
+ * Mit -Djson.blackbird=true erzeugt das Blackbird-Modul Zugriffe per LambdaMetafactory statt Reflection.
+ */
+public final class JsonCodec<T> {
+
+    private static final ObjectMapper MAPPER = createMapper(Boolean.getBoolean("json.blackbird"));
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    private JsonCodec(ObjectMapper mapper, JavaType type) {
+        this.reader = mapper.readerFor(type);
+        this.writer = mapper.writerFor(type);
+    }
+
+    public static <E> JsonCodec<List<E>> listOf(Class<E> elementType) {
+        return listOf(MAPPER, elementType);
+    }
+
+    // Eigener Mapper z. B. für Vergleichsmessungen im benchmarks-Modul
+    public static <E> JsonCodec<List<E>> listOf(ObjectMapper mapper, Class<E> elementType) {
+        return new JsonCodec<>(mapper, mapper.getTypeFactory().constructCollectionType(List.class, elementType));
+    }
+
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    public static ObjectMapper createMapper(boolean blackbird) {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        return mapper;
+    }
+
+    public T read(String json) throws JsonProcessingException {
+        return reader.readValue(json);
+    }
+
+    public String write(T value) throws JsonProcessingException {
+        return writer.writeValueAsString(value);
+    }
+}
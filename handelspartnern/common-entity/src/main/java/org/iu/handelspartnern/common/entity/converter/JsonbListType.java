@@ -0,0 +1,121 @@
+package org.iu.handelspartnern.common.entity.converter;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+import org.iu.handelspartnern.common.entity.Address;
+import org.iu.handelspartnern.common.entity.Contact;
+
+import javax.persistence.AttributeConverter;
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * JSON-Liste (Kontakte, Adressen) für eine jsonb-Spalte. Serialisiert wird mit den bestehenden Convertern; gebunden
+ * wird der Text mit Types.OTHER, damit PostgreSQL den Typ aus der Spalte ableitet. Ein per setString gebundener
+ * varchar ließe sich nicht in jsonb schreiben. Dasselbe Mapping funktioniert daher vor der Migration
+ * (db/migration/004_jsonb_lists.sql) auf TEXT und unter H2.
+ *
+ * Das Schema legt hbm2ddl als Text an (H2 kennt kein jsonb). Auf PostgreSQL setzt den Spaltentyp jsonb die
+ * Migration oder, bei leerer Tabelle, JsonbListColumns (common-infra) beim Start.
+ */
+public abstract class JsonbListType<T> implements UserType {
+
+    private final AttributeConverter<List<T>, String> converter;
+    private final UnaryOperator<T> copy;
+
+    protected JsonbListType(AttributeConverter<List<T>, String> converter, UnaryOperator<T> copy) {
+        this.converter = converter;
+        this.copy = copy;
+    }
+
+    public static final class Contacts extends JsonbListType<Contact> {
+        public Contacts() {
+            super(new ContactConverter(),
+                    c -> new Contact(c.getName(), c.getEmail(), c.getPhone(), c.getRole()));
+        }
+    }
+
+    public static final class Addresses extends JsonbListType<Address> {
+        public Addresses() {
+            super(new AddressConverter(),
+                    a -> new Address(a.getStreet(), a.getCity(), a.getZipCode(), a.getCountry(), a.getType()));
+        }
+    }
+
+    @Override
+    public int[] sqlTypes() {
+        return new int[] { Types.LONGVARCHAR };
+    }
+
+    @Override
+    public Class<?> returnedClass() {
+        return List.class;
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner)
+            throws SQLException {
+        return new ArrayList<>(converter.convertToEntityAttribute(rs.getString(names[0])));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session)
+            throws SQLException {
+        st.setObject(index, converter.convertToDatabaseColumn((List<T>) value), Types.OTHER);
+    }
+
+    // Snapshot für das Dirty-Checking: Elemente per Konstruktor kopieren statt über einen JSON-Roundtrip
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object deepCopy(Object value) {
+        if (value == null) {
+            return null;
+        }
+        List<T> source = (List<T>) value;
+        List<T> target = new ArrayList<>(source.size());
+        for (T element : source) {
+            target.add(element == null ? null : copy.apply(element));
+        }
+        return target;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Object x) {
+        return Objects.hashCode(x);
+    }
+
+    // Im Second-Level-Cache als JSON-Text
+    @Override
+    @SuppressWarnings("unchecked")
+    public Serializable disassemble(Object value) {
+        return converter.convertToDatabaseColumn((List<T>) value);
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) {
+        return new ArrayList<>(converter.convertToEntityAttribute((String) cached));
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) {
+        return deepCopy(original);
+    }
+}
@@ -0,0 +1,112 @@
+package org.iu.handelspartnern.common.infra;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spaltentyp von trading_partners.contacts/addresses beim Start der Apps (db/migration/004_jsonb_lists.sql).
+ *
+ * hbm2ddl legt beide Spalten als TEXT an, weil H2 kein jsonb kennt. Auf PostgreSQL stellt prepare eine noch leere
+ * Tabelle selbst auf jsonb um und legt die GIN-Indizes der Migration an. Hat die Tabelle schon Zeilen, schreibt
+ * ALTER COLUMN ... TYPE sie unter ACCESS EXCLUSIVE Lock neu; das bleibt der Migration überlassen, der Start bricht
+ * dann ab, statt still jede Listenänderung als Read-modify-write des ganzen Partners auszuführen.
+ */
+public final class JsonbListColumns {
+
+    private static final String COLUMN_TYPES = "SELECT column_name, data_type FROM information_schema.columns "
+            + "WHERE table_schema = current_schema() AND table_name = 'trading_partners' "
+            + "AND column_name IN ('contacts', 'addresses')";
+    private static final String[] COLUMNS = { "contacts", "addresses" };
+    private static final String JSONB = "jsonb";
+
+    private JsonbListColumns() {
+    }
+
+    /**
+     * true, wenn die Repositories einzelne Listenelemente per jsonb_set / || / - ändern können; false auf H2.
+     *
+     * @throws IllegalStateException PostgreSQL, Spalten noch TEXT und die Tabelle nicht leer
+     */
+    public static boolean prepare(SessionFactory sessionFactory) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                boolean jsonb = session.doReturningWork(JsonbListColumns::prepare);
+                tx.commit();
+                return jsonb;
+            } catch (RuntimeException e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Innerhalb einer Transaktion aufrufen, der Aufrufer committet
+    public static boolean prepare(Connection connection) throws SQLException {
+        if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return false;
+        }
+        try (Statement statement = connection.createStatement()) {
+            Map<String, String> types = columnTypes(statement);
+            if (types.size() < COLUMNS.length) {
+                return false;
+            }
+            if (allJsonb(types)) {
+                return true;
+            }
+            // Parallel startende Instanzen warten hier aufeinander; die zweite sieht danach schon jsonb
+            statement.execute("LOCK TABLE trading_partners IN SHARE ROW EXCLUSIVE MODE");
+            types = columnTypes(statement);
+            if (allJsonb(types)) {
+                return true;
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM trading_partners)")) {
+                rs.next();
+                if (rs.getBoolean(1)) {
+                    throw new IllegalStateException("trading_partners.contacts/addresses sind noch nicht jsonb, "
+                            + "vor dem Start db/migration/004_jsonb_lists.sql ausführen");
+                }
+            }
+            for (String column : COLUMNS) {
+                if (!JSONB.equals(types.get(column))) {
+                    statement.execute("ALTER TABLE trading_partners ALTER COLUMN " + column + " TYPE jsonb USING "
+                            + column + "::jsonb");
+                }
+            }
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_trading_partners_contacts "
+                    + "ON trading_partners USING GIN (contacts jsonb_path_ops)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_trading_partners_addresses "
+                    + "ON trading_partners USING GIN (addresses jsonb_path_ops)");
+            return true;
+        }
+    }
+
+    private static Map<String, String> columnTypes(Statement statement) throws SQLException {
+        Map<String, String> types = new HashMap<>();
+        try (ResultSet rs = statement.executeQuery(COLUMN_TYPES)) {
+            while (rs.next()) {
+                types.put(rs.getString(1), rs.getString(2));
+            }
+        }
+        return types;
+    }
+
+    private static boolean allJsonb(Map<String, String> types) {
+        for (String column : COLUMNS) {
+            if (!JSONB.equals(types.get(column))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+package org.iu.handelspartnern.common.infra;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Read-through-Cache für einzelne Partner (Detailansicht, Bearbeiten-Formular, Saldo, Existenzprüfungen).
+ *
+ * Gespeichert wird eine private Kopie ohne Buchungs-Historie, nur mit den letzten Buchungen für die Finanzübersicht;
+ * die Größe eines Eintrags hängt damit nicht von der Anzahl der Buchungen ab. Die Historie lesen die Aufrufer bei
+ * Bedarf über das FinancialEntry-Repository. Jeder Aufrufer bekommt eine eigene Kopie, ein Controller, der den
+ * Partner verändert, kann also weder den Cache noch parallele Requests beeinflussen. Nicht vorhandene Partner werden
+ * nicht gecacht.
+ *
+ * Begrenzt nach Anzahl (LRU-ähnlich, Window TinyLFU) und Alter seit dem Laden. Schreibende Service-Methoden
+ * entfernen den Partner nach dem Commit. Lädt ein Request gerade, wartet invalidate, bis er fertig ist, und
+ * entfernt dann den geladenen Stand. Änderungen an der Datenbank vorbei (anderer Prozess, Bulk-Import per CLI)
+ * sieht der Cache erst nach Ablauf der TTL.
+ */
+public final class PartnerCache {
+
+    public static final long DEFAULT_MAX_SIZE = 10_000;
+    public static final long DEFAULT_TTL_SECONDS = 60;
+
+    private final Cache<Long, TradingPartner> cache;
+    private final long maxSize;
+    private final Duration ttl;
+
+    // maxSize <= 0 oder ttl <= 0: Cache aus, jeder Aufruf lädt
+    public PartnerCache(long maxSize, Duration ttl) {
+        this.maxSize = Math.max(maxSize, 0);
+        this.ttl = ttl;
+        this.cache = isEnabled() ? Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build() : null;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0 && !ttl.isNegative() && !ttl.isZero();
+    }
+
+    // loader liefert den Partner samt letzten Buchungen (setRecentFinancialEntries), die Historie braucht er nicht
+    public Optional<TradingPartner> get(Long id, Function<Long, Optional<TradingPartner>> loader) {
+        if (!isEnabled()) {
+            return loader.apply(id);
+        }
+        TradingPartner snapshot = cache.get(id, key -> loader.apply(key).map(TradingPartner::new).orElse(null));
+        return Optional.ofNullable(snapshot).map(TradingPartner::new);
+    }
+
+    public void invalidate(Long id) {
+        if (isEnabled() && id != null) {
+            cache.invalidate(id);
+        }
+    }
+
+    public void invalidateAll() {
+        if (isEnabled()) {
+            cache.invalidateAll();
+        }
+    }
+
+    public CacheStats stats() {
+        return isEnabled() ? cache.stats() : CacheStats.empty();
+    }
+
+    public long size() {
+        return isEnabled() ? cache.estimatedSize() : 0;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+}
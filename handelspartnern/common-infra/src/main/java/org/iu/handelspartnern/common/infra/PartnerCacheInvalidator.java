@@ -0,0 +1,30 @@
+package org.iu.handelspartnern.common.infra;
+
+import org.hibernate.SessionFactory;
+
+/**
+ * Leert auf eine Änderungsmeldung hin die Caches dieser Instanz: erst den Second-Level-Cache samt gecachter
+ * Abfragen, dann den Partner-Cache, damit ein Nachladen dort nicht den alten Stand aus Hibernate bekommt.
+ */
+public final class PartnerCacheInvalidator implements PartnerChangeListener {
+
+    private final PartnerCache partnerCache;
+    private final SessionFactory sessionFactory;
+
+    public PartnerCacheInvalidator(PartnerCache partnerCache, SessionFactory sessionFactory) {
+        this.partnerCache = partnerCache;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void partnerChanged(Long partnerId) {
+        SecondLevelCache.evictPartner(sessionFactory, partnerId);
+        partnerCache.invalidate(partnerId);
+    }
+
+    @Override
+    public void allPartnersChanged() {
+        SecondLevelCache.evictAfterBulkWrite(sessionFactory);
+        partnerCache.invalidateAll();
+    }
+}
@@ -0,0 +1,282 @@
+package org.iu.handelspartnern.common.infra;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Cache-Invalidierung zwischen mehreren Instanzen über PostgreSQL LISTEN/NOTIFY.
+ *
+ * Jede Instanz hält eine eigene Connection außerhalb des Pools, auf der ein Thread auf dem Kanal lauscht und die
+ * gesammelten Meldungen dieser Instanz versendet. publish blockiert also nie und belegt keine Pool-Connection,
+ * gesendet wird spätestens nach POLL_MILLIS. Eine Meldung ist "knoten-id partner-id" bzw. "knoten-id *"; eigene
+ * Meldungen werden ignoriert, die eigene Instanz hat ihre Caches schon selbst geleert.
+ *
+ * Meldungen gehen erst nach dem Commit der Änderung raus, eine andere Instanz kann also kurz den alten Stand
+ * ausliefern. Nach einem Verbindungsabbruch gelten alle Partner als geändert, weil Meldungen verpasst sein können.
+ * Der Bus hat keinen statischen Zustand, mehrere Instanzen in einer JVM sind unabhängige Knoten.
+ */
+public final class PartnerChangeBus implements AutoCloseable {
+
+    public static final String DEFAULT_CHANNEL = "partner_changed";
+
+    private static final Logger logger = LoggerFactory.getLogger(PartnerChangeBus.class);
+
+    // Wird ungequotet in LISTEN eingesetzt
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final String POSTGRESQL_URL_PREFIX = "jdbc:postgresql:";
+    private static final String ALL = "*";
+    // Wartezeit auf eingehende Meldungen je Runde, zugleich die maximale Verzögerung beim Versenden
+    private static final int POLL_MILLIS = 100;
+    private static final long MIN_RECONNECT_DELAY_MILLIS = 1_000;
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30_000;
+    // Darüber hinaus wird statt einzelner Partner einmal "alle geändert" gesendet
+    private static final int MAX_PENDING = 10_000;
+
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final PartnerChangeListener listener;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final BlockingQueue<String> pending = new LinkedBlockingQueue<>(MAX_PENDING);
+    private final AtomicBoolean overflow = new AtomicBoolean();
+
+    private Thread thread;
+    // Von start() gesetzt, wenn die Datenbank kein PostgreSQL ist (H2 in Tests, Lasttest, lokale Entwicklung)
+    private volatile boolean unsupported;
+    private volatile boolean running;
+    private volatile boolean connected;
+
+    public PartnerChangeBus(String jdbcUrl, String username, String password, String channel,
+            PartnerChangeListener listener) {
+        checkChannel(channel);
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.listener = listener;
+    }
+
+    private PartnerChangeBus() {
+        this.jdbcUrl = null;
+        this.username = null;
+        this.password = null;
+        this.channel = null;
+        this.listener = null;
+    }
+
+    // Einzelne Instanz oder andere Datenbank als PostgreSQL: publish tut nichts
+    public static PartnerChangeBus disabled() {
+        return new PartnerChangeBus();
+    }
+
+    public boolean isEnabled() {
+        return jdbcUrl != null && !unsupported;
+    }
+
+    public synchronized void start() {
+        if (!isEnabled() || running) {
+            return;
+        }
+        if (!isPostgreSql(jdbcUrl)) {
+            logger.info("Partner-Änderungen: {} ist keine PostgreSQL-Datenbank, Bus abgeschaltet", jdbcUrl);
+            unsupported = true;
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "partner-change-bus-" + channel);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Nach dem Commit aufrufen
+    public void publish(Long partnerId) {
+        if (partnerId != null) {
+            enqueue(partnerId.toString());
+        }
+    }
+
+    public void publishAll() {
+        enqueue(ALL);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public void close() {
+        Thread listenerThread;
+        synchronized (this) {
+            running = false;
+            listenerThread = thread;
+            thread = null;
+        }
+        if (listenerThread != null) {
+            try {
+                listenerThread.join(POLL_MILLIS * 10L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Einmalige Meldung "alle Partner geändert" für Prozesse ohne eigenen Bus, etwa den Bulk-Import von der
+     * Kommandozeile. Die Knoten-ID ist neu, keine laufende Instanz hält die Meldung für ihre eigene. Auf anderen
+     * Datenbanken als PostgreSQL passiert nichts.
+     */
+    public static void publishAll(Connection connection, String channel) throws SQLException {
+        checkChannel(channel);
+        if (!isPostgreSql(connection.getMetaData().getURL())) {
+            return;
+        }
+        try (PreparedStatement notify = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            notify.setString(1, channel);
+            notify.setString(2, UUID.randomUUID() + " " + ALL);
+            notify.execute();
+        }
+    }
+
+    private static void checkChannel(String channel) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Ungültiger Kanalname: " + channel);
+        }
+    }
+
+    private static boolean isPostgreSql(String jdbcUrl) {
+        return jdbcUrl != null && jdbcUrl.startsWith(POSTGRESQL_URL_PREFIX);
+    }
+
+    private void enqueue(String target) {
+        if (isEnabled() && !pending.offer(nodeId + " " + target)) {
+            overflow.set(true);
+        }
+    }
+
+    private void run() {
+        long reconnectDelay = MIN_RECONNECT_DELAY_MILLIS;
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = connect()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement listen = connection.createStatement()) {
+                    listen.execute("LISTEN " + channel);
+                }
+                connected = true;
+                reconnectDelay = MIN_RECONNECT_DELAY_MILLIS;
+                if (reconnect) {
+                    logger.info("Partner-Änderungen: wieder verbunden, alle Caches werden geleert");
+                    dispatch(ALL);
+                }
+                try (PreparedStatement notify = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                    notify.setString(1, channel);
+                    while (running) {
+                        send(notify);
+                        PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                        if (notifications != null) {
+                            for (PGNotification notification : notifications) {
+                                receive(notification.getParameter());
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    logger.warn("Partner-Änderungen: Verbindung zu {} verloren, neuer Versuch in {} ms", channel,
+                            reconnectDelay, e);
+                }
+            } finally {
+                connected = false;
+            }
+            reconnect = true;
+            if (running) {
+                sleep(reconnectDelay);
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MILLIS);
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", username);
+        if (password != null) {
+            properties.setProperty("password", password);
+        }
+        properties.setProperty("ApplicationName", "partner-change-bus");
+        // Ein stilles Ende der Verbindung (Failover, NAT) sonst erst beim nächsten Senden bemerkt
+        properties.setProperty("tcpKeepAlive", "true");
+        return DriverManager.getConnection(jdbcUrl, properties);
+    }
+
+    // Eine Meldung verlässt die Queue erst, wenn sie gesendet ist; bei einem Fehler bleibt sie für den nächsten
+    // Verbindungsaufbau liegen
+    private void send(PreparedStatement notify) throws SQLException {
+        if (overflow.getAndSet(false)) {
+            pending.clear();
+            try {
+                notify.setString(2, nodeId + " " + ALL);
+                notify.execute();
+            } catch (SQLException e) {
+                overflow.set(true);
+                throw e;
+            }
+        }
+        String payload;
+        while ((payload = pending.peek()) != null) {
+            notify.setString(2, payload);
+            notify.execute();
+            pending.poll();
+        }
+    }
+
+    private void receive(String payload) {
+        int separator = payload == null ? -1 : payload.indexOf(' ');
+        if (separator < 0) {
+            logger.warn("Partner-Änderungen: unbekannte Meldung '{}'", payload);
+            return;
+        }
+        if (!nodeId.equals(payload.substring(0, separator))) {
+            dispatch(payload.substring(separator + 1));
+        }
+    }
+
+    private void dispatch(String target) {
+        try {
+            if (ALL.equals(target)) {
+                listener.allPartnersChanged();
+            } else {
+                listener.partnerChanged(Long.valueOf(target));
+            }
+        } catch (RuntimeException e) {
+            // Ein Fehler beim Leeren darf den Listener-Thread nicht beenden
+            logger.warn("Partner-Änderungen: Meldung '{}' nicht verarbeitet", target, e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.iu.handelspartnern.common.infra;
+
+/**
+ * Empfänger der Änderungsmeldungen anderer Instanzen (siehe PartnerChangeBus). Wird auf dem Listener-Thread des Bus
+ * aufgerufen und sollte nur Caches leeren, nicht blockieren.
+ */
+public interface PartnerChangeListener {
+
+    // Partner angelegt, geändert oder gelöscht
+    void partnerChanged(Long partnerId);
+
+    // Unbekannt welche Partner (Bulk-Import, verpasste Meldungen nach Verbindungsabbruch)
+    void allPartnersChanged();
+}
@@ -0,0 +1,159 @@
+package org.iu.handelspartnern.common.infra;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hibernate Second-Level-Cache (JCache mit Caffeine) für TradingPartner und den Query-Cache.
+ *
+ * Alle Regionen werden hier angelegt, Hibernate legt keine eigenen an (missing_cache_strategy=fail), ein falscher
+ * Regionsname fällt also beim Start auf. Einträge werden per Referenz gehalten, Hibernate speichert ohnehin nur
+ * den zerlegten Zustand.
+ *
+ * Schreibzugriffe über die Session halten die Partner-Region aktuell und entwerten alle gecachten Abfragen auf
+ * trading_partners. Updates einzelner Partnerzeilen (Summen-Delta, jsonb-Patches) laufen nativ mit dem Query-Space
+ * PATCH_QUERY_SPACE, den keine Entity und keine Abfrage nutzt: Hibernate leert dafür weder die ganze Partner-Region
+ * noch den Query-Cache. Stattdessen sperrt lockPatchedPartner den Eintrag dieses Partners bis nach dem Commit, wie
+ * Hibernate es bei einem Entity-UPDATE tut, und unlockPatchedPartner verwirft danach die gecachten Listen. Ein
+ * bloßes Entfernen nach dem Commit reicht nicht: ein paralleler Request, der vorher gelesen hat, legt den alten
+ * Stand sonst wieder ab. Zählungen nach Status bleiben gültig, solche Updates ändern den Status nicht.
+ * Schreibzugriffe per JDBC sieht Hibernate nicht, danach evictAfterBulkWrite.
+ */
+public final class SecondLevelCache {
+
+    public static final String PARTNER_REGION = TradingPartner.class.getName();
+    public static final String QUERY_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    // Gefilterte Partnerlisten (Entities und Listen-DTOs); Zählungen bleiben in QUERY_REGION
+    public static final String PARTNER_LIST_REGION = "partner-lists";
+    public static final String TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    // Für addSynchronizedQuerySpace bzw. den Hint org.hibernate.query.native.spaces an nativen Zeilen-Updates
+    public static final String PATCH_QUERY_SPACE = "trading_partners_patch";
+
+    public static final long DEFAULT_PARTNER_MAX_SIZE = 10_000;
+    public static final long DEFAULT_QUERY_MAX_SIZE = 1_000;
+    public static final long DEFAULT_TTL_SECONDS = 600;
+
+    // Eigener CacheManager je SessionFactory, auch bei mehreren Instanzen in einer JVM
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private SecondLevelCache() {
+    }
+
+    // Schließt Hibernate beim Schließen der SessionFactory
+    public static CacheManager createCacheManager(String name, long partnerMaxSize, Duration partnerTtl,
+            long queryMaxSize, Duration queryTtl) {
+        ClassLoader classLoader = SecondLevelCache.class.getClassLoader();
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName(), classLoader)
+                .getCacheManager(URI.create(name + "-" + SEQUENCE.incrementAndGet()), classLoader);
+        cacheManager.createCache(PARTNER_REGION, region(partnerMaxSize, partnerTtl));
+        cacheManager.createCache(QUERY_REGION, region(queryMaxSize, queryTtl));
+        cacheManager.createCache(PARTNER_LIST_REGION, region(queryMaxSize, queryTtl));
+        // Zeitstempel der letzten Änderung je Tabelle: nie verdrängen, sonst gelten gecachte Abfragen als veraltet
+        cacheManager.createCache(TIMESTAMPS_REGION, region(0, Duration.ZERO));
+        return cacheManager;
+    }
+
+    // Für Configuration#getProperties bzw. HibernatePropertiesCustomizer
+    public static Map<String, Object> hibernateSettings(CacheManager cacheManager, boolean secondLevelCache,
+            boolean queryCache) {
+        return Map.of(
+                AvailableSettings.USE_SECOND_LEVEL_CACHE, String.valueOf(secondLevelCache),
+                AvailableSettings.USE_QUERY_CACHE, String.valueOf(queryCache),
+                AvailableSettings.CACHE_REGION_FACTORY, "jcache",
+                ConfigSettings.CACHE_MANAGER, cacheManager,
+                ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+    }
+
+    // Nach Schreibzugriffen per JDBC (Bulk-Import): Partner und alle gecachten Abfragen verwerfen
+    public static void evictAfterBulkWrite(SessionFactory sessionFactory) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(TradingPartner.class);
+        cache.evictQueryRegions();
+    }
+
+    // Nach dem nativen Update mit PATCH_QUERY_SPACE, also mit gesperrter Partnerzeile, und vor dem Commit. Bis
+    // unlockPatchedPartner nimmt die Region für diesen Partner nichts an, danach nur Stände aus Sessions, die nach
+    // der Freigabe begonnen haben. Der alte Eintrag fliegt vorher raus: aus einem Eintrag übernimmt Hibernate die
+    // version in die Sperre und nähme nach der Freigabe jeden Stand mit höherer version an, auch einen, der
+    // zwischen zwei parallelen Updates gelesen wurde. null, wenn der Second-Level-Cache aus ist.
+    public static SoftLock lockPatchedPartner(Session session, Long partnerId) {
+        SessionImplementor implementor = session.unwrap(SessionImplementor.class);
+        EntityPersister persister = partnerPersister(implementor);
+        EntityDataAccess access = persister.getCacheAccessStrategy();
+        if (access == null) {
+            return null;
+        }
+        Object key = partnerKey(implementor, persister, partnerId);
+        access.evict(key);
+        return access.lockItem(implementor, key, null);
+    }
+
+    // Nach Commit oder Rollback mit derselben Session: Summen, jsonb-Listen und dateModified des Partners haben sich
+    // geändert, also Sperre freigeben und die Listen (Sortierung, Summen-Spalten) verwerfen
+    public static void unlockPatchedPartner(Session session, Long partnerId, SoftLock lock) {
+        SessionImplementor implementor = session.unwrap(SessionImplementor.class);
+        if (lock != null) {
+            EntityPersister persister = partnerPersister(implementor);
+            persister.getCacheAccessStrategy().unlockItem(implementor, partnerKey(implementor, persister, partnerId),
+                    lock);
+        }
+        implementor.getFactory().getCache().evictQueryRegion(PARTNER_LIST_REGION);
+    }
+
+    // Ohne Session (natives Update außerhalb einer Transaktion): Eintrag und Listen sofort verwerfen
+    public static void evictPatchedPartner(SessionFactory sessionFactory, Long partnerId) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(TradingPartner.class, partnerId);
+        cache.evictQueryRegion(PARTNER_LIST_REGION);
+    }
+
+    // Änderung auf einer anderen Instanz: dieser Partner und alle gecachten Abfragen (Listen, Zählungen)
+    public static void evictPartner(SessionFactory sessionFactory, Long partnerId) {
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(TradingPartner.class, partnerId);
+        cache.evictQueryRegions();
+    }
+
+    private static EntityPersister partnerPersister(SessionImplementor session) {
+        return session.getFactory().getMetamodel().entityPersister(TradingPartner.class);
+    }
+
+    private static Object partnerKey(SessionImplementor session, EntityPersister persister, Long partnerId) {
+        return persister.getCacheAccessStrategy().generateCacheKey(partnerId, persister, session.getFactory(),
+                session.getTenantIdentifier());
+    }
+
+    // maxSize <= 0: unbegrenzt, ttl <= 0: kein Ablauf
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        if (maxSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (!ttl.isNegative() && !ttl.isZero()) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        return configuration;
+    }
+}
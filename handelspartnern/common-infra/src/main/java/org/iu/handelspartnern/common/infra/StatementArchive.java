@@ -0,0 +1,127 @@
+package org.iu.handelspartnern.common.infra;
+
+import org.iu.handelspartnern.common.dto.PartnerStatement;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Sammel-Export: ein ZIP mit einem Kontoauszug (CSV) je Partner, direkt in den Response geschrieben.
+ *
+ * Die Auszüge rendern bis zu threads Worker parallel in je einen Puffer, der aufrufende Thread schreibt sie in
+ * Reihenfolge der ids ins ZIP. Angestoßen werden höchstens window Auszüge im Voraus. Liest der Client langsam,
+ * blockiert das Schreiben und damit auch das Rendern. Im Speicher liegen so höchstens window + 1 Auszüge,
+ * unabhängig von der Zahl der Partner.
+ *
+ * Der Thread-Pool ist für alle Exporte gemeinsam; jeder Worker belegt während des Renderns eine Connection.
+ */
+public final class StatementArchive implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final int window;
+
+    // threads <= 0: ein Worker je CPU-Kern
+    public StatementArchive(int threads) {
+        int workers = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "statement-export-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.window = 2 * workers;
+    }
+
+    // renderer liefert empty für Partner, die inzwischen gelöscht wurden; Rückgabe ist die Zahl der Auszüge im ZIP
+    public int write(List<Long> partnerIds, Function<Long, Optional<Entry>> renderer, OutputStream out)
+            throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // Komprimiert wird auf dem schreibenden Thread; BEST_SPEED hält ihn schneller als die Worker
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        Deque<Future<Optional<Entry>>> pending = new ArrayDeque<>();
+        Iterator<Long> ids = partnerIds.iterator();
+        int written = 0;
+        try {
+            while (pending.size() < window && ids.hasNext()) {
+                Long id = ids.next();
+                pending.addLast(executor.submit(() -> renderer.apply(id)));
+            }
+            while (!pending.isEmpty()) {
+                Optional<Entry> entry = await(pending.removeFirst());
+                if (ids.hasNext()) {
+                    Long id = ids.next();
+                    pending.addLast(executor.submit(() -> renderer.apply(id)));
+                }
+                if (entry.isPresent()) {
+                    zip.putNextEntry(new ZipEntry(entry.get().name()));
+                    zip.write(entry.get().content());
+                    zip.closeEntry();
+                    written++;
+                }
+            }
+            zip.finish();
+            zip.flush();
+            return written;
+        } finally {
+            // Abbruch (Fehler, Client weg): noch nicht gestartete Auszüge verwerfen
+            pending.forEach(future -> future.cancel(false));
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static Optional<Entry> await(Future<Optional<Entry>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Sammel-Export unterbrochen");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Kontoauszug konnte nicht erstellt werden", e.getCause());
+        }
+    }
+
+    /**
+     * Ein fertig gerenderter Auszug im ZIP.
+     */
+    public record Entry(String name, byte[] content) {
+
+        public static Entry of(PartnerStatement statement) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8))) {
+                statement.writeCsv(writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new Entry(statement.getArchiveEntryName(), buffer.toByteArray());
+        }
+    }
+}
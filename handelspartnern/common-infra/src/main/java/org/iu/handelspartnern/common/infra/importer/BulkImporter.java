@@ -0,0 +1,425 @@
+package org.iu.handelspartnern.common.infra.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.iu.handelspartnern.common.dto.importer.ImportReport;
+import org.iu.handelspartnern.common.entity.FinancialTotals;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Bulk-Import von Partnern und Buchungen per JDBC-Batch, vorbei an Hibernate: trading_partners nutzt
+ * IDENTITY-ids, damit schaltet Hibernate das Insert-Batching ab. Mit reWriteBatchedInserts=true in der JDBC-URL
+ * fasst der PostgreSQL-Treiber jeden Batch zu wenigen Multi-Row-INSERTs zusammen.
+ *
+ * Die Datei wird gestreamt. Je batchSize gültige Zeilen laufen in einer eigenen Transaktion; ungültige Zeilen
+ * landen als Zeilenfehler im Report, scheitert ein Block in der Datenbank, werden nur dessen Zeilen gemeldet.
+ * Die Finanzsummen am Partner werden wie bei einzelnen Buchungen mitgeschrieben bzw. per Delta fortgeschrieben.
+ *
+ * Auf PostgreSQL zwei Abkürzungen, beide gegen PostgreSQL gemessen (PERFORMANCE.md): Partner mit Buchungen bekommen
+ * ihre ids vorab aus der Sequenz, statt sie per RETURN_GENERATED_KEYS abzufragen (das schaltet das Umschreiben in
+ * Multi-Row-INSERTs ab). Die Deltas eines Blocks gehen als ein UPDATE ... FROM unnest(...) statt als Batch von
+ * Einzel-UPDATEs. Andere Datenbanken (H2) nehmen den portablen Weg.
+ *
+ * Spaltennamen wie von Hibernate mit PhysicalNamingStrategyStandardImpl angelegt (Feldnamen, siehe DDL).
+ */
+public final class BulkImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final String INSERT_PARTNER = "INSERT INTO trading_partners (version, name, about, taxId, "
+            + "paymentTerms, corporateImageUrl, type, status, contacts, addresses, claims, settledClaims, payable, "
+            + "settledPayables, transactionCount, dateCreated, dateModified) "
+            + "VALUES (0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Wie INSERT_PARTNER, mit vorab reservierter id als letztem Parameter
+    private static final String INSERT_PARTNER_WITH_ID = "INSERT INTO trading_partners (version, name, about, "
+            + "taxId, paymentTerms, corporateImageUrl, type, status, contacts, addresses, claims, settledClaims, "
+            + "payable, settledPayables, transactionCount, dateCreated, dateModified, id) "
+            + "VALUES (0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String NEXT_PARTNER_IDS = "SELECT nextval(pg_get_serial_sequence('trading_partners', 'id')) "
+            + "FROM generate_series(1, ?)";
+
+    private static final String INSERT_ENTRY = "INSERT INTO financial_entries (id, partner_id, type, status, amount, "
+            + "purpose, reference, entry_date, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Wie FinancialEntryRepository#applyDelta: atomar in der Datenbank addiert, ohne version zu erhöhen
+    private static final String APPLY_DELTA = "UPDATE trading_partners SET claims = claims + ?, "
+            + "settledClaims = settledClaims + ?, payable = payable + ?, settledPayables = settledPayables + ?, "
+            + "transactionCount = transactionCount + ?, dateModified = ? WHERE id = ?";
+
+    // Alle Deltas eines Blocks in einem Statement, je Partner eine Zeile aus den parallelen Arrays
+    private static final String APPLY_DELTAS_UNNEST = "UPDATE trading_partners tp SET claims = tp.claims + d.claims, "
+            + "settledClaims = tp.settledClaims + d.settledClaims, payable = tp.payable + d.payable, "
+            + "settledPayables = tp.settledPayables + d.settledPayables, "
+            + "transactionCount = tp.transactionCount + d.transactionCount, dateModified = ? "
+            + "FROM unnest(CAST(? AS bigint[]), CAST(? AS numeric[]), CAST(? AS numeric[]), CAST(? AS numeric[]), "
+            + "CAST(? AS numeric[]), CAST(? AS integer[])) "
+            + "AS d(id, claims, settledClaims, payable, settledPayables, transactionCount) WHERE tp.id = d.id";
+
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final String DEFAULT_TAX_ID = "DE000000000";
+    private static final String DEFAULT_PAYMENT_TERMS = "30 Tage";
+
+    private final DataSource dataSource;
+    private final ObjectMapper mapper;
+    private final int batchSize;
+
+    public BulkImporter(DataSource dataSource, ObjectMapper mapper, int batchSize) {
+        this.dataSource = dataSource;
+        this.mapper = mapper;
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    // Partner (CSV oder JSON), im JSON-Format optional mit contacts, addresses und entries je Partner
+    public ImportReport importPartners(InputStream in, ImportFormat format) {
+        return run(in, format, new PartnerChunk());
+    }
+
+    // Buchungen zu bestehenden Partnern, je Zeile mit partnerId
+    public ImportReport importFinancialEntries(InputStream in, ImportFormat format) {
+        return run(in, format, new EntryChunk());
+    }
+
+    private ImportReport run(InputStream in, ImportFormat format, Chunk<?> chunk) {
+        ImportReport report = new ImportReport();
+        try (ImportRecords records = ImportRecords.open(in, format, mapper);
+                Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            chunk.postgreSql = POSTGRESQL.equals(connection.getMetaData().getDatabaseProductName());
+            while (records.hasNext()) {
+                ImportRecord record = records.next();
+                report.countRow();
+                try {
+                    chunk.add(record);
+                } catch (IllegalArgumentException e) {
+                    report.reject(record.row(), e.getMessage());
+                    continue;
+                }
+                if (chunk.size() >= batchSize) {
+                    chunk.flush(connection, report);
+                }
+            }
+            chunk.flush(connection, report);
+        } catch (IOException | UncheckedIOException e) {
+            Throwable cause = e instanceof UncheckedIOException ? e.getCause() : e;
+            report.abort("Datei konnte nicht gelesen werden: " + cause.getMessage());
+        } catch (SQLException e) {
+            report.abort("Datenbankfehler: " + e.getMessage());
+        }
+        return report.finish();
+    }
+
+    /**
+     * Sammelt gültige Zeilen und schreibt sie blockweise in einer Transaktion.
+     */
+    private abstract class Chunk<T> {
+
+        final List<T> rows = new ArrayList<>(batchSize);
+
+        boolean postgreSql;
+
+        abstract T parse(ImportRecord record);
+
+        abstract long row(T row);
+
+        // Schreibt alle Zeilen des Blocks; Rückgabe: übernommene Partner und Buchungen
+        abstract long[] write(Connection connection, LocalDateTime now) throws SQLException;
+
+        void add(ImportRecord record) {
+            rows.add(parse(record));
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        void flush(Connection connection, ImportReport report) throws SQLException {
+            if (rows.isEmpty()) {
+                return;
+            }
+            try {
+                long[] written = write(connection, LocalDateTime.now());
+                connection.commit();
+                report.imported(written[0], written[1]);
+            } catch (SQLException e) {
+                connection.rollback();
+                SQLException cause = e.getNextException() != null ? e.getNextException() : e;
+                for (T row : rows) {
+                    report.reject(row(row), "Datenbankfehler im Block: " + cause.getMessage());
+                }
+            } finally {
+                rows.clear();
+            }
+        }
+    }
+
+    private final class PartnerChunk extends Chunk<PartnerImportRow> {
+
+        @Override
+        PartnerImportRow parse(ImportRecord record) {
+            return PartnerImportRow.from(record, mapper);
+        }
+
+        @Override
+        long row(PartnerImportRow row) {
+            return row.row();
+        }
+
+        @Override
+        long[] write(Connection connection, LocalDateTime now) throws SQLException {
+            // Ohne Buchungen braucht es keine ids, der Batch bleibt rewrite-fähig
+            if (rows.stream().allMatch(row -> row.entries().isEmpty())) {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_PARTNER)) {
+                    for (PartnerImportRow row : rows) {
+                        bindPartner(insert, row, now);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                return new long[] { rows.size(), 0 };
+            }
+
+            long[] partnerIds = postgreSql
+                    ? insertWithReservedIds(connection, now)
+                    : insertReturningIds(connection, now);
+            long entries = 0;
+            try (PreparedStatement insertEntry = connection.prepareStatement(INSERT_ENTRY)) {
+                for (int i = 0; i < rows.size(); i++) {
+                    for (FinancialEntryImportRow entry : rows.get(i).entries()) {
+                        bindEntry(insertEntry, partnerIds[i], entry, now);
+                        insertEntry.addBatch();
+                        entries++;
+                    }
+                }
+                insertEntry.executeBatch();
+            }
+            return new long[] { rows.size(), entries };
+        }
+
+        // Eine Abfrage je Block reserviert die ids; die INSERTs mit fester id fasst der Treiber wieder zusammen
+        private long[] insertWithReservedIds(Connection connection, LocalDateTime now) throws SQLException {
+            long[] ids = new long[rows.size()];
+            try (PreparedStatement next = connection.prepareStatement(NEXT_PARTNER_IDS)) {
+                next.setInt(1, ids.length);
+                try (ResultSet result = next.executeQuery()) {
+                    for (int i = 0; i < ids.length; i++) {
+                        if (!result.next()) {
+                            throw new SQLException("Sequenz lieferte nur " + i + " von " + ids.length + " ids");
+                        }
+                        ids[i] = result.getLong(1);
+                    }
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_PARTNER_WITH_ID)) {
+                for (int i = 0; i < ids.length; i++) {
+                    bindPartner(insert, rows.get(i), now);
+                    insert.setLong(17, ids[i]);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            return ids;
+        }
+
+        private long[] insertReturningIds(Connection connection, LocalDateTime now) throws SQLException {
+            long[] ids = new long[rows.size()];
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_PARTNER,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                for (PartnerImportRow row : rows) {
+                    bindPartner(insert, row, now);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    for (int i = 0; i < ids.length; i++) {
+                        if (!keys.next()) {
+                            throw new SQLException("Keine generierte id für Zeile " + rows.get(i).row());
+                        }
+                        ids[i] = keys.getLong("id");
+                    }
+                }
+            }
+            return ids;
+        }
+
+        private void bindPartner(PreparedStatement insert, PartnerImportRow row, LocalDateTime now)
+                throws SQLException {
+            FinancialTotals totals = row.totals();
+            insert.setString(1, row.partner().getName().trim());
+            insert.setString(2, row.partner().getAbout().orElse(null));
+            insert.setString(3, row.partner().getTaxId().orElse(DEFAULT_TAX_ID));
+            insert.setString(4, row.partner().getPaymentTerms().orElse(DEFAULT_PAYMENT_TERMS));
+            insert.setString(5, row.partner().getCorporateImageUrl().orElse(null));
+            insert.setString(6, row.partner().getType().name());
+            insert.setString(7, row.status().name());
+            // Types.OTHER wie JsonbListType: PostgreSQL leitet jsonb aus der Spalte ab
+            insert.setObject(8, row.contactsJson(), Types.OTHER);
+            insert.setObject(9, row.addressesJson(), Types.OTHER);
+            insert.setBigDecimal(10, totals.openClaims());
+            insert.setBigDecimal(11, totals.settledClaims());
+            insert.setBigDecimal(12, totals.openPayables());
+            insert.setBigDecimal(13, totals.settledPayables());
+            insert.setInt(14, totals.transactionCount());
+            insert.setObject(15, now);
+            insert.setObject(16, now);
+        }
+    }
+
+    private final class EntryChunk extends Chunk<FinancialEntryImportRow> {
+
+        @Override
+        FinancialEntryImportRow parse(ImportRecord record) {
+            return FinancialEntryImportRow.from(record, true);
+        }
+
+        @Override
+        long row(FinancialEntryImportRow row) {
+            return row.row();
+        }
+
+        @Override
+        void flush(Connection connection, ImportReport report) throws SQLException {
+            // Buchungen zu unbekannten Partnern als Zeilenfehler aussortieren, bevor der Fremdschlüssel den Block
+            // scheitern lässt
+            Set<Long> existing = existingPartnerIds(connection);
+            rows.removeIf(row -> {
+                if (existing.contains(row.partnerId())) {
+                    return false;
+                }
+                report.reject(row.row(), "Partner mit ID " + row.partnerId() + " nicht gefunden");
+                return true;
+            });
+            super.flush(connection, report);
+        }
+
+        @Override
+        long[] write(Connection connection, LocalDateTime now) throws SQLException {
+            Map<Long, FinancialTotals> deltas = new LinkedHashMap<>();
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_ENTRY)) {
+                for (FinancialEntryImportRow row : rows) {
+                    bindEntry(insert, row.partnerId(), row, now);
+                    insert.addBatch();
+                    deltas.merge(row.partnerId(), FinancialTotals.ofGroup(row.type(), row.status(), row.amount(), 1),
+                            FinancialTotals::plus);
+                }
+                insert.executeBatch();
+            }
+
+            // Ein Delta je Partner und Block statt je Buchung
+            if (postgreSql) {
+                applyDeltasUnnest(connection, deltas, now);
+            } else {
+                applyDeltasBatch(connection, deltas, now);
+            }
+            return new long[] { 0, rows.size() };
+        }
+
+        private void applyDeltasUnnest(Connection connection, Map<Long, FinancialTotals> deltas, LocalDateTime now)
+                throws SQLException {
+            int size = deltas.size();
+            Long[] ids = new Long[size];
+            BigDecimal[] claims = new BigDecimal[size];
+            BigDecimal[] settledClaims = new BigDecimal[size];
+            BigDecimal[] payable = new BigDecimal[size];
+            BigDecimal[] settledPayables = new BigDecimal[size];
+            Integer[] transactionCount = new Integer[size];
+            int i = 0;
+            for (Map.Entry<Long, FinancialTotals> delta : deltas.entrySet()) {
+                FinancialTotals totals = delta.getValue();
+                ids[i] = delta.getKey();
+                claims[i] = totals.openClaims();
+                settledClaims[i] = totals.settledClaims();
+                payable[i] = totals.openPayables();
+                settledPayables[i] = totals.settledPayables();
+                transactionCount[i] = totals.transactionCount();
+                i++;
+            }
+            try (PreparedStatement update = connection.prepareStatement(APPLY_DELTAS_UNNEST)) {
+                update.setObject(1, now);
+                update.setArray(2, connection.createArrayOf("bigint", ids));
+                update.setArray(3, connection.createArrayOf("numeric", claims));
+                update.setArray(4, connection.createArrayOf("numeric", settledClaims));
+                update.setArray(5, connection.createArrayOf("numeric", payable));
+                update.setArray(6, connection.createArrayOf("numeric", settledPayables));
+                update.setArray(7, connection.createArrayOf("integer", transactionCount));
+                update.executeUpdate();
+            }
+        }
+
+        private void applyDeltasBatch(Connection connection, Map<Long, FinancialTotals> deltas, LocalDateTime now)
+                throws SQLException {
+            try (PreparedStatement update = connection.prepareStatement(APPLY_DELTA)) {
+                for (Map.Entry<Long, FinancialTotals> delta : deltas.entrySet()) {
+                    FinancialTotals totals = delta.getValue();
+                    update.setBigDecimal(1, totals.openClaims());
+                    update.setBigDecimal(2, totals.settledClaims());
+                    update.setBigDecimal(3, totals.openPayables());
+                    update.setBigDecimal(4, totals.settledPayables());
+                    update.setInt(5, totals.transactionCount());
+                    update.setObject(6, now);
+                    update.setLong(7, delta.getKey());
+                    update.addBatch();
+                }
+                update.executeBatch();
+            }
+        }
+
+        private Set<Long> existingPartnerIds(Connection connection) throws SQLException {
+            Set<Long> ids = new LinkedHashSet<>();
+            rows.forEach(row -> ids.add(row.partnerId()));
+            Set<Long> existing = new HashSet<>();
+            if (ids.isEmpty()) {
+                return existing;
+            }
+            String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT id FROM trading_partners WHERE id IN (" + placeholders + ")")) {
+                int index = 1;
+                for (Long id : ids) {
+                    select.setLong(index++, id);
+                }
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        existing.add(result.getLong(1));
+                    }
+                }
+            }
+            return existing;
+        }
+    }
+
+    private static void bindEntry(PreparedStatement insert, long partnerId, FinancialEntryImportRow entry,
+            LocalDateTime now) throws SQLException {
+        insert.setObject(1, UUID.randomUUID());
+        insert.setLong(2, partnerId);
+        insert.setString(3, entry.type().name());
+        insert.setString(4, entry.status().name());
+        insert.setBigDecimal(5, entry.amount());
+        insert.setString(6, entry.purpose());
+        insert.setString(7, entry.reference());
+        insert.setObject(8, entry.date());
+        insert.setObject(9, now);
+    }
+}
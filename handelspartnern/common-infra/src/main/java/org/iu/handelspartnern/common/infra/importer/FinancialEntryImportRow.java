@@ -0,0 +1,77 @@
+package org.iu.handelspartnern.common.infra.importer;
+
+import org.iu.handelspartnern.common.entity.FinancialEntryStatus;
+import org.iu.handelspartnern.common.entity.FinancialEntryType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Eine validierte Buchung aus der Importdatei. Dieselben Regeln wie POST /api/partners/financial-transaction:
+ * Typ ist Pflicht, Betrag größer als 0, Status ohne Angabe OPEN, Datum ohne Angabe heute.
+ */
+record FinancialEntryImportRow(long row, Long partnerId, FinancialEntryType type, FinancialEntryStatus status,
+        BigDecimal amount, LocalDate date, String purpose, String reference) {
+
+    // partnerId nur bei eigenständigen Buchungsimporten; verschachtelte Buchungen hängen am Partner der Zeile
+    static FinancialEntryImportRow from(ImportRecord record, boolean requirePartnerId) {
+        Long partnerId = null;
+        if (requirePartnerId) {
+            String partnerIdRaw = require(record.text("partnerId"), "Partner ID fehlt.");
+            try {
+                partnerId = Long.valueOf(partnerIdRaw);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Ungültige Partner ID: " + partnerIdRaw);
+            }
+        }
+
+        String typeRaw = require(record.text("type"), "Transaktionstyp ist erforderlich.");
+        FinancialEntryType type = parseEnum(FinancialEntryType.class, typeRaw, "Ungültiger Transaktionstyp: ");
+
+        String statusRaw = record.text("status");
+        FinancialEntryStatus status = statusRaw == null ? FinancialEntryStatus.OPEN
+                : parseEnum(FinancialEntryStatus.class, statusRaw, "Ungültiger Status: ");
+
+        String amountRaw = require(record.text("amount"), "Betrag ist erforderlich.");
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(amountRaw).setScale(2, RoundingMode.HALF_UP);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ungültiger Betrag: " + amountRaw);
+        }
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Betrag muss größer als 0 sein.");
+        }
+
+        String dateRaw = record.text("date");
+        LocalDate date;
+        try {
+            date = dateRaw == null ? LocalDate.now() : LocalDate.parse(dateRaw);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Ungültiges Datum (erwartet JJJJ-MM-TT): " + dateRaw);
+        }
+
+        String purpose = record.text("purpose");
+        String reference = PartnerImportRow.maxLength(record.text("reference"), 255, "Referenz");
+        return new FinancialEntryImportRow(record.row(), partnerId, type, status, amount, date,
+                purpose != null ? purpose : "", reference != null ? reference : "");
+    }
+
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String raw, String message) {
+        try {
+            return Enum.valueOf(type, raw.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(message + raw);
+        }
+    }
+
+    private static String require(String value, String message) {
+        if (value == null) {
+            throw new IllegalArgumentException(message);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,28 @@
+package org.iu.handelspartnern.common.infra.importer;
+
+import java.util.Locale;
+
+/**
+ * Eingabeformat des Bulk-Imports.
+ */
+public enum ImportFormat {
+    CSV, JSON;
+
+    // Reihenfolge: expliziter Parameter (?format=csv), Content-Type, Dateiendung; sonst CSV
+    public static ImportFormat detect(String format, String contentType, String fileName) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unbekanntes Importformat: " + format + " (csv oder json)");
+            }
+        }
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json")) {
+            return JSON;
+        }
+        if (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".json")) {
+            return JSON;
+        }
+        return CSV;
+    }
+}
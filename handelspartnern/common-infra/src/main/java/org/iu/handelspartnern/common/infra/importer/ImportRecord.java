@@ -0,0 +1,67 @@
+package org.iu.handelspartnern.common.infra.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Eine Zeile der Importdatei: ein CSV-Datensatz (Spalten über die Kopfzeile, Groß-/Kleinschreibung egal) oder ein
+ * Objekt des JSON-Arrays. row ist bei CSV die Zeilennummer in der Datei, bei JSON die Position im Array (ab 1).
+ */
+public final class ImportRecord {
+
+    private final long row;
+    private final Map<String, Integer> columns;
+    private final String[] values;
+    private final JsonNode node;
+
+    private ImportRecord(long row, Map<String, Integer> columns, String[] values, JsonNode node) {
+        this.row = row;
+        this.columns = columns;
+        this.values = values;
+        this.node = node;
+    }
+
+    static ImportRecord csv(long row, Map<String, Integer> columns, String[] values) {
+        return new ImportRecord(row, columns, values, null);
+    }
+
+    static ImportRecord json(long row, JsonNode node) {
+        return new ImportRecord(row, null, null, node);
+    }
+
+    public long row() {
+        return row;
+    }
+
+    public boolean isJson() {
+        return node != null;
+    }
+
+    // Getrimmter Text oder null, wenn das Feld fehlt oder leer ist
+    public String text(String field) {
+        String value;
+        if (node != null) {
+            JsonNode child = node.get(field);
+            value = child == null || child.isNull() ? null : child.isValueNode() ? child.asText() : child.toString();
+        } else {
+            Integer index = columns.get(field.toLowerCase(Locale.ROOT));
+            value = index != null && index < values.length ? values[index] : null;
+        }
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Verschachtelte Struktur (nur JSON), sonst null
+    public JsonNode node(String field) {
+        if (node == null) {
+            return null;
+        }
+        JsonNode child = node.get(field);
+        return child == null || child.isNull() ? null : child;
+    }
+}
@@ -0,0 +1,203 @@
+package org.iu.handelspartnern.common.infra.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Liest eine Importdatei Datensatz für Datensatz, ohne sie als Ganzes in den Speicher zu laden.
+ *
+ * CSV: UTF-8, Kopfzeile mit Spaltennamen, Trenner ';' oder ',' (aus der Kopfzeile erkannt), Felder optional in
+ * doppelten Anführungszeichen ("" für ein Anführungszeichen, Zeilenumbrüche im Feld erlaubt).
+ * JSON: ein Array von Objekten, gelesen mit dem Streaming-Parser; nur das aktuelle Objekt liegt als Baum vor.
+ *
+ * Lesefehler (kaputtes JSON, Abbruch des Uploads) kommen als UncheckedIOException aus hasNext/next.
+ */
+public final class ImportRecords implements Iterator<ImportRecord>, Closeable {
+
+    private static final int HEADER_PEEK_LIMIT = 64 * 1024;
+
+    private final ObjectMapper mapper;
+    private final BufferedReader csv;
+    private final JsonParser json;
+
+    private char delimiter;
+    private Map<String, Integer> columns;
+    private long line = 1;
+    private long row;
+    private ImportRecord next;
+    private boolean done;
+
+    private ImportRecords(ObjectMapper mapper, BufferedReader csv, JsonParser json) {
+        this.mapper = mapper;
+        this.csv = csv;
+        this.json = json;
+    }
+
+    public static ImportRecords open(InputStream in, ImportFormat format, ObjectMapper mapper) throws IOException {
+        if (format == ImportFormat.JSON) {
+            JsonParser parser = mapper.getFactory().createParser(in);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                parser.close();
+                throw new IllegalArgumentException("JSON-Import erwartet ein Array von Objekten");
+            }
+            return new ImportRecords(mapper, null, parser);
+        }
+
+        ImportRecords records = new ImportRecords(mapper,
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), null);
+        records.readHeader();
+        return records;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            try {
+                next = json != null ? readJsonRecord() : readCsvRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            done = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public ImportRecord next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ImportRecord record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.close();
+        } else {
+            csv.close();
+        }
+    }
+
+    private ImportRecord readJsonRecord() throws IOException {
+        JsonToken token = json.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        JsonNode node = mapper.readTree(json);
+        return ImportRecord.json(++row, node);
+    }
+
+    private void readHeader() throws IOException {
+        // BOM aus Excel-Exporten überspringen
+        csv.mark(1);
+        if (csv.read() != '\uFEFF') {
+            csv.reset();
+        }
+        csv.mark(HEADER_PEEK_LIMIT);
+        String headerLine = csv.readLine();
+        if (headerLine == null || headerLine.isBlank()) {
+            throw new IllegalArgumentException("CSV-Import erwartet eine Kopfzeile mit Spaltennamen");
+        }
+        csv.reset();
+        delimiter = count(headerLine, ';') >= count(headerLine, ',') ? ';' : ',';
+
+        String[] header = readCsvFields();
+        columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            columns.putIfAbsent(header[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    private ImportRecord readCsvRecord() throws IOException {
+        while (true) {
+            long start = line;
+            String[] values = readCsvFields();
+            if (values == null) {
+                return null;
+            }
+            // Leerzeilen überspringen
+            if (values.length == 1 && values[0].isBlank()) {
+                continue;
+            }
+            row++;
+            return ImportRecord.csv(start, columns, values);
+        }
+    }
+
+    // Ein Datensatz bis zum Zeilenende außerhalb von Anführungszeichen; null am Dateiende
+    private String[] readCsvFields() throws IOException {
+        List<String> fields = new ArrayList<>(columns != null ? columns.size() : 16);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int c;
+        while ((c = csv.read()) != -1) {
+            read = true;
+            if (quoted) {
+                if (c == '"') {
+                    csv.mark(1);
+                    int following = csv.read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (following != -1) {
+                            csv.reset();
+                        }
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields.toArray(new String[0]);
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!read) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static int count(String value, char character) {
+        int count = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == character) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,105 @@
+package org.iu.handelspartnern.common.infra.importer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.iu.handelspartnern.common.dto.AddTradingPartnerDto;
+import org.iu.handelspartnern.common.entity.Address;
+import org.iu.handelspartnern.common.entity.Contact;
+import org.iu.handelspartnern.common.entity.FinancialTotals;
+import org.iu.handelspartnern.common.entity.PartnerStatus;
+import org.iu.handelspartnern.common.entity.PartnerType;
+import org.iu.handelspartnern.common.entity.converter.AddressConverter;
+import org.iu.handelspartnern.common.entity.converter.ContactConverter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ein validierter Partner aus der Importdatei. Pflichtfelder und Defaults wie beim Anlegen über das Formular
+ * (AddTradingPartnerDto, TradingPartnerService#createPartner); zusätzlich die Spaltenlängen der Tabelle, damit
+ * eine zu lange Zeile als Zeilenfehler gemeldet wird statt den ganzen Batch scheitern zu lassen.
+ *
+ * Im JSON-Format darf ein Partner contacts, addresses und entries (Buchungen) mitbringen.
+ */
+record PartnerImportRow(long row, AddTradingPartnerDto partner, PartnerStatus status, String contactsJson,
+        String addressesJson, List<FinancialEntryImportRow> entries, FinancialTotals totals) {
+
+    private static final ContactConverter CONTACT_CONVERTER = new ContactConverter();
+    private static final AddressConverter ADDRESS_CONVERTER = new AddressConverter();
+
+    static PartnerImportRow from(ImportRecord record, ObjectMapper mapper) {
+        String typeRaw = record.text("type");
+        PartnerType type = typeRaw == null ? null
+                : FinancialEntryImportRow.parseEnum(PartnerType.class, typeRaw, "Ungültiger Partner-Typ: ");
+
+        // Wirft bei fehlendem Namen oder Typ wie beim Anlegen über Formular und API
+        AddTradingPartnerDto partner = new AddTradingPartnerDto(
+                maxLength(record.text("name"), 255, "Name"),
+                Optional.ofNullable(record.text("about")),
+                Optional.ofNullable(maxLength(record.text("taxId"), 255, "Steuernummer")),
+                Optional.ofNullable(maxLength(record.text("paymentTerms"), 255, "Zahlungsbedingungen")),
+                Optional.ofNullable(maxLength(record.text("corporateImageUrl"), 2048, "Bild-URL")),
+                type);
+
+        String statusRaw = record.text("status");
+        PartnerStatus status = statusRaw == null ? PartnerStatus.ACTIVE
+                : FinancialEntryImportRow.parseEnum(PartnerStatus.class, statusRaw, "Ungültiger Status: ");
+
+        List<Contact> contacts = readList(mapper, record.node("contacts"), new TypeReference<List<Contact>>() {
+        }, "Kontakte");
+        List<Address> addresses = readList(mapper, record.node("addresses"), new TypeReference<List<Address>>() {
+        }, "Adressen");
+
+        List<FinancialEntryImportRow> entries = readEntries(record.node("entries"));
+        FinancialTotals totals = FinancialTotals.ZERO;
+        for (FinancialEntryImportRow entry : entries) {
+            totals = totals.plus(FinancialTotals.ofGroup(entry.type(), entry.status(), entry.amount(), 1));
+        }
+
+        return new PartnerImportRow(record.row(), partner, status, CONTACT_CONVERTER.convertToDatabaseColumn(contacts),
+                ADDRESS_CONVERTER.convertToDatabaseColumn(addresses), entries, totals);
+    }
+
+    static String maxLength(String value, int maxLength, String label) {
+        if (value != null && value.length() > maxLength) {
+            throw new IllegalArgumentException(label + " ist länger als " + maxLength + " Zeichen");
+        }
+        return value;
+    }
+
+    private static <T> List<T> readList(ObjectMapper mapper, JsonNode node, TypeReference<List<T>> type,
+            String label) {
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        if (!node.isArray()) {
+            throw new IllegalArgumentException(label + " müssen ein Array sein");
+        }
+        try {
+            return mapper.convertValue(node, type);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(label + " sind ungültig: " + e.getMessage());
+        }
+    }
+
+    private static List<FinancialEntryImportRow> readEntries(JsonNode node) {
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        if (!node.isArray()) {
+            throw new IllegalArgumentException("Buchungen (entries) müssen ein Array sein");
+        }
+        List<FinancialEntryImportRow> entries = new ArrayList<>(node.size());
+        for (int i = 0; i < node.size(); i++) {
+            try {
+                entries.add(FinancialEntryImportRow.from(ImportRecord.json(i + 1, node.get(i)), false));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Buchung " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,78 @@
+package org.iu.handelspartnern.common.infra.metrics;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.iu.handelspartnern.common.infra.PartnerCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partner-Cache als Micrometer-Cache-Meter mit Tag cache=partners: cache.gets{result=hit|miss}, cache.puts,
+ * cache.evictions, cache.size, cache.max.size, cache.load{result=success|failure} und cache.load.duration
+ * (Gesamtzeit aller Ladevorgänge; geteilt durch cache.load ergibt die mittlere Ladezeit).
+ * Von beiden Apps registriert.
+ */
+public class PartnerCacheMetrics extends CacheMeterBinder<PartnerCache> {
+
+    public static final String CACHE_NAME = "partners";
+
+    public PartnerCacheMetrics(PartnerCache cache) {
+        super(cache, CACHE_NAME, Tags.empty());
+    }
+
+    @Override
+    protected Long size() {
+        PartnerCache cache = getCache();
+        return cache == null ? null : cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        PartnerCache cache = getCache();
+        return cache == null ? 0 : cache.stats().hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        PartnerCache cache = getCache();
+        return cache == null ? null : cache.stats().missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        PartnerCache cache = getCache();
+        return cache == null ? null : cache.stats().evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        PartnerCache cache = getCache();
+        return cache == null ? 0 : cache.stats().loadCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        PartnerCache cache = getCache();
+        Gauge.builder("cache.max.size", cache, PartnerCache::getMaxSize)
+                .tags(getTagsWithCacheName())
+                .description("Maximale Anzahl Partner im Cache")
+                .register(registry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadSuccessCount())
+                .tags(getTagsWithCacheName()).tag("result", "success")
+                .description("Aus der Datenbank geladene Partner")
+                .register(registry);
+        FunctionCounter.builder("cache.load", cache, c -> c.stats().loadFailureCount())
+                .tags(getTagsWithCacheName()).tag("result", "failure")
+                .description("Fehlgeschlagene oder leere Ladevorgänge (Partner nicht gefunden)")
+                .register(registry);
+        TimeGauge.builder("cache.load.duration", cache, TimeUnit.NANOSECONDS, c -> c.stats().totalLoadTime())
+                .tags(getTagsWithCacheName())
+                .description("Gesamtzeit aller Ladevorgänge")
+                .register(registry);
+    }
+}
@@ -0,0 +1,121 @@
+package org.iu.handelspartnern.common.infra;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Startprüfung der Listenspalten auf einem lokal entpackten PostgreSQL (zonky embedded-postgres), je Test in einem
+ * eigenen Schema. Startet PostgreSQL nicht, schlagen die Tests fehl.
+ */
+class JsonbListColumnsTest {
+
+    private static EmbeddedPostgres postgres;
+    private static int schemaCount;
+
+    private Connection connection;
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void openSchema() throws SQLException {
+        connection = postgres.getPostgresDatabase().getConnection();
+        String schema = "jsonb_lists_" + ++schemaCount;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema);
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @AfterEach
+    void closeConnection() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void emptyTextTableIsConvertedAndIndexed() throws SQLException {
+        // So legt hbm2ddl die Tabelle an
+        execute("CREATE TABLE trading_partners (id bigint PRIMARY KEY, contacts text NOT NULL, addresses text)");
+
+        assertTrue(JsonbListColumns.prepare(connection));
+        connection.commit();
+
+        assertEquals("jsonb", columnType("contacts"));
+        assertEquals("jsonb", columnType("addresses"));
+        assertEquals(2, count("SELECT COUNT(*) FROM pg_indexes WHERE schemaname = current_schema() "
+                + "AND indexname IN ('idx_trading_partners_contacts', 'idx_trading_partners_addresses')"));
+    }
+
+    @Test
+    void textTableWithRowsAbortsStartWithoutChanges() throws SQLException {
+        execute("CREATE TABLE trading_partners (id bigint PRIMARY KEY, contacts text NOT NULL, addresses text)");
+        execute("INSERT INTO trading_partners VALUES (1, '[]', NULL)");
+        connection.commit();
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> JsonbListColumns.prepare(connection));
+        connection.rollback();
+
+        assertTrue(error.getMessage().contains("004_jsonb_lists.sql"));
+        assertEquals("text", columnType("contacts"));
+        assertEquals("text", columnType("addresses"));
+    }
+
+    @Test
+    void migratedTableIsLeftAsIs() throws SQLException {
+        // Nach der Migration ohne die optionalen GIN-Indizes
+        execute("CREATE TABLE trading_partners (id bigint PRIMARY KEY, contacts jsonb NOT NULL, addresses jsonb)");
+        execute("INSERT INTO trading_partners VALUES (1, '[]', NULL)");
+        connection.commit();
+
+        assertTrue(JsonbListColumns.prepare(connection));
+        connection.commit();
+
+        assertEquals(0, count("SELECT COUNT(*) FROM pg_indexes WHERE schemaname = current_schema() "
+                + "AND tablename = 'trading_partners' AND indexname LIKE 'idx_%'"));
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private String columnType(String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT data_type FROM information_schema.columns "
+                        + "WHERE table_schema = current_schema() AND table_name = 'trading_partners' "
+                        + "AND column_name = '" + column + "'")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private long count(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
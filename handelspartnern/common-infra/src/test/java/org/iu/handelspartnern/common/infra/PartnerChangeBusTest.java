@@ -0,0 +1,135 @@
+package org.iu.handelspartnern.common.infra;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Zwei Bus-Instanzen auf einem lokal entpackten PostgreSQL (zonky embedded-postgres) stehen für zwei Knoten.
+ * Als root startet zonky initdb und postgres über {@code unshare -U} in einem eigenen User-Namespace. Startet
+ * PostgreSQL nicht, schlagen die Tests fehl; übersprungen wird nichts.
+ */
+class PartnerChangeBusTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final String ALL = "*";
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void otherNodeReceivesChangeAndSenderIgnoresItsOwn() throws Exception {
+        RecordingListener senderEvents = new RecordingListener();
+        RecordingListener receiverEvents = new RecordingListener();
+        try (PartnerChangeBus sender = bus("partner_changed_single", senderEvents);
+                PartnerChangeBus receiver = bus("partner_changed_single", receiverEvents)) {
+            awaitConnected(sender, receiver);
+
+            sender.publish(42L);
+
+            assertEquals("42", receiverEvents.next());
+            // Bis hier ist die Meldung auch beim Sender angekommen; er hat seinen Cache schon selbst geleert
+            assertNull(senderEvents.events.poll(500, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    void publishAllFromPlainConnectionReachesEveryNode() throws Exception {
+        RecordingListener firstEvents = new RecordingListener();
+        RecordingListener secondEvents = new RecordingListener();
+        try (PartnerChangeBus first = bus("partner_changed_import", firstEvents);
+                PartnerChangeBus second = bus("partner_changed_import", secondEvents)) {
+            awaitConnected(first, second);
+
+            // So meldet sich der Bulk-Import von der Kommandozeile, ohne eigenen Bus
+            try (Connection connection = DriverManager.getConnection(jdbcUrl(), "postgres", "postgres")) {
+                PartnerChangeBus.publishAll(connection, "partner_changed_import");
+            }
+
+            assertEquals(ALL, firstEvents.next());
+            assertEquals(ALL, secondEvents.next());
+        }
+    }
+
+    @Test
+    void nonPostgreSqlDatabaseDisablesBusOnStart() {
+        RecordingListener events = new RecordingListener();
+        try (PartnerChangeBus bus = new PartnerChangeBus("jdbc:h2:mem:partner-change-bus", "sa", "",
+                PartnerChangeBus.DEFAULT_CHANNEL, events)) {
+            assertTrue(bus.isEnabled());
+
+            bus.start();
+            bus.publish(1L);
+            bus.publishAll();
+
+            assertFalse(bus.isEnabled());
+            assertFalse(bus.isConnected());
+            assertTrue(events.events.isEmpty());
+        }
+    }
+
+    private static PartnerChangeBus bus(String channel, PartnerChangeListener listener) {
+        PartnerChangeBus bus = new PartnerChangeBus(jdbcUrl(), "postgres", "postgres", channel, listener);
+        bus.start();
+        return bus;
+    }
+
+    private static String jdbcUrl() {
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    // Erst nach LISTEN verbunden; vorher gesendete Meldungen kämen beim Empfänger nicht an
+    private static void awaitConnected(PartnerChangeBus... buses) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        for (PartnerChangeBus bus : buses) {
+            while (!bus.isConnected()) {
+                assertTrue(System.nanoTime() < deadline, "Bus nicht verbunden");
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    private static final class RecordingListener implements PartnerChangeListener {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void partnerChanged(Long partnerId) {
+            events.add(partnerId.toString());
+        }
+
+        @Override
+        public void allPartnersChanged() {
+            events.add(ALL);
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertTrue(event != null, "Keine Meldung erhalten");
+            return event;
+        }
+    }
+}
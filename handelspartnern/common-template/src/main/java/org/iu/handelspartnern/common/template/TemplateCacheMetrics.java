@@ -0,0 +1,59 @@
+package org.iu.handelspartnern.common.template;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.thymeleaf.cache.StandardCache;
+
+/**
+ * Treffer/Fehlschläge des Thymeleaf-Template-Caches als Micrometer-Cache-Meter
+ * (cache.gets{result=hit|miss}, cache.puts, cache.size, cache.max.size mit Tag cache=thymeleaf-templates).
+ * Von beiden Apps registriert.
+ */
+public class TemplateCacheMetrics extends CacheMeterBinder<StandardCache<?, ?>> {
+
+    public static final String CACHE_NAME = "thymeleaf-templates";
+
+    public TemplateCacheMetrics(StandardCache<?, ?> cache) {
+        super(cache, CACHE_NAME, Tags.empty());
+    }
+
+    @Override
+    protected Long size() {
+        StandardCache<?, ?> cache = getCache();
+        return cache == null ? null : (long) cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        StandardCache<?, ?> cache = getCache();
+        return cache == null ? 0 : cache.getHitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        StandardCache<?, ?> cache = getCache();
+        return cache == null ? null : cache.getMissCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        // StandardCache zählt keine Verdrängungen
+        return null;
+    }
+
+    @Override
+    protected long putCount() {
+        StandardCache<?, ?> cache = getCache();
+        return cache == null ? 0 : cache.getPutCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.max.size", getCache(), StandardCache::getMaxSize)
+                .tags(getTagsWithCacheName())
+                .description("Maximale Anzahl geparster Templates/Fragmente im Cache")
+                .register(registry);
+    }
+}
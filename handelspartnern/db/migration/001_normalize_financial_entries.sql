@@ -0,0 +1,58 @@
+-- Buchungen aus der JSON-Spalte trading_partners.financialEntries in die Tabelle financial_entries überführen.
+--
+-- Einmalig gegen eine bestehende Datenbank ausführen, bevor die neue Version startet:
+--   psql -h localhost -U postgres -d trading_partners -f db/migration/001_normalize_financial_entries.sql
+--
+-- Das Skript ist wiederholbar: die Tabelle wird nur angelegt, wenn hbm2ddl sie noch nicht erzeugt hat,
+-- bereits übernommene Buchungen werden über ON CONFLICT übersprungen.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS financial_entries (
+    id          UUID           NOT NULL PRIMARY KEY,
+    partner_id  BIGINT         NOT NULL REFERENCES trading_partners (id) ON DELETE CASCADE,
+    type        VARCHAR(255)   NOT NULL,
+    status      VARCHAR(255)   NOT NULL,
+    amount      NUMERIC(19, 2) NOT NULL,
+    purpose     TEXT,
+    reference   VARCHAR(255),
+    entry_date  DATE           NOT NULL,
+    created_at  TIMESTAMP      NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_financial_entries_partner_date
+    ON financial_entries (partner_id, entry_date, created_at);
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'trading_partners' AND column_name = 'financialentries') THEN
+
+        INSERT INTO financial_entries (id, partner_id, type, status, amount, purpose, reference, entry_date, created_at)
+        SELECT COALESCE((e ->> 'id')::uuid, gen_random_uuid()),
+               tp.id,
+               COALESCE(e ->> 'type', 'CLAIM'),
+               COALESCE(e ->> 'status', 'OPEN'),
+               COALESCE((e ->> 'amount')::numeric(19, 2), 0),
+               e ->> 'purpose',
+               e ->> 'reference',
+               COALESCE((e ->> 'date')::date, tp.dateCreated::date),
+               COALESCE((e ->> 'createdAt')::timestamp, tp.dateCreated)
+        FROM trading_partners tp
+             CROSS JOIN LATERAL jsonb_array_elements(tp.financialEntries::jsonb) AS e
+        WHERE tp.financialEntries IS NOT NULL
+          AND tp.financialEntries <> ''
+        ON CONFLICT (id) DO NOTHING;
+
+        -- Summen an der Partnerzeile aus den übernommenen Buchungen neu berechnen
+        UPDATE trading_partners tp SET
+            claims  = (SELECT COALESCE(SUM(fe.amount), 0) FROM financial_entries fe
+                       WHERE fe.partner_id = tp.id AND fe.type = 'CLAIM' AND fe.status = 'OPEN'),
+            payable = (SELECT COALESCE(SUM(fe.amount), 0) FROM financial_entries fe
+                       WHERE fe.partner_id = tp.id AND fe.type = 'PAYABLE' AND fe.status = 'OPEN');
+
+        ALTER TABLE trading_partners DROP COLUMN financialEntries;
+    END IF;
+END $$;
+
+COMMIT;
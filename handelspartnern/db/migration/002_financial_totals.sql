@@ -0,0 +1,32 @@
+-- Laufende Finanzsummen am Partner (settledClaims, settledPayables, transactionCount) anlegen und einmalig
+-- aus financial_entries befüllen. Danach schreiben die Services die Summen nur noch per Delta fort.
+--
+--   psql -h localhost -U postgres -d trading_partners -f db/migration/002_financial_totals.sql
+--
+-- Wiederholbar; ein erneuter Lauf setzt die Summen auf den aus den Buchungen berechneten Stand zurück.
+
+BEGIN;
+
+ALTER TABLE trading_partners ADD COLUMN IF NOT EXISTS settledClaims NUMERIC(19, 2) DEFAULT 0 NOT NULL;
+ALTER TABLE trading_partners ADD COLUMN IF NOT EXISTS settledPayables NUMERIC(19, 2) DEFAULT 0 NOT NULL;
+ALTER TABLE trading_partners ADD COLUMN IF NOT EXISTS transactionCount INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE trading_partners SET claims = 0, settledClaims = 0, payable = 0, settledPayables = 0, transactionCount = 0;
+
+UPDATE trading_partners tp SET
+    claims           = COALESCE(t.open_claims, 0),
+    settledClaims    = COALESCE(t.settled_claims, 0),
+    payable          = COALESCE(t.open_payables, 0),
+    settledPayables  = COALESCE(t.settled_payables, 0),
+    transactionCount = t.entry_count
+FROM (SELECT partner_id,
+             SUM(amount) FILTER (WHERE type = 'CLAIM' AND status = 'OPEN')      AS open_claims,
+             SUM(amount) FILTER (WHERE type = 'CLAIM' AND status = 'SETTLED')   AS settled_claims,
+             SUM(amount) FILTER (WHERE type = 'PAYABLE' AND status = 'OPEN')    AS open_payables,
+             SUM(amount) FILTER (WHERE type = 'PAYABLE' AND status = 'SETTLED') AS settled_payables,
+             COUNT(*)                                                           AS entry_count
+      FROM financial_entries
+      GROUP BY partner_id) t
+WHERE t.partner_id = tp.id;
+
+COMMIT;
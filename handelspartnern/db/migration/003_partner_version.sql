@@ -0,0 +1,10 @@
+-- Versionsspalte für Optimistic Locking auf trading_partners.
+-- Bestehende Zeilen müssen version = 0 haben: bei NULL hält Hibernate den Partner für neu.
+--
+--   psql -h localhost -U postgres -d trading_partners -f db/migration/003_partner_version.sql
+
+BEGIN;
+
+ALTER TABLE trading_partners ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+COMMIT;
@@ -0,0 +1,41 @@
+-- Kontakte und Adressen von TEXT auf jsonb umstellen.
+-- Danach ändern die Apps einzelne Elemente per jsonb_set / || / - in einem UPDATE, statt den Partner zu laden und
+-- die ganze Liste neu zu schreiben. Die Apps prüfen den Spaltentyp beim Start (JsonbListColumns): eine leere
+-- Tabelle stellen sie selbst um, mit vorhandenen Zeilen starten sie ohne diese Migration nicht.
+--
+--   psql -h localhost -U postgres -d trading_partners -f db/migration/004_jsonb_lists.sql
+--
+-- Wiederholbar: bereits umgestellte Spalten werden übersprungen. ALTER COLUMN ... TYPE schreibt die Tabelle neu und
+-- hält dabei ein ACCESS EXCLUSIVE Lock, also außerhalb der Geschäftszeiten ausführen.
+
+BEGIN;
+
+DO $$
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_schema = current_schema() AND table_name = 'trading_partners'
+          AND column_name = 'contacts') <> 'jsonb' THEN
+        ALTER TABLE trading_partners
+            ALTER COLUMN contacts TYPE jsonb
+            USING COALESCE(NULLIF(btrim(contacts), ''), '[]')::jsonb;
+    END IF;
+
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_schema = current_schema() AND table_name = 'trading_partners'
+          AND column_name = 'addresses') <> 'jsonb' THEN
+        ALTER TABLE trading_partners
+            ALTER COLUMN addresses TYPE jsonb
+            USING COALESCE(NULLIF(btrim(addresses), ''), '[]')::jsonb;
+    END IF;
+END
+$$;
+
+-- Containment-Suche, z. B. contacts @> '[{"email": "einkauf@example.com"}]'. jsonb_path_ops ist kleiner als der
+-- Default-Operator und reicht für @>. Jeder Index kostet bei Schreibzugriffen; wer die Suche nicht nutzt, lässt
+-- die beiden Indizes weg.
+CREATE INDEX IF NOT EXISTS idx_trading_partners_contacts
+    ON trading_partners USING GIN (contacts jsonb_path_ops);
+CREATE INDEX IF NOT EXISTS idx_trading_partners_addresses
+    ON trading_partners USING GIN (addresses jsonb_path_ops);
+
+COMMIT;
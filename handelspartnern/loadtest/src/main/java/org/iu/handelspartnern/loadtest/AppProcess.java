@@ -0,0 +1,89 @@
+package org.iu.handelspartnern.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eine gestartete App als eigener JVM-Prozess, Ausgabe in eine Log-Datei neben dem Report.
+ */
+public final class AppProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+
+    private final Process process;
+    private final URI baseUri;
+    private final Path logFile;
+
+    private AppProcess(Process process, URI baseUri, Path logFile) {
+        this.process = process;
+        this.baseUri = baseUri;
+        this.logFile = logFile;
+    }
+
+    public static AppProcess start(TargetApp app, LoadTestOptions options, DatabaseStandIn database,
+            JdbcSettings jdbc, Path logFile) throws IOException {
+        String classpath = options.getClasspath(app);
+        if (!database.getDriverClasspath().isEmpty()) {
+            classpath = classpath + File.pathSeparator + database.getDriverClasspath();
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(options.getJavaBinary());
+        command.addAll(options.getAppJvmOptions());
+        command.add("-cp");
+        command.add(classpath);
+        command.addAll(app.arguments(options, jdbc, options.getPort()));
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        return new AppProcess(process, URI.create("http://localhost:" + options.getPort()), logFile);
+    }
+
+    // Pollt den Health-Endpoint, bis die App antwortet; liefert die Startzeit
+    public Duration awaitHealthy(HttpClient httpClient, TargetApp app) throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + STARTUP_TIMEOUT.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(app.getHealthPath()))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(app.getId() + " ist beim Start beendet worden, siehe " + logFile);
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return Duration.ofNanos(System.nanoTime() - start);
+                }
+            } catch (IOException e) {
+                // Port noch nicht offen
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(app.getId() + " nicht innerhalb von " + STARTUP_TIMEOUT.toSeconds()
+                + " s gestartet, siehe " + logFile);
+    }
+
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.iu.handelspartnern.loadtest;
+
+/**
+ * Lokale Datenbank für einen Lasttest. Jede App bekommt eine eigene, leere Datenbank, damit beide mit
+ * demselben Datenstand starten und sich das Schema (unterschiedliche Naming-Strategien) nicht überschneidet.
+ */
+public interface DatabaseStandIn extends AutoCloseable {
+
+    String getName();
+
+    JdbcSettings createDatabase(String name) throws Exception;
+
+    // Zusätzliche Classpath-Einträge für die App (z. B. der H2-Treiber), leer wenn keine nötig sind
+    String getDriverClasspath();
+
+    @Override
+    void close() throws Exception;
+
+    static DatabaseStandIn start(String type) throws Exception {
+        switch (type) {
+            case "h2":
+                return H2TcpDatabase.start();
+            case "postgres":
+                return EmbeddedPostgresDatabase.start();
+            default:
+                throw new IllegalArgumentException("Unbekannte Datenbank: " + type + " (h2 oder postgres)");
+        }
+    }
+}
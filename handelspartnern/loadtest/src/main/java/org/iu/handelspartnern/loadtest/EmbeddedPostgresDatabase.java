@@ -0,0 +1,50 @@
+package org.iu.handelspartnern.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * Lokal entpacktes PostgreSQL (zonky embedded-postgres), ohne installierten Server oder Docker.
+ * initdb verweigert den Start als root; in Containern deshalb als normaler Benutzer ausführen.
+ */
+public final class EmbeddedPostgresDatabase implements DatabaseStandIn {
+
+    private final EmbeddedPostgres postgres;
+
+    private EmbeddedPostgresDatabase(EmbeddedPostgres postgres) {
+        this.postgres = postgres;
+    }
+
+    public static EmbeddedPostgresDatabase start() throws Exception {
+        return new EmbeddedPostgresDatabase(EmbeddedPostgres.builder().start());
+    }
+
+    @Override
+    public String getName() {
+        return "postgres";
+    }
+
+    @Override
+    public JdbcSettings createDatabase(String name) throws Exception {
+        String database = name.replace('-', '_');
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        }
+        return new JdbcSettings(postgres.getJdbcUrl("postgres", database), "postgres", "postgres",
+                "org.postgresql.Driver", "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Override
+    public String getDriverClasspath() {
+        // Beide Apps bringen den PostgreSQL-Treiber selbst mit
+        return "";
+    }
+
+    @Override
+    public void close() throws Exception {
+        postgres.close();
+    }
+}
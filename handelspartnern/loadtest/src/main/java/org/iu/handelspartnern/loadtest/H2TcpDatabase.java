@@ -0,0 +1,56 @@
+package org.iu.handelspartnern.loadtest;
+
+import java.net.ServerSocket;
+import java.nio.file.Paths;
+
+import org.h2.Driver;
+import org.h2.tools.Server;
+
+/**
+ * H2 als TCP-Server im Prozess des Lasttests: die App greift wie auf PostgreSQL über das Netzwerk zu, die
+ * Datenbankarbeit zählt also nicht zur CPU und Allokation der gemessenen App.
+ */
+public final class H2TcpDatabase implements DatabaseStandIn {
+
+    private final Server server;
+
+    private H2TcpDatabase(Server server) {
+        this.server = server;
+    }
+
+    public static H2TcpDatabase start() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        // -ifNotExists: H2 2.x legt Datenbanken über TCP sonst nicht an
+        Server server = Server.createTcpServer("-tcpPort", String.valueOf(port), "-ifNotExists", "-tcpDaemon")
+                .start();
+        return new H2TcpDatabase(server);
+    }
+
+    @Override
+    public String getName() {
+        return "h2";
+    }
+
+    @Override
+    public JdbcSettings createDatabase(String name) {
+        String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:" + name + ";DB_CLOSE_DELAY=-1";
+        return new JdbcSettings(url, "sa", "", "org.h2.Driver", "org.hibernate.dialect.H2Dialect");
+    }
+
+    @Override
+    public String getDriverClasspath() {
+        try {
+            return Paths.get(Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (Exception e) {
+            throw new IllegalStateException("H2-JAR nicht gefunden", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+}
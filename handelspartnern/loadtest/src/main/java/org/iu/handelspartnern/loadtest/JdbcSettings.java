@@ -0,0 +1,8 @@
+package org.iu.handelspartnern.loadtest;
+
+/**
+ * Verbindungsdaten einer Datenbank, die eine App beim Start übergeben bekommt.
+ */
+public record JdbcSettings(String url, String username, String password, String driverClassName,
+        String hibernateDialect) {
+}
@@ -0,0 +1,98 @@
+package org.iu.handelspartnern.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-Loop-Last wie scripts/loadtest/HttpLoad.java: jeder Client sendet den nächsten Request, sobald die vorige
+ * Antwort da ist. Latenzen landen je Request-Typ in einem HdrHistogram (Mikrosekunden); fehlerhafte Antworten
+ * (Status >= 400, Timeout) werden gezählt, aber nicht in die Latenz eingerechnet.
+ */
+public class LoadRunner {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.SECONDS.toMicros(120);
+
+    private final HttpClient httpClient;
+    private final RequestMix mix;
+
+    public LoadRunner(HttpClient httpClient, RequestMix mix) {
+        this.httpClient = httpClient;
+        this.mix = mix;
+    }
+
+    /**
+     * Ergebnis eines Laufs je Request-Typ.
+     */
+    public record Result(Map<String, Histogram> latencies, Map<String, Long> errors, Duration elapsed) {
+
+        public Histogram total() {
+            Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+            latencies.values().forEach(total::add);
+            return total;
+        }
+
+        public long totalErrors() {
+            return errors.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    public Result run(int clients, Duration duration, long seed) throws InterruptedException {
+        Map<String, Histogram> latencies = new LinkedHashMap<>();
+        Map<String, LongAdder> errors = new LinkedHashMap<>();
+        for (RequestMix.Entry entry : RequestMix.entries()) {
+            latencies.put(entry.name(), new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            errors.put(entry.name(), new LongAdder());
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            // Gleicher Seed je Client-Index: beide Apps bekommen dieselbe Request-Folge
+            Random random = new Random(seed + i);
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    RequestMix.Entry entry = mix.next(random);
+                    long requestStart = System.nanoTime();
+                    try {
+                        HttpRequest request = mix.build(entry, random);
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors.get(entry.name()).increment();
+                            continue;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        errors.get(entry.name()).increment();
+                        continue;
+                    }
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - requestStart);
+                    latencies.get(entry.name()).recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+                }
+            }, "load-client-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<String, Long> errorCounts = new LinkedHashMap<>();
+        errors.forEach((name, count) -> errorCounts.put(name, count.sum()));
+        return new Result(latencies, errorCounts, Duration.ofNanos(System.nanoTime() - start));
+    }
+}
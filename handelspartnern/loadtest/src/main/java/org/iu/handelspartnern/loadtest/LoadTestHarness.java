@@ -0,0 +1,206 @@
+package org.iu.handelspartnern.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reproduzierbarer Lastvergleich Spring Boot vs. Spark Java: startet jede App gegen eine eigene lokale Datenbank,
+ * legt dieselben Testdaten an, treibt denselben Request-Mix und schreibt Durchsatz, Latenz-Perzentile und
+ * Allokationsrate beider Apps in einen JSON-Report.
+ *
+ * Start über scripts/framework-loadtest.sh, das die Classpaths der Apps ermittelt.
+ */
+public class LoadTestHarness {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestHarness.class);
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    private final LoadTestOptions options;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    public LoadTestHarness(LoadTestOptions options) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+            for (TargetApp app : options.getApps()) {
+                options.getClasspath(app);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ " + e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        new LoadTestHarness(options).run();
+    }
+
+    public void run() throws Exception {
+        Path output = options.getOutput();
+        Files.createDirectories(output.getParent());
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        try (DatabaseStandIn database = DatabaseStandIn.start(options.getDatabase())) {
+            logger.info("🗄️ Datenbank: {}", database.getName());
+            for (TargetApp app : options.getApps()) {
+                results.put(app.getId(), measure(app, database, output));
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", OffsetDateTime.now().toString());
+        report.put("environment", environment());
+        Map<String, Object> config = options.describe();
+        config.put("requestMix", RequestMix.describe());
+        report.put("config", config);
+        report.put("results", results);
+        objectMapper.writeValue(output.toFile(), report);
+
+        printSummary(results);
+        logger.info("✅ Report: {}", output);
+    }
+
+    private Map<String, Object> measure(TargetApp app, DatabaseStandIn database, Path output) throws Exception {
+        JdbcSettings jdbc = database.createDatabase(app.getId() + "_web");
+        String reportName = output.getFileName().toString().replaceFirst("\\.json$", "");
+        Path logFile = output.resolveSibling(reportName + "-" + app.getId() + ".log");
+
+        logger.info("🚀 Starte {}-web (Log: {})", app.getId(), logFile);
+        try (AppProcess process = AppProcess.start(app, options, database, jdbc, logFile)) {
+            Duration startup = process.awaitHealthy(httpClient, app);
+
+            logger.info("🌱 {} Partner mit je {} Buchungen", options.getPartners(), options.getEntriesPerPartner());
+            long seedStart = System.nanoTime();
+            List<Long> partnerIds = new Seeder(httpClient, objectMapper, process.getBaseUri(), options.getSeed())
+                    .seed(options.getPartners(), options.getEntriesPerPartner());
+            Duration seeding = Duration.ofNanos(System.nanoTime() - seedStart);
+
+            LoadRunner runner = new LoadRunner(httpClient,
+                    new RequestMix(process.getBaseUri(), partnerIds, objectMapper));
+            if (options.getWarmupSeconds() > 0) {
+                logger.info("🔥 Aufwärmen: {} s, {} Clients", options.getWarmupSeconds(), options.getClients());
+                runner.run(options.getClients(), Duration.ofSeconds(options.getWarmupSeconds()), ~options.getSeed());
+            }
+
+            logger.info("📏 Messung: {} s, {} Clients", options.getDurationSeconds(), options.getClients());
+            double allocatedBefore = allocatedBytes(process, app);
+            LoadRunner.Result result = runner.run(options.getClients(),
+                    Duration.ofSeconds(options.getDurationSeconds()), options.getSeed());
+            double allocatedAfter = allocatedBytes(process, app);
+
+            Map<String, Object> appResult = new LinkedHashMap<>();
+            appResult.put("startupMs", startup.toMillis());
+            appResult.put("seedSeconds", round(seeding.toMillis() / 1000.0));
+            appResult.putAll(summarize(result.total(), result.totalErrors(), result.elapsed()));
+            appResult.put("allocation", allocation(allocatedAfter - allocatedBefore, result));
+
+            Map<String, Object> endpoints = new LinkedHashMap<>();
+            result.latencies().forEach((name, histogram) ->
+                    endpoints.put(name, summarize(histogram, result.errors().get(name), result.elapsed())));
+            appResult.put("endpoints", endpoints);
+            appResult.put("log", logFile.toString());
+            return appResult;
+        }
+    }
+
+    private double allocatedBytes(AppProcess process, TargetApp app) throws Exception {
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(process.getBaseUri().resolve(app.getAllocationMetricPath())).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(app.getAllocationMetricPath() + " -> " + response.statusCode());
+        }
+        return app.allocatedBytes(objectMapper.readTree(response.body()));
+    }
+
+    private Map<String, Object> summarize(Histogram histogram, long errors, Duration elapsed) {
+        double seconds = elapsed.toNanos() / 1e9;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("throughput", round(histogram.getTotalCount() / seconds));
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            String key = "p" + (percentile == Math.rint(percentile)
+                    ? String.valueOf((int) percentile)
+                    : String.valueOf(percentile).replace(".", ""));
+            latency.put(key, toMillis(histogram.getValueAtPercentile(percentile)));
+        }
+        latency.put("mean", round(histogram.getMean() / 1000.0));
+        latency.put("max", toMillis(histogram.getMaxValue()));
+        summary.put("latencyMs", latency);
+        return summary;
+    }
+
+    // jvm.gc.memory.allocated wird bei jeder GC fortgeschrieben; bei kurzen Läufen daher nur eine Näherung
+    private Map<String, Object> allocation(double bytes, LoadRunner.Result result) {
+        double seconds = result.elapsed().toNanos() / 1e9;
+        long requests = result.total().getTotalCount() + result.totalErrors();
+        Map<String, Object> allocation = new LinkedHashMap<>();
+        allocation.put("bytes", (long) bytes);
+        allocation.put("mbPerSecond", round(bytes / seconds / (1024 * 1024)));
+        allocation.put("kbPerRequest", requests == 0 ? 0 : round(bytes / requests / 1024));
+        return allocation;
+    }
+
+    private Map<String, Object> environment() {
+        Map<String, Object> environment = new LinkedHashMap<>();
+        environment.put("harnessJavaVersion", System.getProperty("java.version"));
+        environment.put("appJava", options.getJavaBinary());
+        environment.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        environment.put("maxHarnessMemoryMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+        environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        return environment;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void printSummary(Map<String, Object> results) {
+        System.out.printf(Locale.ROOT, "%-8s%10s%10s%10s%10s%10s%12s%8s%n",
+                "app", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "alloc MB/s", "errors");
+        results.forEach((app, value) -> {
+            Map<String, Object> result = (Map<String, Object>) value;
+            Map<String, Object> latency = (Map<String, Object>) result.get("latencyMs");
+            Map<String, Object> allocation = (Map<String, Object>) result.get("allocation");
+            System.out.printf(Locale.ROOT, "%-8s%10s%10s%10s%10s%10s%12s%8s%n", app, result.get("throughput"),
+                    latency.get("p50"), latency.get("p95"), latency.get("p99"), latency.get("max"),
+                    allocation.get("mbPerSecond"), result.get("errors"));
+        });
+    }
+
+    private static double toMillis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+}
@@ -0,0 +1,154 @@
+package org.iu.handelspartnern.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Kommandozeilen-Optionen im Format --key=value. Unbekannte Schlüssel führen zum Abbruch, damit sich ein
+ * Tippfehler nicht unbemerkt in einer Messung mit Default-Werten niederschlägt.
+ */
+public class LoadTestOptions {
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: LoadTestHarness --spring-classpath=<cp> --spark-classpath=<cp> [options]",
+            "  --apps=spring,spark         Apps in dieser Reihenfolge messen",
+            "  --db=h2|postgres            H2-TCP-Server oder lokal entpacktes PostgreSQL (nicht als root)",
+            "  --partners=200              Anzahl Handelspartner",
+            "  --entries=20                Buchungen je Partner",
+            "  --clients=50                parallele Clients (Closed Loop)",
+            "  --warmup=15                 Aufwärmphase in Sekunden (gleicher Request-Mix, nicht gewertet)",
+            "  --duration=30               Messdauer in Sekunden",
+            "  --seed=42                   Zufallsstartwert für Request-Mix und Seed-Daten",
+            "  --port=18080                Port der gemessenen App",
+            "  --spring-profile=prod       Spring-Profil (leer = keins)",
+            "  --app-jvm-opts=\"-Xms512m -Xmx512m\"  JVM-Optionen für beide Apps",
+            "  --java=<pfad>               java-Binary für die Apps (Default: dieses JDK)",
+            "  --out=<datei.json>          Report (Default: metrics/loadtest/framework-<zeitstempel>.json)");
+
+    private static final List<String> KEYS = Arrays.asList("apps", "db", "partners", "entries", "clients", "warmup",
+            "duration", "seed", "port", "spring-profile", "app-jvm-opts", "java", "spring-classpath",
+            "spark-classpath", "out");
+
+    private final Map<String, String> values;
+
+    private LoadTestOptions(Map<String, String> values) {
+        this.values = values;
+    }
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Ungültiges Argument: " + arg);
+            }
+            String key = arg.substring(2, separator);
+            if (!KEYS.contains(key)) {
+                throw new IllegalArgumentException("Unbekannte Option: --" + key);
+            }
+            values.put(key, arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(values);
+    }
+
+    public List<TargetApp> getApps() {
+        List<TargetApp> apps = new ArrayList<>();
+        for (String name : get("apps", "spring,spark").split(",")) {
+            apps.add(TargetApp.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        return apps;
+    }
+
+    public String getDatabase() {
+        return get("db", "h2").toLowerCase(Locale.ROOT);
+    }
+
+    public int getPartners() {
+        return getInt("partners", 200);
+    }
+
+    public int getEntriesPerPartner() {
+        return getInt("entries", 20);
+    }
+
+    public int getClients() {
+        return getInt("clients", 50);
+    }
+
+    public int getWarmupSeconds() {
+        return getInt("warmup", 15);
+    }
+
+    public int getDurationSeconds() {
+        return getInt("duration", 30);
+    }
+
+    public long getSeed() {
+        return Long.parseLong(get("seed", "42"));
+    }
+
+    public int getPort() {
+        return getInt("port", 18080);
+    }
+
+    public String getSpringProfile() {
+        return get("spring-profile", "prod");
+    }
+
+    public List<String> getAppJvmOptions() {
+        String options = get("app-jvm-opts", "-Xms512m -Xmx512m").trim();
+        return options.isEmpty() ? List.of() : Arrays.asList(options.split("\\s+"));
+    }
+
+    public String getJavaBinary() {
+        return get("java", Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    }
+
+    public String getClasspath(TargetApp app) {
+        String key = app.getId() + "-classpath";
+        String classpath = values.get(key);
+        if (classpath == null || classpath.isBlank()) {
+            throw new IllegalArgumentException("--" + key + " fehlt (siehe scripts/framework-loadtest.sh)");
+        }
+        return classpath;
+    }
+
+    public Path getOutput() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return Paths.get(get("out", "metrics/loadtest/framework-" + timestamp + ".json")).toAbsolutePath();
+    }
+
+    // Für den Report: alle Parameter, die das Ergebnis beeinflussen
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("db", getDatabase());
+        description.put("partners", getPartners());
+        description.put("entriesPerPartner", getEntriesPerPartner());
+        description.put("clients", getClients());
+        description.put("warmupSeconds", getWarmupSeconds());
+        description.put("durationSeconds", getDurationSeconds());
+        description.put("seed", getSeed());
+        description.put("springProfile", getSpringProfile());
+        description.put("appJvmOptions", getAppJvmOptions());
+        return description;
+    }
+
+    private String get(String key, String defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    private int getInt(String key, int defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
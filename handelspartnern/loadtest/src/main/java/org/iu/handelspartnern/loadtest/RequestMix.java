@@ -0,0 +1,89 @@
+package org.iu.handelspartnern.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Gewichteter Request-Mix, der gegen beide Apps identisch läuft: HTMX-Fragmente, wie sie die Oberfläche lädt,
+ * und die JSON-API. Welcher Request und welcher Partner als nächstes kommt, bestimmt der Random des Clients.
+ */
+public class RequestMix {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    /**
+     * Ein Request-Typ des Mix, {id} im Pfad wird durch eine zufällige Partner-ID ersetzt.
+     */
+    public record Entry(String name, int weight, String method, String path, boolean htmx) {
+    }
+
+    private static final List<Entry> ENTRIES = List.of(
+            new Entry("page-index", 5, "GET", "/", false),
+            new Entry("htmx-partner-list", 20, "GET", "/partners", true),
+            new Entry("htmx-partner-detail", 20, "GET", "/partners/{id}", true),
+            new Entry("api-partner-list", 20, "GET", "/api/partners", false),
+            new Entry("api-transactions", 15, "GET", "/api/partners/{id}/transactions", false),
+            new Entry("api-balance", 10, "GET", "/api/partners/{id}/balance", false),
+            new Entry("api-book-transaction", 10, "POST", "/api/partners/financial-transaction", false));
+
+    private final URI baseUri;
+    private final List<Long> partnerIds;
+    private final ObjectMapper objectMapper;
+    private final int totalWeight;
+
+    public RequestMix(URI baseUri, List<Long> partnerIds, ObjectMapper objectMapper) {
+        this.baseUri = baseUri;
+        this.partnerIds = partnerIds;
+        this.objectMapper = objectMapper;
+        this.totalWeight = ENTRIES.stream().mapToInt(Entry::weight).sum();
+    }
+
+    public static List<Entry> entries() {
+        return ENTRIES;
+    }
+
+    // Gewichte für den Report
+    public static Map<String, Integer> describe() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (Entry entry : ENTRIES) {
+            weights.put(entry.name(), entry.weight());
+        }
+        return weights;
+    }
+
+    public Entry next(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (Entry entry : ENTRIES) {
+            pick -= entry.weight();
+            if (pick < 0) {
+                return entry;
+            }
+        }
+        throw new IllegalStateException("Gewichte inkonsistent");
+    }
+
+    public HttpRequest build(Entry entry, Random random) throws JsonProcessingException {
+        long partnerId = partnerIds.get(random.nextInt(partnerIds.size()));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(
+                baseUri.resolve(entry.path().replace("{id}", String.valueOf(partnerId))))
+                .timeout(REQUEST_TIMEOUT);
+        if (entry.htmx()) {
+            builder.header("HX-Request", "true");
+        }
+        if ("POST".equals(entry.method())) {
+            String body = objectMapper.writeValueAsString(Seeder.transaction(partnerId, random, "Lasttest"));
+            return builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+        return builder.GET().build();
+    }
+}
@@ -0,0 +1,163 @@
+package org.iu.handelspartnern.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Legt die Testdaten über die HTTP-Endpunkte an, die beide Apps gleich anbieten. So landen die Daten durch
+ * dieselbe Validierung und dasselbe Mapping wie im Betrieb, unabhängig vom Tabellenschema der jeweiligen App.
+ */
+public class Seeder {
+
+    private static final int PARALLELISM = 8;
+    private static final int PAGE_SIZE = 200;
+    private static final String[] PARTNER_TYPES = {"SUPPLIER", "CUSTOMER", "PARTNER"};
+    private static final String[] ENTRY_TYPES = {"CLAIM", "PAYABLE"};
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI baseUri;
+    private final long seed;
+
+    public Seeder(HttpClient httpClient, ObjectMapper objectMapper, URI baseUri, long seed) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.baseUri = baseUri;
+        this.seed = seed;
+    }
+
+    // Legt partners Partner mit je entriesPerPartner Buchungen an und liefert deren IDs
+    public List<Long> seed(int partners, int entriesPerPartner) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM);
+        try {
+            List<Future<?>> creations = new ArrayList<>();
+            for (int i = 0; i < partners; i++) {
+                int index = i;
+                creations.add(executor.submit(() -> {
+                    createPartner(index);
+                    return null;
+                }));
+            }
+            awaitAll(creations);
+
+            List<Long> ids = partnerIds();
+            if (ids.size() != partners) {
+                throw new IllegalStateException("Erwartet " + partners + " Partner, gefunden " + ids.size());
+            }
+
+            // Je Partner nacheinander, damit sich die Buchungen nicht gegenseitig per Optimistic Locking verdrängen
+            List<Future<?>> bookings = new ArrayList<>();
+            for (Long id : ids) {
+                bookings.add(executor.submit(() -> {
+                    Random random = new Random(seed ^ id);
+                    for (int i = 0; i < entriesPerPartner; i++) {
+                        bookTransaction(id, random, "Seed " + i);
+                    }
+                    return null;
+                }));
+            }
+            awaitAll(bookings);
+            return ids;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Dieselbe Buchung wie im Request-Mix des Lasttests
+    static Map<String, Object> transaction(long partnerId, Random random, String purpose) {
+        Map<String, Object> transaction = new LinkedHashMap<>();
+        transaction.put("partnerId", partnerId);
+        transaction.put("type", ENTRY_TYPES[random.nextInt(ENTRY_TYPES.length)]);
+        transaction.put("amount", BigDecimal.valueOf(1000 + random.nextInt(500_000), 2).toPlainString());
+        transaction.put("purpose", purpose);
+        return transaction;
+    }
+
+    private void createPartner(int index) throws IOException, InterruptedException {
+        Random random = new Random(seed + index);
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("name", String.format("Loadtest Partner %05d", index));
+        form.put("type", PARTNER_TYPES[random.nextInt(PARTNER_TYPES.length)]);
+        form.put("status", "ACTIVE");
+        form.put("taxId", String.format("DE%09d", random.nextInt(1_000_000_000)));
+        form.put("paymentTerms", "30 Tage netto");
+
+        StringBuilder body = new StringBuilder();
+        for (Map.Entry<String, String> field : form.entrySet()) {
+            if (body.length() > 0) {
+                body.append('&');
+            }
+            body.append(field.getKey()).append('=').append(URLEncoder.encode(field.getValue(), StandardCharsets.UTF_8));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/partners"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        send(request);
+    }
+
+    private void bookTransaction(long partnerId, Random random, String purpose)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/partners/financial-transaction"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        objectMapper.writeValueAsString(transaction(partnerId, random, purpose))))
+                .build();
+        send(request);
+    }
+
+    // Alle Partner-IDs über die Keyset-Pagination von GET /api/partners
+    private List<Long> partnerIds() throws IOException, InterruptedException {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            String query = "/api/partners?limit=" + PAGE_SIZE
+                    + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+            HttpResponse<String> response = send(HttpRequest.newBuilder(baseUri.resolve(query))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build());
+            for (JsonNode partner : objectMapper.readTree(response.body())) {
+                ids.add(partner.path("id").asLong());
+            }
+            cursor = response.headers().firstValue("X-Next-Cursor").orElse(null);
+        } while (cursor != null);
+        return ids;
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " -> "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws Exception {
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.iu.handelspartnern.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Die beiden gemessenen Apps: Startkommando, Health-Check und wo die Allokations-Metrik liegt.
+ * Beide laufen ohne SQL-Logging und mit ihrer Produktions-Konfiguration.
+ */
+public enum TargetApp {
+
+    SPRING("spring", "org.iu.handelspartnern.spring.SpringWebApplication", "/actuator/health",
+            "/actuator/metrics/jvm.gc.memory.allocated") {
+        @Override
+        List<String> arguments(LoadTestOptions options, JdbcSettings jdbc, int port) {
+            List<String> arguments = new ArrayList<>();
+            // Devtools liegt im Runtime-Classpath; ohne diese System-Property startet der Restart-Classloader
+            arguments.add("-Dspring.devtools.restart.enabled=false");
+            arguments.add(getMainClass());
+            arguments.add("--server.port=" + port);
+            if (!options.getSpringProfile().isBlank()) {
+                arguments.add("--spring.profiles.active=" + options.getSpringProfile());
+            }
+            arguments.add("--spring.datasource.url=" + jdbc.url());
+            arguments.add("--spring.datasource.username=" + jdbc.username());
+            arguments.add("--spring.datasource.password=" + jdbc.password());
+            arguments.add("--spring.datasource.driver-class-name=" + jdbc.driverClassName());
+            arguments.add("--spring.jpa.properties.hibernate.dialect=" + jdbc.hibernateDialect());
+            arguments.add("--spring.jpa.show-sql=false");
+            // Eine Instanz; der Bus würde sonst eine Connection außerhalb des Pools belegen
+            arguments.add("--app.partner-events.enabled=false");
+            return arguments;
+        }
+
+        @Override
+        double allocatedBytes(JsonNode metric) {
+            // {"name":"jvm.gc.memory.allocated","measurements":[{"statistic":"COUNT","value":...}],...}
+            return metric.path("measurements").path(0).path("value").asDouble();
+        }
+    },
+
+    SPARK("spark", "org.iu.handelspartnern.spark.SparkWebApplication", "/health",
+            "/metrics?name=jvm.gc.memory.allocated") {
+        @Override
+        List<String> arguments(LoadTestOptions options, JdbcSettings jdbc, int port) {
+            List<String> arguments = new ArrayList<>();
+            arguments.add("-Dserver.port=" + port);
+            arguments.add("-Ddb.url=" + jdbc.url());
+            arguments.add("-Ddb.username=" + jdbc.username());
+            arguments.add("-Ddb.password=" + jdbc.password());
+            arguments.add("-Dhibernate.dialect=" + jdbc.hibernateDialect());
+            arguments.add("-Dhibernate.show-sql=false");
+            arguments.add("-Dpartner-events.enabled=false");
+            arguments.add(getMainClass());
+            return arguments;
+        }
+
+        @Override
+        double allocatedBytes(JsonNode metric) {
+            // {"jvm.gc.memory.allocated":[{"tags":{},"measurements":{"count":...}}]}
+            return metric.path("jvm.gc.memory.allocated").path(0).path("measurements").path("count").asDouble();
+        }
+    };
+
+    private final String id;
+    private final String mainClass;
+    private final String healthPath;
+    private final String allocationMetricPath;
+
+    TargetApp(String id, String mainClass, String healthPath, String allocationMetricPath) {
+        this.id = id;
+        this.mainClass = mainClass;
+        this.healthPath = healthPath;
+        this.allocationMetricPath = allocationMetricPath;
+    }
+
+    // JVM- und Programm-Argumente nach "java -cp <classpath>"
+    abstract List<String> arguments(LoadTestOptions options, JdbcSettings jdbc, int port);
+
+    // Summe der seit JVM-Start allokierten Bytes (Micrometer jvm.gc.memory.allocated, aktualisiert bei jeder GC)
+    abstract double allocatedBytes(JsonNode metric);
+
+    public String getId() {
+        return id;
+    }
+
+    public String getMainClass() {
+        return mainClass;
+    }
+
+    public String getHealthPath() {
+        return healthPath;
+    }
+
+    public String getAllocationMetricPath() {
+        return allocationMetricPath;
+    }
+}
@@ -0,0 +1,82 @@
+package org.iu.handelspartnern.spark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.iu.handelspartnern.common.dto.importer.ImportReport;
+import org.iu.handelspartnern.common.infra.PartnerChangeBus;
+import org.iu.handelspartnern.common.infra.importer.BulkImporter;
+import org.iu.handelspartnern.common.infra.importer.ImportFormat;
+import org.iu.handelspartnern.spark.config.AppConfig;
+import org.iu.handelspartnern.spark.config.DatabaseConfig;
+import org.iu.handelspartnern.spark.util.JsonUtils;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Bulk-Import von der Kommandozeile, ohne laufenden Server. Datenbank und Batch-Größe wie bei der Spark-App
+ * (application.properties, -Ddb.url=... bzw. DB_URL); das Schema ist in beiden Apps identisch.
+ *
+ * mvn -pl spark-web exec:java@bulk-import -Dexec.args="partners partner.csv"
+ * mvn -pl spark-web exec:java@bulk-import -Dexec.args="financial-entries buchungen.json"
+ *
+ * Format aus der Dateiendung (.csv/.json) oder per -Dimport.format=csv|json. Exit-Code 0 nur ohne Zeilenfehler.
+ * Am Ende geht eine einzige Meldung "alle Partner geändert" an laufende Instanzen (partner-events.*).
+ */
+public final class BulkImportCli {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private BulkImportCli() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 || !("partners".equals(args[0]) || "financial-entries".equals(args[0]))) {
+            System.err.println("Aufruf: BulkImportCli partners|financial-entries <datei.csv|datei.json>");
+            System.exit(2);
+        }
+        Path file = Path.of(args[1]);
+        AppConfig appConfig = new AppConfig();
+        ImportFormat format = ImportFormat.detect(appConfig.getString("import.format", null), null,
+                file.getFileName().toString());
+
+        // Legt das Schema wie beim App-Start an (hbm2ddl update)
+        DatabaseConfig databaseConfig = new DatabaseConfig(appConfig, new SimpleMeterRegistry());
+        databaseConfig.initialize();
+
+        ImportReport report;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), READ_BUFFER_SIZE)) {
+            BulkImporter importer = new BulkImporter(databaseConfig.getDataSource(), JsonUtils.mapper(),
+                    appConfig.getInt("import.batch-size", BulkImporter.DEFAULT_BATCH_SIZE));
+            report = "partners".equals(args[0])
+                    ? importer.importPartners(in, format)
+                    : importer.importFinancialEntries(in, format);
+            if (report.getImported() + report.getFinancialEntries() > 0) {
+                notifyRunningInstances(appConfig, databaseConfig);
+            }
+        } finally {
+            databaseConfig.shutdown();
+        }
+
+        System.out.println(JsonUtils.mapper().writerWithDefaultPrettyPrinter().writeValueAsString(report));
+        System.exit(report.isSuccess() ? 0 : 1);
+    }
+
+    // Die Caches der laufenden Instanzen kennen die importierten Zeilen nicht; eine Meldung je Lauf statt je Zeile
+    private static void notifyRunningInstances(AppConfig appConfig, DatabaseConfig databaseConfig) {
+        if (!appConfig.getBoolean("partner-events.enabled", true)) {
+            return;
+        }
+        try (Connection connection = databaseConfig.getDataSource().getConnection()) {
+            PartnerChangeBus.publishAll(connection,
+                    appConfig.getString("partner-events.channel", PartnerChangeBus.DEFAULT_CHANNEL));
+        } catch (SQLException e) {
+            // Der Import ist committet; ohne Meldung greift spätestens die TTL der Caches
+            System.err.println("Partner-Änderungen nicht gemeldet: " + e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,28 @@
 package org.iu.handelspartnern.spark;
 
+import org.iu.handelspartnern.common.infra.PartnerCache;
+import org.iu.handelspartnern.common.infra.PartnerCacheInvalidator;
+import org.iu.handelspartnern.common.infra.PartnerChangeBus;
+import org.iu.handelspartnern.common.infra.StatementArchive;
+import org.iu.handelspartnern.common.infra.importer.BulkImporter;
+import org.iu.handelspartnern.common.infra.metrics.PartnerCacheMetrics;
+import org.iu.handelspartnern.spark.config.AppConfig;
 import org.iu.handelspartnern.spark.config.DatabaseConfig;
+import org.iu.handelspartnern.spark.config.JettyConfig;
+import org.iu.handelspartnern.spark.config.MetricsConfig;
 import org.iu.handelspartnern.spark.config.ThymeleafConfig;
 import org.iu.handelspartnern.spark.controller.TradingPartnerController;
 import org.iu.handelspartnern.spark.service.TradingPartnerService;
+import org.iu.handelspartnern.spark.repository.FinancialEntryRepository;
 import org.iu.handelspartnern.spark.repository.TradingPartnerRepository;
+import org.iu.handelspartnern.spark.util.JsonUtils;
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
+
+import java.time.Duration;
 
 import static spark.Spark.*;
 
@@ -19,32 +35,65 @@ public class SparkWebApplication {
     private static final Logger logger = LoggerFactory.getLogger(SparkWebApplication.class);
 
     public static void main(String[] args) {
+        AppConfig appConfig = new AppConfig();
+        MetricsConfig metricsConfig = new MetricsConfig();
+
         // Spark Java Manual Configuration (kein Auto-Config wie Spring Boot)
-        configureServer();
+        JettyConfig jettyConfig = configureServer(appConfig, metricsConfig);
+        int serverPort = jettyConfig.getPort();
 
         // CORS Configuration
         configureCors();
 
         try {
             // Manual Dependency Setup (No DI Container wie Spring)
-            DatabaseConfig databaseConfig = new DatabaseConfig();
+            DatabaseConfig databaseConfig = new DatabaseConfig(appConfig, metricsConfig.getMeterRegistry());
             databaseConfig.initialize();
 
-            ThymeleafConfig thymeleafConfig = new ThymeleafConfig();
+            ThymeleafConfig thymeleafConfig = new ThymeleafConfig(appConfig);
+            thymeleafConfig.bindMetrics(metricsConfig.getMeterRegistry());
 
             TradingPartnerRepository repository = new TradingPartnerRepository(databaseConfig);
-            TradingPartnerService service = new TradingPartnerService(repository);
+            FinancialEntryRepository financialEntryRepository = new FinancialEntryRepository(databaseConfig);
+
+            // Read-through-Cache für einzelne Partner (Manual - kein @Bean wie Spring)
+            PartnerCache partnerCache = new PartnerCache(
+                    appConfig.getLong("partner-cache.max-size", PartnerCache.DEFAULT_MAX_SIZE),
+                    Duration.ofSeconds(appConfig.getLong("partner-cache.ttl-seconds",
+                            PartnerCache.DEFAULT_TTL_SECONDS)));
+            new PartnerCacheMetrics(partnerCache).bindTo(metricsConfig.getMeterRegistry());
+
+            // Cache-Invalidierung zwischen Instanzen per LISTEN/NOTIFY auf eigener Connection
+            HikariDataSource dataSource = databaseConfig.getDataSource();
+            PartnerChangeBus changeBus = appConfig.getBoolean("partner-events.enabled", true)
+                    ? new PartnerChangeBus(dataSource.getJdbcUrl(), dataSource.getUsername(), dataSource.getPassword(),
+                            appConfig.getString("partner-events.channel", PartnerChangeBus.DEFAULT_CHANNEL),
+                            new PartnerCacheInvalidator(partnerCache, databaseConfig.getSessionFactory()))
+                    : PartnerChangeBus.disabled();
+            changeBus.start();
+            TradingPartnerService service = new TradingPartnerService(repository, financialEntryRepository,
+                    partnerCache, changeBus);
+
+            // Gemeinsamer Worker-Pool für den Sammel-Export (Manual - kein @Bean wie Spring)
+            StatementArchive statementArchive = new StatementArchive(appConfig.getInt("export.threads", 0));
+
+            // Bulk-Import per JDBC-Batch auf dem Hikari-Pool (Manual - kein @Bean wie Spring)
+            BulkImporter bulkImporter = new BulkImporter(databaseConfig.getDataSource(), JsonUtils.mapper(),
+                    appConfig.getInt("import.batch-size", BulkImporter.DEFAULT_BATCH_SIZE));
 
             // Register Controller with Routes (Manual - kein Component Scan wie Spring)
             new TradingPartnerController(service,
-                    thymeleafConfig.getTemplateEngine());
+                    thymeleafConfig.getTemplateEngine(), statementArchive, bulkImporter);
 
             // Health Check Endpoint (Manual - kein Actuator wie Spring Boot)
-            setupHealthCheck();
+            setupHealthCheck(serverPort);
+            setupMetrics(metricsConfig);
 
             // Graceful Shutdown Hook
             Runtime.getRuntime().addShutdownHook(new Thread(() -> {
                 logger.info("🛑 Shutting down Spark Java Application...");
+                statementArchive.close();
+                changeBus.close();
                 databaseConfig.shutdown();
                 stop();
             }));
@@ -53,19 +102,15 @@ public class SparkWebApplication {
             try {
                 awaitInitialization();
                 logger.info("🔥 Spark Java Application started successfully!");
-                logger.info("📊 Health check: http://localhost:4568/health");
-                logger.info("🏠 Homepage: http://localhost:4568/");
-                logger.info("📱 Port: 4568 (vs Spring Boot: 8080)");
+                logger.info("📊 Health check: http://localhost:" + serverPort + "/health");
+                logger.info("📈 Metrics: http://localhost:" + serverPort + "/metrics?name=hikaricp");
+                logger.info("🏠 Homepage: http://localhost:" + serverPort + "/");
+                logger.info("📱 Port: " + serverPort + " (vs Spring Boot: 8080)");
             } catch (Exception initException) {
                 logger.error("❌ Failed to initialize Spark server: " + initException.getMessage());
-                logger.info("💡 Port 4568 might be in use. Trying alternative port 4569...");
-
-                // Try alternative port
-                stop();
-                port(4569);
-                awaitInitialization();
-                logger.info("🔥 Spark Java Application started on alternative port!");
-                logger.info("🏠 Homepage: http://localhost:4569/");
+                logger.info("💡 Port " + serverPort + " might be in use. Start with -Dserver.port=<port> "
+                        + "or SERVER_PORT=<port>");
+                throw initException;
             }
 
         } catch (Exception e) {
@@ -75,23 +120,20 @@ public class SparkWebApplication {
         }
     }
 
-    private static void configureServer() {
-        // Server Configuration (Manual - kein application.yml wie Spring Boot)
-        port(4568); // Different port from Spring Boot (8080) and avoiding 4567 conflicts
-
-        // Static files setup
-        staticFiles.location("/static");
-        staticFiles.expireTime(3600); // 1 hour cache
+    private static JettyConfig configureServer(AppConfig appConfig, MetricsConfig metricsConfig) {
+        // Server Configuration (Manual - kein application.yml wie Spring Boot, sondern application.properties)
+        JettyConfig jettyConfig = new JettyConfig(appConfig);
+        jettyConfig.bindMetrics(metricsConfig.getMeterRegistry());
 
-        // Embedded Jetty Configuration
-        int maxThreads = 8;
-        int minThreads = 2;
-        int timeOutMillis = 30000;
-        threadPool(maxThreads, minThreads, timeOutMillis);
+        // Embedded Jetty mit eigenem Thread Pool und Connector (muss vor der ersten Route registriert werden)
+        EmbeddedServers.add(EmbeddedServers.Identifiers.JETTY, new EmbeddedJettyFactory(jettyConfig));
+        port(jettyConfig.getPort()); // Different port from Spring Boot (8080) and avoiding 4567 conflicts
 
         // Static Files Configuration
         staticFiles.location("/static"); // Same as Spring Boot
-        staticFiles.expireTime(600); // 10 minutes cache
+        staticFiles.expireTime(appConfig.getLong("server.static.expire-seconds", 600));
+
+        return jettyConfig;
     }
 
     private static void configureCors() {
@@ -119,13 +161,13 @@ public class SparkWebApplication {
         });
     }
 
-    private static void setupHealthCheck() {
+    private static void setupHealthCheck(int serverPort) {
         // Health Check Endpoint (Manual - kein Spring Boot Actuator)
         get("/health", (req, res) -> {
             res.type("application/json");
-            return "{\n" + "  \"status\": \"UP\",\n" + "  \"framework\": \"Spark Java\",\n" + "  \"port\": 4568,\n"
-                    + "  \"version\": \"1.0-SNAPSHOT\",\n" + "  \"timestamp\": \"" + java.time.LocalDateTime.now()
-                    + "\",\n" + "  \"comparison\": \"vs Spring Boot on 8080\"\n" + "}";
+            return "{\n" + "  \"status\": \"UP\",\n" + "  \"framework\": \"Spark Java\",\n"
+                    + "  \"port\": " + serverPort + ",\n" + "  \"version\": \"1.0-SNAPSHOT\",\n" + "  \"timestamp\": \""
+                    + java.time.LocalDateTime.now() + "\",\n" + "  \"comparison\": \"vs Spring Boot on 8080\"\n" + "}";
         });
 
         // Info Endpoint
@@ -138,4 +180,12 @@ public class SparkWebApplication {
                     + System.getProperty("java.vendor") + "\"\n" + "  }\n" + "}";
         });
     }
+
+    private static void setupMetrics(MetricsConfig metricsConfig) {
+        // Metrics Endpoint (Manual - kein /actuator/metrics wie Spring Boot), optional gefiltert per ?name=prefix
+        get("/metrics", (req, res) -> {
+            res.type("application/json");
+            return JsonUtils.write(metricsConfig.snapshot(req.queryParams("name")));
+        });
+    }
 }
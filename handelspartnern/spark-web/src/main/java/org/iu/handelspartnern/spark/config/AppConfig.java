@@ -0,0 +1,70 @@
+package org.iu.handelspartnern.spark.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Manuelle Konfiguration für Spark Java (Im Gegensatz zu Spring Boot's
+ * application.yml mit Profilen und Relaxed Binding)
+ *
+ * Reihenfolge: Umgebungsvariable (db.pool.maximum-pool-size -> DB_POOL_MAXIMUM_POOL_SIZE)
+ * vor System-Property (-Ddb.pool.maximum-pool-size=20) vor application.properties im Classpath.
+ */
+public class AppConfig {
+
+    private static final String DEFAULT_RESOURCE = "application.properties";
+
+    private final Properties properties;
+
+    public AppConfig() {
+        this(DEFAULT_RESOURCE);
+    }
+
+    public AppConfig(String resource) {
+        this.properties = new Properties();
+        try (InputStream in = AppConfig.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Konfiguration " + resource + " konnte nicht gelesen werden", e);
+        }
+    }
+
+    // Feste Werte statt Classpath-Ressource, z. B. für Tests mit wechselndem Datenbank-Port
+    public AppConfig(Properties properties) {
+        this.properties = new Properties();
+        this.properties.putAll(properties);
+    }
+
+    public String getString(String key, String defaultValue) {
+        String env = System.getenv(toEnvName(key));
+        if (env != null && !env.isBlank()) {
+            return env.trim();
+        }
+        String value = System.getProperty(key, properties.getProperty(key));
+        return value != null && !value.isBlank() ? value.trim() : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+    }
+
+    private static String toEnvName(String key) {
+        return key.replace('.', '_').replace('-', '_').toUpperCase(Locale.ROOT);
+    }
+}
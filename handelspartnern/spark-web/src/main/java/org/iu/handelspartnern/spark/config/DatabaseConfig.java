@@ -1,54 +1,101 @@
 package org.iu.handelspartnern.spark.config;
 
+import org.iu.handelspartnern.common.entity.FinancialEntry;
 import org.iu.handelspartnern.common.entity.TradingPartner;
+import org.iu.handelspartnern.common.infra.SecondLevelCache;
 import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.HibernateMetrics;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
 
 public class DatabaseConfig {
 
+    private final AppConfig config;
+    private final MeterRegistry meterRegistry;
+
     private SessionFactory sessionFactory;
     private HikariDataSource dataSource;
 
+    public DatabaseConfig(AppConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+    }
+
     public void initialize() {
+        // Connection Pool with HikariCP
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName("spark-web");
+        hikariConfig.setJdbcUrl(config.getString("db.url",
+                "jdbc:postgresql://localhost:5432/trading_partners?reWriteBatchedInserts=true"));
+        hikariConfig.setUsername(config.getString("db.username", "postgres"));
+        hikariConfig.setPassword(config.getString("db.password", "password"));
+        hikariConfig.setMaximumPoolSize(config.getInt("db.pool.maximum-pool-size", 10));
+        hikariConfig.setMinimumIdle(config.getInt("db.pool.minimum-idle", 2));
+        hikariConfig.setConnectionTimeout(config.getLong("db.pool.connection-timeout-ms", 30000));
+        hikariConfig.setIdleTimeout(config.getLong("db.pool.idle-timeout-ms", 600000));
+        hikariConfig.setMaxLifetime(config.getLong("db.pool.max-lifetime-ms", 1800000));
+        hikariConfig.setLeakDetectionThreshold(config.getLong("db.pool.leak-detection-threshold-ms", 0));
+        // hikaricp.connections.acquire (Wartezeit), .pending, .active, .usage usw. unter /metrics
+        hikariConfig.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        dataSource = new HikariDataSource(hikariConfig);
+
         // Manual Hibernate Configuration
         Configuration configuration = new Configuration();
 
-        // Database Connection Properties
-        configuration.setProperty("hibernate.connection.driver_class", "org.postgresql.Driver");
-        configuration.setProperty("hibernate.connection.url", "jdbc:postgresql://localhost:5432/trading_partners");
-        configuration.setProperty("hibernate.connection.username", "postgres");
-        configuration.setProperty("hibernate.connection.password", "password");
+        // Hibernate holt alle Connections aus dem Hikari-Pool (DatasourceConnectionProviderImpl)
+        // statt aus dem eingebauten, nicht produktionstauglichen Pool
+        configuration.getProperties().put(AvailableSettings.DATASOURCE, dataSource);
 
         // Hibernate Properties
-        configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        configuration.setProperty("hibernate.dialect",
+                config.getString("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect"));
         configuration.setProperty("hibernate.hbm2ddl.auto", "update");
         configuration.setProperty("hibernate.physical_naming_strategy",
                 "org.hibernate.boot.model.naming.PhysicalNamingStrategyStandardImpl");
-        configuration.setProperty("hibernate.show_sql", "true");
-        configuration.setProperty("hibernate.format_sql", "true");
+        configuration.setProperty("hibernate.show_sql", String.valueOf(config.getBoolean("hibernate.show-sql", true)));
+        configuration.setProperty("hibernate.format_sql",
+                String.valueOf(config.getBoolean("hibernate.format-sql", true)));
 
-        // Connection Pool with HikariCP
-        HikariConfig hikariConfig = new HikariConfig();
-        hikariConfig.setJdbcUrl("jdbc:postgresql://localhost:5432/trading_partners");
-        hikariConfig.setUsername("postgres");
-        hikariConfig.setPassword("password");
-        hikariConfig.setMaximumPoolSize(10);
-        hikariConfig.setMinimumIdle(2);
-
-        dataSource = new HikariDataSource(hikariConfig);
+        // Second-Level-Cache für TradingPartner und Query-Cache (Manual - kein HibernatePropertiesCustomizer)
+        CacheManager cacheManager = SecondLevelCache.createCacheManager("spark-web",
+                config.getLong("hibernate.cache.partners.max-size", SecondLevelCache.DEFAULT_PARTNER_MAX_SIZE),
+                Duration.ofSeconds(config.getLong("hibernate.cache.partners.ttl-seconds",
+                        SecondLevelCache.DEFAULT_TTL_SECONDS)),
+                config.getLong("hibernate.cache.query-results.max-size", SecondLevelCache.DEFAULT_QUERY_MAX_SIZE),
+                Duration.ofSeconds(config.getLong("hibernate.cache.query-results.ttl-seconds",
+                        SecondLevelCache.DEFAULT_TTL_SECONDS)));
+        configuration.getProperties().putAll(SecondLevelCache.hibernateSettings(cacheManager,
+                config.getBoolean("hibernate.cache.second-level", true),
+                config.getBoolean("hibernate.cache.queries", true)));
+        // Treffer/Fehlschläge je Region unter /metrics?name=hibernate
+        configuration.setProperty("hibernate.generate_statistics",
+                String.valueOf(config.getBoolean("hibernate.statistics", true)));
 
         // Entity Registration
         configuration.addAnnotatedClass(TradingPartner.class);
+        configuration.addAnnotatedClass(FinancialEntry.class);
 
         sessionFactory = configuration.buildSessionFactory();
+        new HibernateMetrics(sessionFactory, "spark-web", Tags.empty()).bindTo(meterRegistry);
     }
 
     public SessionFactory getSessionFactory() {
         return sessionFactory;
     }
 
+    public HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
     public void shutdown() {
         if (sessionFactory != null) {
             sessionFactory.close();
@@ -57,4 +104,4 @@ public class DatabaseConfig {
             dataSource.close();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package org.iu.handelspartnern.spark.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jetty.JettyServerThreadPoolMetrics;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spark.embeddedserver.jetty.JettyServerFactory;
+
+/**
+ * Manuelle Jetty-Konfiguration für Spark Java (Im Gegensatz zu Spring Boot's
+ * server.tomcat.* / server.jetty.* Properties)
+ *
+ * Spark's threadPool(max, min, timeout) kennt weder Queue-Größe noch Acceptors/Selectors. Diese Factory
+ * baut Thread Pool und Connector selbst; Spark übernimmt bereits gesetzte Connectors unverändert.
+ */
+public class JettyConfig implements JettyServerFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(JettyConfig.class);
+
+    private static final String POOL_NAME = "spark-web";
+
+    private final int port;
+    private final int acceptors;
+    private final int selectors;
+    private final int acceptQueueSize;
+    private final long connectorIdleTimeoutMillis;
+    private final ThreadPool threadPool;
+
+    public JettyConfig(AppConfig config) {
+        this.port = config.getInt("server.port", 4568);
+        // -1 = Jetty-Default (abhängig von der Anzahl CPU-Kerne)
+        this.acceptors = config.getInt("server.jetty.acceptors", -1);
+        this.selectors = config.getInt("server.jetty.selectors", -1);
+        this.acceptQueueSize = config.getInt("server.jetty.accept-queue-size", 0);
+        this.connectorIdleTimeoutMillis = config.getLong("server.jetty.connection-idle-timeout-ms", 30000);
+
+        int maxThreads = config.getInt("server.jetty.threads.max", 32);
+        int minThreads = config.getInt("server.jetty.threads.min", 8);
+        int threadIdleTimeoutMillis = config.getInt("server.jetty.threads.idle-timeout-ms", 30000);
+        int queueCapacity = config.getInt("server.jetty.threads.queue-capacity", 1000);
+
+        boolean virtualThreads = config.getBoolean("server.jetty.virtual-threads", false);
+        if (virtualThreads && VirtualThreadPool.isSupported()) {
+            // Opt-in: jeder Request auf einem eigenen Virtual Thread (JDK 21+), threads.* und queue-capacity
+            // werden dann nicht verwendet
+            this.threadPool = new VirtualThreadPool(POOL_NAME);
+            logger.info("🧵 Jetty läuft auf Virtual Threads");
+        } else {
+            if (virtualThreads) {
+                logger.warn("⚠️ server.jetty.virtual-threads=true benötigt JDK 21+ (aktuell {}), "
+                        + "verwende Platform-Thread-Pool", System.getProperty("java.version"));
+            }
+            // Begrenzte Queue: bei Überlast werden Requests abgewiesen, statt unbegrenzt zu warten
+            QueuedThreadPool queuedThreadPool = new QueuedThreadPool(maxThreads, minThreads, threadIdleTimeoutMillis,
+                    new BlockingArrayQueue<>(Math.min(queueCapacity, 64), 64, queueCapacity));
+            queuedThreadPool.setName(POOL_NAME);
+            this.threadPool = queuedThreadPool;
+        }
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public ThreadPool getThreadPool() {
+        return threadPool;
+    }
+
+    public boolean isVirtualThreads() {
+        return threadPool instanceof VirtualThreadPool;
+    }
+
+    // jetty.threads.config.min/max, .current, .busy, .idle und .jobs (wartende Requests) unter /metrics;
+    // bei Virtual Threads zählt jetty.threads.current die laufenden Jobs
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        new JettyServerThreadPoolMetrics(threadPool, Tags.of("pool", POOL_NAME)).bindTo(meterRegistry);
+    }
+
+    @Override
+    public Server create(int maxThreads, int minThreads, int threadTimeoutMillis) {
+        // Werte aus Spark's threadPool(...) werden ignoriert, maßgeblich ist application.properties
+        return create(threadPool);
+    }
+
+    @Override
+    public Server create(ThreadPool pool) {
+        Server server = new Server(pool);
+
+        ServerConnector connector = new ServerConnector(server, acceptors, selectors);
+        connector.setPort(port);
+        connector.setIdleTimeout(connectorIdleTimeoutMillis);
+        connector.setAcceptQueueSize(acceptQueueSize);
+        server.setConnectors(new Connector[] { connector });
+
+        return server;
+    }
+}
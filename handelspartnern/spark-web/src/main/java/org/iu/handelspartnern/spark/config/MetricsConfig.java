@@ -0,0 +1,77 @@
+package org.iu.handelspartnern.spark.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Manuelle Metrics-Konfiguration für Spark Java (Im Gegensatz zu Spring Boot's
+ * Actuator mit automatisch registrierten Metern)
+ */
+public class MetricsConfig {
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricsConfig() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        // Wartezeiten (z. B. hikaricp.connections.acquire) mit Perzentilen, nicht nur Mittelwert und Maximum
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.95, 0.99)
+                        .build()
+                        .merge(config);
+            }
+        });
+
+        // JVM-Speicher und GC wie bei Spring Boot Actuator (u. a. jvm.gc.memory.allocated für die Allokationsrate)
+        new JvmMemoryMetrics().bindTo(meterRegistry);
+        new JvmGcMetrics().bindTo(meterRegistry);
+    }
+
+    public MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
+    // Aktueller Stand aller Meter, deren Name mit prefix beginnt (null = alle), nach Name sortiert
+    public Map<String, Object> snapshot(String prefix) {
+        Map<String, List<Map<String, Object>>> meters = new TreeMap<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            String name = meter.getId().getName();
+            if (prefix != null && !name.startsWith(prefix)) {
+                continue;
+            }
+
+            Map<String, String> tags = new LinkedHashMap<>();
+            for (Tag tag : meter.getId().getTags()) {
+                tags.put(tag.getKey(), tag.getValue());
+            }
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (Measurement measurement : meter.measure()) {
+                values.put(measurement.getStatistic().name().toLowerCase(), measurement.getValue());
+            }
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("tags", tags);
+            entry.put("measurements", values);
+            meters.computeIfAbsent(name, key -> new ArrayList<>()).add(entry);
+        }
+        return new LinkedHashMap<>(meters);
+    }
+}
@@ -1,33 +1,92 @@
 package org.iu.handelspartnern.spark.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.cache.StandardCache;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.context.Context;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 import org.thymeleaf.templateresolver.ITemplateResolver;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import org.thymeleaf.extras.java8time.dialect.Java8TimeDialect;
+import org.iu.handelspartnern.common.template.TemplateCacheMetrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Collections;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Manual Thymeleaf Configuration für Spark Java (Im Gegensatz zu Spring Boot's
  * Auto-Configuration)
+ *
+ * Produktionsmodus (Default): geparste Templates landen in einem auf thymeleaf.cache.max-size Einträge begrenzten
+ * Cache, der beim Start mit allen Templates und Fragmenten aus common-template gefüllt wird.
+ * Entwicklung: -Dthymeleaf.cache=false liest jedes Template bei jedem Request neu.
  */
 public class ThymeleafConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(ThymeleafConfig.class);
+
+    private static final String TEMPLATE_PREFIX = "templates/";
+    private static final String TEMPLATE_SUFFIX = ".html";
+    private static final Pattern FRAGMENT_PATTERN = Pattern.compile("th:fragment=\"\\s*([\\w-]+)");
+
+    private final boolean cacheable;
+    private final StandardCacheManager cacheManager;
     private final TemplateEngine templateEngine;
 
     public ThymeleafConfig() {
-        this.templateEngine = createTemplateEngine();
+        this(new AppConfig());
+    }
+
+    public ThymeleafConfig(AppConfig config) {
+        this.cacheable = config.getBoolean("thymeleaf.cache", true);
+        this.cacheManager = createCacheManager(config.getInt("thymeleaf.cache.max-size", 100));
+        this.templateEngine = createTemplateEngine(config.getLong("thymeleaf.cache.ttl-ms", 0));
+
+        if (cacheable && config.getBoolean("thymeleaf.warm-up", true)) {
+            int parsed = warmUp();
+            logger.info("🔥 {} Templates/Fragmente vorab geparst (Cache max. {})", parsed,
+                    cacheManager.getTemplateCacheMaxSize());
+        } else if (!cacheable) {
+            logger.info("♻️ Template-Cache aus (thymeleaf.cache=false), "
+                    + "Templates werden bei jedem Request neu gelesen");
+        }
     }
 
     public TemplateEngine getTemplateEngine() {
         return templateEngine;
     }
 
-    private TemplateEngine createTemplateEngine() {
+    // Cache-Meter (Treffer, Fehlschläge, Größe) im Spark-MeterRegistry, abrufbar unter /metrics?name=cache
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        new TemplateCacheMetrics((StandardCache<?, ?>) cacheManager.getTemplateCache()).bindTo(meterRegistry);
+    }
+
+    private StandardCacheManager createCacheManager(int maxSize) {
+        StandardCacheManager manager = new StandardCacheManager();
+        manager.setTemplateCacheMaxSize(maxSize);
+        manager.setTemplateCacheInitialSize(Math.min(maxSize, 20));
+        manager.setTemplateCacheEnableCounters(true);
+        return manager;
+    }
+
+    private TemplateEngine createTemplateEngine(long cacheTtlMs) {
         SpringTemplateEngine engine = new SpringTemplateEngine();
-        engine.setTemplateResolver(createTemplateResolver());
+        engine.setTemplateResolver(createTemplateResolver(cacheTtlMs));
+        engine.setCacheManager(cacheManager);
         engine.setEnableSpringELCompiler(true);
         engine.addDialect(new Java8TimeDialect());
 
@@ -37,16 +96,62 @@ public class ThymeleafConfig {
         return engine;
     }
 
-    private ITemplateResolver createTemplateResolver() {
+    private ITemplateResolver createTemplateResolver(long cacheTtlMs) {
         ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
-        resolver.setPrefix("templates/"); // lädt aus common-template JAR under /templates/
-        resolver.setSuffix(".html");
+        resolver.setPrefix(TEMPLATE_PREFIX); // lädt aus common-template JAR under /templates/
+        resolver.setSuffix(TEMPLATE_SUFFIX);
         resolver.setTemplateMode("HTML");
         resolver.setCharacterEncoding("UTF-8");
-        resolver.setCacheable(false);
+        resolver.setCacheable(cacheable);
+        if (cacheTtlMs > 0) {
+            resolver.setCacheTTLMs(cacheTtlMs);
+        }
         return resolver;
     }
 
+    // Parst jedes Template und jedes darin deklarierte th:fragment in den Cache, ohne es zu rendern
+    // (processThrottled parst sofort, verarbeitet aber erst beim Abruf). Eingebettete th:replace/th:insert
+    // werden pro einbettendem Template gecacht und landen beim ersten Rendern im Cache.
+    private int warmUp() {
+        Context context = new Context();
+        int parsed = 0;
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver(ThymeleafConfig.class.getClassLoader())
+                    .getResources("classpath*:" + TEMPLATE_PREFIX + "**/*" + TEMPLATE_SUFFIX);
+            for (Resource resource : resources) {
+                String url = resource.getURL().toString();
+                String template = url.substring(url.lastIndexOf(TEMPLATE_PREFIX) + TEMPLATE_PREFIX.length(),
+                        url.length() - TEMPLATE_SUFFIX.length());
+                try {
+                    templateEngine.processThrottled(template, null, context);
+                    parsed++;
+                    for (String fragment : declaredFragments(resource)) {
+                        templateEngine.processThrottled(template, Collections.singleton(fragment), context);
+                        parsed++;
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Template {} konnte nicht vorab geparst werden: {}", template, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Templates für den Warm-up nicht gefunden: {}", e.getMessage());
+        }
+        return parsed;
+    }
+
+    private static Set<String> declaredFragments(Resource resource) throws IOException {
+        String html;
+        try (InputStream in = resource.getInputStream()) {
+            html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Set<String> fragments = new LinkedHashSet<>();
+        Matcher matcher = FRAGMENT_PATTERN.matcher(html);
+        while (matcher.find()) {
+            fragments.add(matcher.group(1));
+        }
+        return fragments;
+    }
+
     public String render(String templateName, Map<String, Object> model) {
         try {
             // Create Thymeleaf Context
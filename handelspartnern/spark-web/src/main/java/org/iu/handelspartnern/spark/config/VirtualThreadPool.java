@@ -0,0 +1,125 @@
+package org.iu.handelspartnern.spark.config;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jetty ThreadPool, der jeden Job (Acceptor, Selector, Request) auf einem eigenen Virtual Thread ausführt.
+ *
+ * Das Projekt kompiliert mit release 17, Virtual Threads gibt es erst ab JDK 21 - daher wird der Executor per
+ * Reflection erzeugt. Auf älteren JDKs ist {@link #isSupported()} false und JettyConfig bleibt beim
+ * QueuedThreadPool. Die Parallelität begrenzt in diesem Modus der Hikari-Pool (db.pool.maximum-pool-size).
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final String name;
+    private final AtomicInteger activeJobs = new AtomicInteger();
+    private volatile ExecutorService executor;
+
+    public VirtualThreadPool(String name) {
+        this.name = name;
+    }
+
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        executor = newVirtualThreadExecutor(name + "-");
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        // Acceptors und Selectors sind zu diesem Zeitpunkt bereits vom Server gestoppt
+        executor.shutdown();
+        if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        super.doStop();
+    }
+
+    @Override
+    public void execute(Runnable job) {
+        ExecutorService current = executor;
+        if (current == null || current.isShutdown()) {
+            throw new RejectedExecutionException(name + " ist nicht gestartet");
+        }
+        activeJobs.incrementAndGet();
+        try {
+            current.execute(() -> {
+                try {
+                    job.run();
+                } finally {
+                    activeJobs.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            activeJobs.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        ExecutorService current = executor;
+        if (current != null) {
+            while (!current.awaitTermination(1, TimeUnit.DAYS)) {
+                // warten bis zum Stop des Servers
+            }
+        }
+    }
+
+    // Laufende Jobs; es gibt keine wartenden Threads, jeder Job bekommt einen neuen Virtual Thread
+    @Override
+    public int getThreads() {
+        return activeJobs.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s]@%x{%s,active=%d}", getClass().getSimpleName(), name, hashCode(), getState(),
+                activeJobs.get());
+    }
+
+    // Entspricht Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())
+    private static ExecutorService newVirtualThreadExecutor(String prefix) throws ReflectiveOperationException {
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+        builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+        ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+
+        Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        return (ExecutorService) newExecutor.invoke(null, factory);
+    }
+}
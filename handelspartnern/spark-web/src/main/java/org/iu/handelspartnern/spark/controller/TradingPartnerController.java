@@ -1,23 +1,42 @@
 package org.iu.handelspartnern.spark.controller;
 
 import org.iu.handelspartnern.common.dto.AddTradingPartnerDto;
-import org.iu.handelspartnern.common.dto.TradingPartnerListDto;
+import org.iu.handelspartnern.common.dto.FinancialEntryResult;
+import org.iu.handelspartnern.common.dto.PartnerListPage;
+import org.iu.handelspartnern.common.dto.PartnerVersion;
+import org.iu.handelspartnern.common.dto.PartnerVersionConflictException;
+import org.iu.handelspartnern.common.dto.PartnerRowStream;
+import org.iu.handelspartnern.common.dto.importer.ImportReport;
 import org.iu.handelspartnern.common.entity.*;
+import org.iu.handelspartnern.common.infra.StatementArchive;
+import org.iu.handelspartnern.common.infra.importer.BulkImporter;
+import org.iu.handelspartnern.common.infra.importer.ImportFormat;
 import org.iu.handelspartnern.spark.service.TradingPartnerService;
 import org.iu.handelspartnern.spark.util.ErrorUtils;
 import org.iu.handelspartnern.spark.util.JsonUtils;
 import org.iu.handelspartnern.spark.util.ThymeleafContextUtils;
 import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.LazyContextVariable;
 import org.thymeleaf.context.WebContext;
+import spark.Request;
+import spark.Response;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 
 import java.math.BigDecimal;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.Collections;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static spark.Spark.*;
 
@@ -27,13 +46,20 @@ import static spark.Spark.*;
 public class TradingPartnerController {
 
     private static final String JSON_TYPE = "application/json";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int STATEMENT_BUFFER_SIZE = 8192;
 
     private final TradingPartnerService service;
     private final TemplateEngine templateEngine;
+    private final StatementArchive statementArchive;
+    private final BulkImporter bulkImporter;
 
-    public TradingPartnerController(TradingPartnerService service, TemplateEngine templateEngine) {
+    public TradingPartnerController(TradingPartnerService service, TemplateEngine templateEngine,
+            StatementArchive statementArchive, BulkImporter bulkImporter) {
         this.service = service;
         this.templateEngine = templateEngine;
+        this.statementArchive = statementArchive;
+        this.bulkImporter = bulkImporter;
         setupRoutes();
     }
 
@@ -54,10 +80,10 @@ public class TradingPartnerController {
 
         get("/", (req, res) -> {
             try {
-                List<TradingPartnerListDto> partners = service.getAllPartners();
+                PartnerListPage page = service.getFirstPartnerPage();
 
                 WebContext context = ThymeleafContextUtils.createWebContext(req, res);
-                context.setVariable("partners", partners);
+                setPartnerPage(context, page);
                 context.setVariable("partnerTypes", PartnerType.values());
                 context.setVariable("partnerStatuses", PartnerStatus.values());
 
@@ -68,21 +94,13 @@ public class TradingPartnerController {
         }); // Partner List - GET /partners (to match Spring Boot URL structure)
         get("/partners", (req, res) -> {
             try {
-                String typeParam = req.queryParams("type");
-                String statusParam = req.queryParams("status");
-                String search = req.queryParams("search");
-
-                PartnerType type = parsePartnerType(typeParam);
-                PartnerStatus status = parsePartnerStatus(statusParam);
-
-                List<TradingPartnerListDto> partners = service.getAllPartners(type, status, search);
-
-                WebContext context = ThymeleafContextUtils.createWebContext(req, res);
-                context.setVariable("partners", partners);
-
-                return processFragment("fragments/partner-list :: partner-list", context);
-            } catch (Exception e) {
+                return renderPartnerListPage(req, res);
+            } catch (IllegalArgumentException e) {
+                // Ungültiger cursor oder limit, wird vor dem Streamen geprüft
+                res.status(400);
                 return ErrorUtils.handleException(e, templateEngine, req, res);
+            } catch (Exception e) {
+                return handleStreamingException(e, req, res);
             }
         });
 
@@ -109,12 +127,16 @@ public class TradingPartnerController {
         get("/partners/:id", (req, res) -> {
             try {
                 Long id = Long.parseLong(req.params(":id"));
+                if (notModified(req, res, id, "detail")) {
+                    return "";
+                }
                 Optional<TradingPartner> partnerOpt = service.getPartnerById(id);
 
                 if (partnerOpt.isEmpty()) {
                     halt(404, "Partner nicht gefunden");
                 }
 
+                setValidators(res, PartnerVersion.of(partnerOpt.get()), "detail");
                 WebContext context = ThymeleafContextUtils.createWebContext(req, res);
                 context.setVariable("partner", partnerOpt.get());
                 context.setVariable("types", PartnerType.values());
@@ -209,8 +231,7 @@ public class TradingPartnerController {
 
                 // Return updated partner list for HTMX requests
                 WebContext context = ThymeleafContextUtils.createWebContext(req, res);
-                List<TradingPartnerListDto> partners = service.getAllPartners();
-                context.setVariable("partners", partners);
+                setPartnerPage(context, service.getFirstPartnerPage());
                 return processFragment("fragments/partner-list :: partner-list", context);
 
             } catch (Exception e) {
@@ -254,10 +275,13 @@ public class TradingPartnerController {
                 if (statusStr != null)
                     existing.setStatus(PartnerStatus.valueOf(statusStr));
 
-                TradingPartner updated = service.updatePartner(id, existing);
+                TradingPartner updated = service.updatePartner(id, existing, parseVersion(req.queryParams("version")));
                 res.redirect("/partner/" + updated.getId());
                 return "";
 
+            } catch (PartnerVersionConflictException e) {
+                res.status(409);
+                return ErrorUtils.handleException(e, templateEngine, req, res);
             } catch (Exception e) {
                 return ErrorUtils.handleException(e, templateEngine, req, res);
             }
@@ -299,7 +323,8 @@ public class TradingPartnerController {
                 if (statusStr != null)
                     existing.setStatus(PartnerStatus.valueOf(statusStr));
 
-                TradingPartner updated = service.updatePartner(id, existing);
+                // version aus dem Formular: wer auf einem veralteten Stand gespeichert hat, bekommt 409
+                TradingPartner updated = service.updatePartner(id, existing, parseVersion(req.queryParams("version")));
 
                 // Return updated partner details for HTMX requests
                 WebContext context = ThymeleafContextUtils.createWebContext(req, res);
@@ -309,6 +334,9 @@ public class TradingPartnerController {
                 context.setVariable("financialStatuses", FinancialEntryStatus.values());
                 return processFragment("fragments/partner-detail :: partner-detail", context);
 
+            } catch (PartnerVersionConflictException e) {
+                res.status(409);
+                return ErrorUtils.handleException(e, templateEngine, req, res);
             } catch (Exception e) {
                 return ErrorUtils.handleException(e, templateEngine, req, res);
             }
@@ -334,8 +362,7 @@ public class TradingPartnerController {
 
                 // Return updated partner list for HTMX requests
                 WebContext context = ThymeleafContextUtils.createWebContext(req, res);
-                List<TradingPartnerListDto> partners = service.getAllPartners();
-                context.setVariable("partners", partners);
+                setPartnerPage(context, service.getFirstPartnerPage());
                 return processFragment("fragments/partner-list :: partner-list", context);
 
             } catch (Exception e) {
@@ -399,25 +426,58 @@ public class TradingPartnerController {
             try {
                 res.type(JSON_TYPE);
 
-                String typeParam = req.queryParams("type");
-                String statusParam = req.queryParams("status");
-                String search = req.queryParams("search");
-
-                PartnerType type = parsePartnerType(typeParam);
-                PartnerStatus status = parsePartnerStatus(statusParam);
-
-                List<TradingPartnerListDto> partners = service.getAllPartners(type, status, search);
-                return JsonUtils.write(partners);
+                PartnerListPage page = getRequestedPartnerPage(req);
+                if (page.hasMore()) {
+                    res.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                }
+                return JsonUtils.write(page.partners());
+            } catch (IllegalArgumentException e) {
+                res.status(400);
+                return errorJson(e.getMessage());
             } catch (Exception e) {
                 res.status(500);
                 return errorJson("Interner Fehler: " + e.getMessage());
             }
         });
 
+        // Sammel-Export: ein ZIP mit einem Kontoauszug je Partner, parallel gerendert und direkt gestreamt.
+        // Vor /api/partners/:id registriert, sonst fängt :id den Pfad ab.
+        get("/api/partners/export-statements", (req, res) -> {
+            try {
+                List<Long> partnerIds = service.getPartnerIds(parsePartnerType(req.queryParams("type")),
+                        parsePartnerStatus(req.queryParams("status")));
+                res.type("application/zip");
+                res.header("Content-Disposition", "attachment; filename=\"kontoauszuege-" + LocalDate.now() + ".zip\"");
+
+                OutputStream out = new BufferedOutputStream(res.raw().getOutputStream(), STATEMENT_BUFFER_SIZE);
+                int written = statementArchive.write(partnerIds, service::renderStatement, out);
+                // Erst nach vollständigem ZIP schließen, siehe export-statement
+                out.close();
+                System.out.println("Sammel-Export: " + written + " Kontoauszüge");
+                return "";
+            } catch (RuntimeException e) {
+                if (res.raw().isCommitted()) {
+                    throw e;
+                }
+                res.raw().reset();
+                res.status(500);
+                res.type("text/plain;charset=UTF-8");
+                return "Fehler beim Export: " + (e.getMessage() != null ? e.getMessage() : "Unbekannter Fehler");
+            }
+        });
+
+        // Bulk-Import: Datei als Request-Body (text/csv oder application/json), gestreamt gelesen und per JDBC-Batch
+        // geschrieben. Antwort ist der Report mit Zeilenfehlern; Status 400 nur, wenn die Datei nicht lesbar war.
+        post("/api/import/partners", (req, res) -> runImport(req, res, false));
+        post("/api/import/financial-entries", (req, res) -> runImport(req, res, true));
+
         get("/api/partners/:id", (req, res) -> {
             try {
                 res.type(JSON_TYPE);
                 Long id = Long.parseLong(req.params(":id"));
+                if (notModified(req, res, id, "json")) {
+                    return "";
+                }
 
                 Optional<TradingPartner> partner = service.getPartnerById(id);
                 if (partner.isEmpty()) {
@@ -425,6 +485,7 @@ public class TradingPartnerController {
                     return errorJson("Partner nicht gefunden");
                 }
 
+                setValidators(res, PartnerVersion.of(partner.get()), "json");
                 return JsonUtils.write(partner.get());
             } catch (Exception e) {
                 res.status(500);
@@ -498,8 +559,13 @@ public class TradingPartnerController {
 
                 applyPartnerExtensions(existing, payload);
 
-                TradingPartner updated = service.updatePartner(id, existing);
+                // Optional: ohne "version" gewinnt der letzte Schreiber, mit veralteter version gibt es 409
+                TradingPartner updated = service.updatePartner(id, existing,
+                        parseVersion(Objects.toString(payload.get("version"), null)));
                 return JsonUtils.write(updated);
+            } catch (PartnerVersionConflictException e) {
+                res.status(409);
+                return errorJson(e.getMessage());
             } catch (IllegalArgumentException e) {
                 res.status(400);
                 return errorJson(e.getMessage());
@@ -534,6 +600,11 @@ public class TradingPartnerController {
             }
         });
 
+        // Drift-Prüfung der laufenden Finanzsummen; recalculate setzt bei Drift die neu berechneten Summen
+        get("/api/partners/:id/financials/verify", (req, res) -> renderFinancialsReport(req, res, false));
+
+        post("/api/partners/:id/financials/recalculate", (req, res) -> renderFinancialsReport(req, res, true));
+
         post("/api/partners/:id/contacts", (req, res) -> {
             try {
                 res.type(JSON_TYPE);
@@ -682,6 +753,9 @@ public class TradingPartnerController {
             try {
                 res.type(JSON_TYPE);
                 Long partnerId = Long.parseLong(req.params(":id"));
+                if (notModified(req, res, partnerId, "transactions")) {
+                    return "";
+                }
 
                 Optional<TradingPartner> partnerOpt = service.getPartnerById(partnerId);
                 if (partnerOpt.isEmpty()) {
@@ -690,6 +764,7 @@ public class TradingPartnerController {
                 }
 
                 TradingPartner partner = partnerOpt.get();
+                setValidators(res, PartnerVersion.of(partner), "transactions");
                 TradingPartner.FinancialOverview overview = partner.getFinancialOverview();
 
                 Map<String, Object> overviewMap = new HashMap<>();
@@ -711,7 +786,7 @@ public class TradingPartnerController {
                 overviewMap.put("netBalance", netBalance);
                 overviewMap.put("transactionCount", overview.getTransactionCount());
 
-                List<Map<String, Object>> transactions = partner.getFinancialEntries().stream()
+                List<Map<String, Object>> transactions = service.getFinancialEntries(partnerId).stream()
                         .filter(Objects::nonNull)
                         .sorted(Comparator
                                 .comparing((FinancialEntry entry) -> entry.getDate(),
@@ -757,6 +832,39 @@ public class TradingPartnerController {
             }
         });
 
+        // Streamt den Kontoauszug direkt in den Response (chunked, auf Wunsch gzip); ohne Zwischenpuffer und
+        // Content-Length, der Heap-Bedarf hängt also nicht von der Zahl der Buchungen ab
+        get("/api/partners/:id/export-statement", (req, res) -> {
+            try {
+                Long id = Long.parseLong(req.params(":id"));
+                boolean found = service.streamStatement(id, statement -> {
+                    res.type("text/plain;charset=UTF-8");
+                    res.header("Content-Disposition", "attachment; filename=\"" + statement.getFilename() + "\"");
+                    try {
+                        Writer writer = openStatementWriter(req, res);
+                        statement.writeCsv(writer);
+                        // Erst nach vollständigem Auszug schließen: bricht der Export ab, fehlt das Chunk- bzw.
+                        // gzip-Ende und der Client erkennt die unvollständige Datei
+                        writer.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!found) {
+                    res.status(404);
+                }
+                return "";
+            } catch (RuntimeException e) {
+                if (res.raw().isCommitted()) {
+                    throw e;
+                }
+                res.raw().reset();
+                res.status(500);
+                res.type("text/plain;charset=UTF-8");
+                return "Fehler beim Export: " + (e.getMessage() != null ? e.getMessage() : "Unbekannter Fehler");
+            }
+        });
+
         post("/api/partners/financial-transaction", (req, res) -> {
             try {
                 res.type(JSON_TYPE);
@@ -782,8 +890,8 @@ public class TradingPartnerController {
                         Objects.toString(payload.get("reference"), ""),
                         parseDate(Objects.toString(payload.get("date"), null)));
 
-                TradingPartner updated = service.addFinancialEntry(partnerId, entry);
-                return okWithFinancials(updated, "Transaktion erfolgreich erfasst.");
+                FinancialEntryResult result = service.addFinancialEntry(partnerId, entry);
+                return okWithFinancials(result, "Transaktion erfolgreich erfasst.");
             } catch (IllegalArgumentException e) {
                 res.status(400);
                 return errorJson(e.getMessage());
@@ -807,8 +915,8 @@ public class TradingPartnerController {
                         "Status ist erforderlich.");
 
                 FinancialEntryStatus status = FinancialEntryStatus.valueOf(statusRaw.toUpperCase(Locale.ROOT));
-                TradingPartner updated = service.updateFinancialEntryStatus(partnerId, entryId, status);
-                return okWithFinancials(updated, "Transaktionsstatus aktualisiert");
+                FinancialEntryResult result = service.updateFinancialEntryStatus(partnerId, entryId, status);
+                return okWithFinancials(result, "Transaktionsstatus aktualisiert");
             } catch (IllegalArgumentException e) {
                 res.status(400);
                 return errorJson(e.getMessage());
@@ -826,21 +934,12 @@ public class TradingPartnerController {
         // Partner List Fragment - GET /fragments/partner-list
         get("/fragments/partner-list", (req, res) -> {
             try {
-                String typeParam = req.queryParams("type");
-                String statusParam = req.queryParams("status");
-                String search = req.queryParams("search");
-
-                PartnerType type = parsePartnerType(typeParam);
-                PartnerStatus status = parsePartnerStatus(statusParam);
-
-                List<TradingPartnerListDto> partners = service.getAllPartners(type, status, search);
-
-                WebContext context = ThymeleafContextUtils.createWebContext(req, res);
-                context.setVariable("partners", partners);
-
-                return processFragment("fragments/partner-list :: partner-list", context);
-            } catch (Exception e) {
+                return renderPartnerListPage(req, res);
+            } catch (IllegalArgumentException e) {
+                res.status(400);
                 return ErrorUtils.handleException(e, templateEngine, req, res);
+            } catch (Exception e) {
+                return handleStreamingException(e, req, res);
             }
         });
 
@@ -848,12 +947,16 @@ public class TradingPartnerController {
         get("/fragments/partner/:id", (req, res) -> {
             try {
                 Long id = Long.parseLong(req.params(":id"));
+                if (notModified(req, res, id, "fragment")) {
+                    return "";
+                }
                 Optional<TradingPartner> partnerOpt = service.getPartnerById(id);
 
                 if (partnerOpt.isEmpty()) {
                     halt(404, "Partner nicht gefunden");
                 }
 
+                setValidators(res, PartnerVersion.of(partnerOpt.get()), "fragment");
                 WebContext context = ThymeleafContextUtils.createWebContext(req, res);
                 context.setVariable("partner", partnerOpt.get());
                 context.setVariable("types", PartnerType.values());
@@ -868,6 +971,135 @@ public class TradingPartnerController {
 
     // ===== HELPER METHODS =====
 
+    // Bedingter GET: vergleicht If-None-Match/If-Modified-Since mit dem per Projektion gelesenen Stand, ohne den
+    // Partner samt Buchungen zu laden oder zu rendern. Unbekannte Partner laufen weiter in den normalen 404-Pfad.
+    private boolean notModified(Request req, Response res, Long id, String representation) {
+        Optional<PartnerVersion> version = service.getPartnerVersion(id);
+        if (version.isEmpty()
+                || !version.get().isNotModified(req.headers("If-None-Match"), req.headers("If-Modified-Since"),
+                        representation)) {
+            return false;
+        }
+        setValidators(res, version.get(), representation);
+        res.status(304);
+        return true;
+    }
+
+    // Validatoren aus dem tatsächlich ausgelieferten Stand, damit eine ältere Kopie aus dem Partner-Cache nie das
+    // ETag eines neueren Stands bekommt. no-cache: Browser fragen jedes Mal nach, geteilte Caches speichern nichts
+    private void setValidators(Response res, PartnerVersion version, String representation) {
+        res.header("ETag", version.etag(representation));
+        res.header("Last-Modified", version.lastModifiedHeader());
+        res.header("Cache-Control", "private, no-cache");
+    }
+
+    // Keyset-Pagination: cursor/limit wie im Spring Controller, Folgeseiten rendern nur die Zeilen.
+    // Die Zeilen kommen per Datenbank-Cursor und werden direkt in den Response geschrieben.
+    private String renderPartnerListPage(Request req, Response res) {
+        PartnerType type = parsePartnerType(req.queryParams("type"));
+        PartnerStatus status = parsePartnerStatus(req.queryParams("status"));
+        String cursor = req.queryParams("cursor");
+        String fragment = cursor != null && !cursor.isBlank() ? "partner-rows" : "partner-list";
+
+        service.streamPartnerPage(type, status, req.queryParams("search"), cursor,
+                parseLimit(req.queryParams("limit")), rows -> {
+                    WebContext context = ThymeleafContextUtils.createWebContext(req, res);
+                    context.setVariable("partners", rows);
+                    context.setVariable("nextCursor", lazyNextCursor(rows));
+                    streamFragment("fragments/partner-list", fragment, context, res);
+                });
+        return "";
+    }
+
+    // Wie Spring (response.isCommitted()): ist schon ein Teil der Liste mit 200 gesendet, kann keine Fehlerseite mehr
+    // folgen, sie würde nur an das halbe Fragment angehängt. Dann nur loggen und die Antwort beenden.
+    private String handleStreamingException(Exception e, Request req, Response res) {
+        if (res.raw().isCommitted()) {
+            System.err.println("Error while streaming partner list: " + e.getMessage());
+            e.printStackTrace();
+            return "";
+        }
+        return ErrorUtils.handleException(e, templateEngine, req, res);
+    }
+
+    // Schreibt das Fragment direkt in den Response-Stream, statt es erst als String aufzubauen; Jetty sendet
+    // chunked, sobald sein Puffer voll ist. Der Response ist danach committed, Spark schreibt nichts mehr dazu.
+    private void streamFragment(String template, String fragment, WebContext context, Response res) {
+        res.type("text/html;charset=utf-8");
+        try {
+            Writer writer = new OutputStreamWriter(res.raw().getOutputStream(), StandardCharsets.UTF_8);
+            templateEngine.process(template, Collections.singleton(fragment), context, writer);
+            writer.flush();
+            res.raw().flushBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            // Noch nichts gesendet: das halb gerenderte Fragment verwerfen, damit die Fehlerseite allein steht
+            if (!res.raw().isCommitted()) {
+                res.raw().resetBuffer();
+            }
+            throw e;
+        }
+    }
+
+    // gzip nur, wenn der Client es per Accept-Encoding anbietet
+    private Writer openStatementWriter(Request req, Response res) throws IOException {
+        OutputStream out = res.raw().getOutputStream();
+        res.raw().addHeader("Vary", "Accept-Encoding");
+        String acceptEncoding = req.headers("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip")) {
+            res.header("Content-Encoding", "gzip");
+            out = new GZIPOutputStream(out, STATEMENT_BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), STATEMENT_BUFFER_SIZE);
+    }
+
+    // nextCursor steht erst nach den Zeilen fest; das Template liest ihn erst dahinter
+    private static LazyContextVariable<String> lazyNextCursor(PartnerRowStream rows) {
+        return new LazyContextVariable<>() {
+            @Override
+            protected String loadValue() {
+                return rows.getNextCursor();
+            }
+        };
+    }
+
+    private PartnerListPage getRequestedPartnerPage(Request req) {
+        PartnerType type = parsePartnerType(req.queryParams("type"));
+        PartnerStatus status = parsePartnerStatus(req.queryParams("status"));
+        return service.getPartnerPage(type, status, req.queryParams("search"), req.queryParams("cursor"),
+                parseLimit(req.queryParams("limit")));
+    }
+
+    private void setPartnerPage(WebContext context, PartnerListPage page) {
+        context.setVariable("partners", page.partners());
+        context.setVariable("nextCursor", page.nextCursor());
+    }
+
+    // Wie Spring (Integer-Parameter): eine nicht numerische Angabe ist ein 400, kein stiller Rückfall auf den Default
+    private Integer parseLimit(String limitParam) {
+        if (limitParam == null || limitParam.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(limitParam.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ungültiges Limit: " + limitParam, e);
+        }
+    }
+
+    // version des bearbeiteten Stands aus Formular oder JSON; fehlt sie, wird nicht geprüft
+    private Long parseVersion(String versionParam) {
+        if (versionParam == null || versionParam.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(versionParam.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ungültige Version: " + versionParam, e);
+        }
+    }
+
     private PartnerType parsePartnerType(String typeParam) {
         if (typeParam == null || typeParam.trim().isEmpty()) {
             return null;
@@ -955,6 +1187,52 @@ public class TradingPartnerController {
         }
     }
 
+    private String renderFinancialsReport(Request req, Response res, boolean repair) {
+        res.type(JSON_TYPE);
+        try {
+            Long id = Long.parseLong(req.params(":id"));
+            if (service.getPartnerById(id).isEmpty()) {
+                res.status(404);
+                return errorJson("Partner nicht gefunden");
+            }
+            return JsonUtils.write(service.verifyFinancials(id, repair));
+        } catch (NumberFormatException e) {
+            res.status(400);
+            return errorJson("Ungültige Partner-ID");
+        } catch (Exception e) {
+            res.status(500);
+            return errorJson("Interner Fehler: " + e.getMessage());
+        }
+    }
+
+    private String runImport(Request req, Response res, boolean financialEntries) throws IOException {
+        res.type(JSON_TYPE);
+        // Ein Formular-Body würde beim Lesen der Parameter verbraucht, die Datei kommt deshalb als roher Body
+        String contentType = req.contentType();
+        if (contentType != null && (contentType.startsWith("application/x-www-form-urlencoded")
+                || contentType.startsWith("multipart/"))) {
+            res.status(415);
+            return errorJson("Datei als Request-Body mit Content-Type text/csv oder application/json senden.");
+        }
+        try {
+            ImportFormat format = ImportFormat.detect(req.queryParams("format"), contentType, null);
+            ImportReport report;
+            try {
+                report = financialEntries
+                        ? bulkImporter.importFinancialEntries(req.raw().getInputStream(), format)
+                        : bulkImporter.importPartners(req.raw().getInputStream(), format);
+            } finally {
+                // Neue Partner bzw. Summen bestehender Partner kommen per JDBC, an den Caches vorbei
+                service.invalidateCaches();
+            }
+            res.status(report.getAborted() == null ? 200 : 400);
+            return JsonUtils.write(report);
+        } catch (IllegalArgumentException e) {
+            res.status(400);
+            return errorJson(e.getMessage());
+        }
+    }
+
     private String errorJson(String message) {
         return JsonUtils.write(Map.of(
                 "success", false,
@@ -977,12 +1255,13 @@ public class TradingPartnerController {
         return JsonUtils.write(response);
     }
 
-    private String okWithFinancials(TradingPartner partner, String message) {
+    // Nur die geänderte Buchung und die neuen Summen; die Liste liefert GET /api/partners/:id/transactions
+    private String okWithFinancials(FinancialEntryResult result, String message) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", message);
-        response.put("financialOverview", partner.getFinancialOverview());
-        response.put("transactions", partner.getFinancialEntries());
+        response.put("transaction", result.entry());
+        response.put("financialTotals", result.totals());
         return JsonUtils.write(response);
     }
 
@@ -0,0 +1,194 @@
+package org.iu.handelspartnern.spark.repository;
+
+import org.iu.handelspartnern.common.dto.PartnerStatement;
+import org.iu.handelspartnern.common.dto.StatementLine;
+import org.iu.handelspartnern.common.entity.FinancialEntry;
+import org.iu.handelspartnern.common.entity.FinancialEntryStatus;
+import org.iu.handelspartnern.common.entity.FinancialEntryType;
+import org.iu.handelspartnern.common.entity.FinancialTotals;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+import org.iu.handelspartnern.common.infra.SecondLevelCache;
+import org.iu.handelspartnern.spark.config.DatabaseConfig;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.query.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Buchungen liegen in financial_entries und werden einzeln geschrieben: ein INSERT pro neuer Buchung, ein UPDATE
+ * pro Statuswechsel. Die Summen am Partner werden in derselben Transaktion per Delta fortgeschrieben.
+ */
+public class FinancialEntryRepository {
+
+    // Ein UPDATE auf die Partnerzeile, atomar in der Datenbank addiert. Nativ statt HQL: ein HQL-Bulk-Update
+    // leert die ganze Partner-Region und den Query-Cache (siehe SecondLevelCache)
+    private static final String APPLY_DELTA_SQL = "UPDATE trading_partners SET "
+            + "claims = claims + :openClaims, "
+            + "settledClaims = settledClaims + :settledClaims, "
+            + "payable = payable + :openPayables, "
+            + "settledPayables = settledPayables + :settledPayables, "
+            + "transactionCount = transactionCount + :transactionCount, "
+            + "dateModified = :now WHERE id = :id";
+
+    // Zeilen je Roundtrip beim Streamen des Kontoauszugs
+    private static final int STATEMENT_FETCH_SIZE = 500;
+
+    private final SessionFactory sessionFactory;
+
+    public FinancialEntryRepository(DatabaseConfig databaseConfig) {
+        this.sessionFactory = databaseConfig.getSessionFactory();
+    }
+
+    public List<FinancialEntry> findByPartnerId(Long partnerId) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("FROM FinancialEntry e WHERE e.partnerId = :partnerId "
+                    + "ORDER BY e.date DESC, e.createdAt DESC", FinancialEntry.class)
+                    .setParameter("partnerId", partnerId)
+                    .list();
+        }
+    }
+
+    // Die letzten Buchungen für die Finanzübersicht: ORDER BY ... LIMIT über den Index (partner_id, entry_date,
+    // created_at), unabhängig von der Länge der Historie
+    static List<FinancialEntry> findRecent(Session session, Long partnerId) {
+        return session.createQuery("FROM FinancialEntry e WHERE e.partnerId = :partnerId "
+                + "ORDER BY e.date DESC, e.createdAt DESC", FinancialEntry.class)
+                .setParameter("partnerId", partnerId)
+                .setMaxResults(TradingPartner.RECENT_ENTRIES)
+                .list();
+    }
+
+    // Kontoauszug: Summen per Aggregat-Query, Buchungen per Datenbank-Cursor (neueste zuerst).
+    // Session und Transaktion bleiben offen, bis der Aufrufer den Auszug schließt.
+    public Optional<PartnerStatement> streamStatement(Long partnerId) {
+        Session session = sessionFactory.openSession();
+        try {
+            // PostgreSQL liest nur mit autoCommit=false cursorweise, sonst holt der Treiber alle Zeilen auf einmal
+            Transaction tx = session.beginTransaction();
+            TradingPartner partner = session.get(TradingPartner.class, partnerId);
+            if (partner == null) {
+                tx.rollback();
+                session.close();
+                return Optional.empty();
+            }
+
+            FinancialTotals totals = sumTotals(session, partnerId);
+
+            Query<StatementLine> lines = session.createQuery(StatementLine.JPQL_SELECT
+                    + " WHERE e.partnerId = :partnerId ORDER BY e.date DESC, e.createdAt DESC", StatementLine.class)
+                    .setParameter("partnerId", partnerId);
+            lines.setFetchSize(STATEMENT_FETCH_SIZE);
+            lines.setReadOnly(true);
+            return Optional.of(new PartnerStatement(partner, totals, lines.stream().onClose(() -> {
+                try {
+                    tx.rollback();
+                } finally {
+                    session.close();
+                }
+            })));
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    // Summen aus allen Buchungen, per GROUP BY in der Datenbank statt über die geladenen Entitäten
+    public FinancialTotals calculateTotals(Long partnerId) {
+        try (Session session = sessionFactory.openSession()) {
+            return sumTotals(session, partnerId);
+        }
+    }
+
+    private static FinancialTotals sumTotals(Session session, Long partnerId) {
+        FinancialTotals totals = FinancialTotals.ZERO;
+        List<Object[]> groups = session.createQuery("SELECT e.type, e.status, SUM(e.amount), COUNT(e) "
+                + "FROM FinancialEntry e WHERE e.partnerId = :partnerId GROUP BY e.type, e.status", Object[].class)
+                .setParameter("partnerId", partnerId)
+                .list();
+        for (Object[] group : groups) {
+            totals = totals.plus(FinancialTotals.ofGroup((FinancialEntryType) group[0],
+                    (FinancialEntryStatus) group[1], (BigDecimal) group[2], (Long) group[3]));
+        }
+        return totals;
+    }
+
+    public FinancialEntry append(FinancialEntry entry) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.persist(entry);
+            session.flush();
+            SoftLock lock = null;
+            try {
+                applyDelta(session, entry.getPartnerId(), FinancialTotals.forNewEntry(entry));
+                lock = SecondLevelCache.lockPatchedPartner(session, entry.getPartnerId());
+                session.getTransaction().commit();
+            } finally {
+                SecondLevelCache.unlockPatchedPartner(session, entry.getPartnerId(), lock);
+            }
+            return entry;
+        }
+    }
+
+    // Leer, wenn die Buchung nicht zu diesem Partner gehört oder nicht existiert; sonst die Buchung mit ihrem
+    // Status nach dem Commit
+    public Optional<FinancialEntry> updateStatus(Long partnerId, UUID entryId, FinancialEntryStatus status) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            FinancialEntry entry = session.get(FinancialEntry.class, entryId);
+            if (entry == null || !partnerId.equals(entry.getPartnerId())) {
+                session.getTransaction().rollback();
+                return Optional.empty();
+            }
+
+            // Bedingtes UPDATE: hat ein paralleler Request den Status schon umgestellt, entfällt das Delta
+            SoftLock lock = null;
+            boolean applied = false;
+            try {
+                if (!status.equals(entry.getStatus())) {
+                    int updated = session.createQuery(
+                            "UPDATE FinancialEntry e SET e.status = :status WHERE e.id = :id AND e.status = :expected")
+                            .setParameter("status", status)
+                            .setParameter("id", entryId)
+                            .setParameter("expected", entry.getStatus())
+                            .executeUpdate();
+                    if (updated == 1) {
+                        applyDelta(session, partnerId, FinancialTotals.forStatusChange(entry, status));
+                        lock = SecondLevelCache.lockPatchedPartner(session, partnerId);
+                        applied = true;
+                        // Erst nach dem Delta (braucht den alten Status) und ohne Dirty Checking umstellen
+                        session.detach(entry);
+                        entry.setStatus(status);
+                    } else {
+                        session.refresh(entry);
+                    }
+                }
+                session.getTransaction().commit();
+            } finally {
+                if (applied) {
+                    SecondLevelCache.unlockPatchedPartner(session, partnerId, lock);
+                }
+            }
+            return Optional.of(entry);
+        }
+    }
+
+    private void applyDelta(Session session, Long partnerId, FinancialTotals delta) {
+        session.createNativeQuery(APPLY_DELTA_SQL)
+                .addSynchronizedQuerySpace(SecondLevelCache.PATCH_QUERY_SPACE)
+                .setParameter("openClaims", delta.openClaims())
+                .setParameter("settledClaims", delta.settledClaims())
+                .setParameter("openPayables", delta.openPayables())
+                .setParameter("settledPayables", delta.settledPayables())
+                .setParameter("transactionCount", delta.transactionCount())
+                .setParameter("now", LocalDateTime.now())
+                .setParameter("id", partnerId)
+                .executeUpdate();
+    }
+}
@@ -1,18 +1,56 @@
 package org.iu.handelspartnern.spark.repository;
 
+import org.iu.handelspartnern.common.dto.FinancialEntryResult;
+import org.iu.handelspartnern.common.dto.PartnerCursor;
+import org.iu.handelspartnern.common.dto.PartnerVersion;
+import org.iu.handelspartnern.common.dto.TradingPartnerListDto;
+import org.iu.handelspartnern.common.entity.FinancialTotals;
 import org.iu.handelspartnern.common.entity.TradingPartner;
 import org.iu.handelspartnern.common.entity.PartnerStatus;
 import org.iu.handelspartnern.common.entity.PartnerType;
+import org.iu.handelspartnern.common.infra.JsonbListColumns;
+import org.iu.handelspartnern.common.infra.SecondLevelCache;
 import org.iu.handelspartnern.spark.config.DatabaseConfig;
+import org.hibernate.LockMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class TradingPartnerRepository {
 
+    private static final String LIST_DTO_SELECT = "SELECT new org.iu.handelspartnern.common.dto.TradingPartnerListDto("
+            + "tp.id, tp.name, tp.corporateImageUrl, tp.type, tp.status, tp.claims, tp.payable, tp.dateModified) "
+            + "FROM TradingPartner tp";
+
+    // Zeilen je Roundtrip beim Streamen der Liste
+    private static final int STREAM_FETCH_SIZE = 50;
+
+    // Einzelne Listenelemente in einem UPDATE ändern (nur PostgreSQL/jsonb), siehe Spring-Repository
+    private static final String JSONB_PATCH_SUFFIX = ", version = version + 1, dateModified = :now WHERE id = :id";
+    private static final String APPEND_CONTACT = "UPDATE trading_partners SET contacts = contacts || "
+            + "CAST(:elements AS jsonb)" + JSONB_PATCH_SUFFIX;
+    private static final String REPLACE_CONTACT = "UPDATE trading_partners SET contacts = jsonb_set(contacts, "
+            + "ARRAY[CAST(:index AS text)], CAST(:elements AS jsonb) -> 0, false)" + JSONB_PATCH_SUFFIX
+            + " AND jsonb_array_length(contacts) > :index";
+    private static final String REMOVE_CONTACT = "UPDATE trading_partners SET contacts = contacts - "
+            + "CAST(:index AS integer)" + JSONB_PATCH_SUFFIX + " AND jsonb_array_length(contacts) > :index";
+    private static final String APPEND_ADDRESS = "UPDATE trading_partners SET addresses = "
+            + "COALESCE(addresses, '[]') || CAST(:elements AS jsonb)" + JSONB_PATCH_SUFFIX;
+    private static final String REPLACE_ADDRESS = "UPDATE trading_partners SET addresses = jsonb_set(addresses, "
+            + "ARRAY[CAST(:index AS text)], CAST(:elements AS jsonb) -> 0, false)" + JSONB_PATCH_SUFFIX
+            + " AND jsonb_array_length(addresses) > :index";
+    private static final String REMOVE_ADDRESS = "UPDATE trading_partners SET addresses = addresses - "
+            + "CAST(:index AS integer)" + JSONB_PATCH_SUFFIX + " AND jsonb_array_length(addresses) > :index";
+
     private final SessionFactory sessionFactory;
 
     public TradingPartnerRepository(DatabaseConfig databaseConfig) {
@@ -28,41 +66,134 @@ public class TradingPartnerRepository {
     public Optional<TradingPartner> findById(Long id) {
         try (Session session = sessionFactory.openSession()) {
             TradingPartner partner = session.get(TradingPartner.class, id);
+            if (partner != null) {
+                // Nur die letzten Buchungen für die Finanzübersicht; die Historie lädt FinancialEntryRepository
+                partner.setRecentFinancialEntries(FinancialEntryRepository.findRecent(session, id));
+            }
             return Optional.ofNullable(partner);
         }
     }
 
+    // Nur id, version und dateModified für bedingte GETs: ein Index-Lookup über den Primärschlüssel, ohne Caches
+    public Optional<PartnerVersion> findVersion(Long id) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("SELECT new org.iu.handelspartnern.common.dto.PartnerVersion("
+                    + "tp.id, tp.version, tp.dateModified) FROM TradingPartner tp WHERE tp.id = :id",
+                    PartnerVersion.class)
+                    .setParameter("id", id)
+                    .uniqueResultOptional();
+        }
+    }
+
+    // Nur die laufenden Summen, z. B. für die Antwort nach einer Buchung
+    public Optional<FinancialTotals> findFinancialTotals(Long id) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery(FinancialEntryResult.TOTALS_JPQL_SELECT + " WHERE tp.id = :id",
+                    FinancialTotals.class)
+                    .setParameter("id", id)
+                    .uniqueResultOptional();
+        }
+    }
+
+    // search ist ein bereits kleingeschriebenes LIKE-Pattern (siehe TradingPartnerService#toSearchPattern)
     public List<TradingPartner> findWithFilters(PartnerType type, PartnerStatus status, String search) {
         try (Session session = sessionFactory.openSession()) {
             StringBuilder hql = new StringBuilder("FROM TradingPartner tp WHERE 1=1");
-
-            if (type != null) {
-                hql.append(" AND tp.type = :type");
-            }
-            if (status != null) {
-                hql.append(" AND tp.status = :status");
-            }
-            if (search != null && !search.trim().isEmpty()) {
-                hql.append(" AND LOWER(tp.name) LIKE :search");
-            }
+            appendFilters(hql, type, status, search);
             hql.append(" ORDER BY tp.dateModified DESC");
 
             Query<TradingPartner> query = session.createQuery(hql.toString(), TradingPartner.class);
+            bindFilters(query, type, status, search);
+            // Query-Cache hält nur die ids, die Partner selbst kommen aus dem Second-Level-Cache
+            query.setCacheable(true).setCacheRegion(SecondLevelCache.PARTNER_LIST_REGION);
+            return query.list();
+        }
+    }
 
-            if (type != null) {
-                query.setParameter("type", type);
-            }
-            if (status != null) {
-                query.setParameter("status", status);
-            }
-            if (search != null && !search.trim().isEmpty()) {
-                query.setParameter("search", "%" + search.toLowerCase() + "%");
-            }
+    // Nur die ids, z. B. für den Sammel-Export der Kontoauszüge
+    public List<Long> findIds(PartnerType type, PartnerStatus status) {
+        try (Session session = sessionFactory.openSession()) {
+            StringBuilder hql = new StringBuilder("SELECT tp.id FROM TradingPartner tp WHERE 1=1");
+            appendFilters(hql, type, status, null);
+            hql.append(" ORDER BY tp.id");
 
+            Query<Long> query = session.createQuery(hql.toString(), Long.class);
+            bindFilters(query, type, status, null);
             return query.list();
         }
     }
 
+    // Projektion nur auf Skalar-Spalten: weder JSON-Spalten noch Buchungen werden geladen
+    public List<TradingPartnerListDto> findListWithFilters(PartnerType type, PartnerStatus status, String search) {
+        try (Session session = sessionFactory.openSession()) {
+            StringBuilder hql = new StringBuilder(LIST_DTO_SELECT).append(" WHERE 1=1");
+            appendFilters(hql, type, status, search);
+            hql.append(" ORDER BY tp.dateModified DESC");
+
+            Query<TradingPartnerListDto> query = session.createQuery(hql.toString(), TradingPartnerListDto.class);
+            bindFilters(query, type, status, search);
+            query.setCacheable(true).setCacheRegion(SecondLevelCache.PARTNER_LIST_REGION);
+            return query.list();
+        }
+    }
+
+    // Keyset-Pagination über (dateModified, id) ohne OFFSET; liefert bis zu limit + 1 Zeilen,
+    // damit der Service erkennen kann, ob eine weitere Seite existiert
+    public List<TradingPartnerListDto> findListPage(PartnerType type, PartnerStatus status, String search,
+            PartnerCursor cursor, int limit) {
+        try (Session session = sessionFactory.openSession()) {
+            // Cursor und Limit gehören zum Cache-Schlüssel; streamListPage läuft am Query-Cache vorbei
+            return createListPageQuery(session, type, status, search, cursor, limit)
+                    .setCacheable(true)
+                    .setCacheRegion(SecondLevelCache.PARTNER_LIST_REGION)
+                    .list();
+        }
+    }
+
+    // Wie findListPage, die Zeilen kommen aber per Datenbank-Cursor (Fetch-Size) erst beim Lesen des Streams.
+    // Session und Transaktion bleiben offen, bis der Aufrufer den Stream schließt.
+    public Stream<TradingPartnerListDto> streamListPage(PartnerType type, PartnerStatus status, String search,
+            PartnerCursor cursor, int limit) {
+        Session session = sessionFactory.openSession();
+        try {
+            // PostgreSQL liest nur mit autoCommit=false cursorweise, sonst holt der Treiber alle Zeilen auf einmal
+            Transaction tx = session.beginTransaction();
+            Query<TradingPartnerListDto> query = createListPageQuery(session, type, status, search, cursor, limit);
+            query.setFetchSize(STREAM_FETCH_SIZE);
+            query.setReadOnly(true);
+            return query.stream().onClose(() -> {
+                try {
+                    tx.rollback();
+                } finally {
+                    session.close();
+                }
+            });
+        } catch (RuntimeException e) {
+            session.close();
+            throw e;
+        }
+    }
+
+    private Query<TradingPartnerListDto> createListPageQuery(Session session, PartnerType type, PartnerStatus status,
+            String search, PartnerCursor cursor, int limit) {
+        StringBuilder hql = new StringBuilder(LIST_DTO_SELECT).append(" WHERE 1=1");
+        appendFilters(hql, type, status, search);
+        if (cursor != null) {
+            hql.append(" AND (tp.dateModified < :cursorDate")
+                    .append(" OR (tp.dateModified = :cursorDate AND tp.id < :cursorId))");
+        }
+        hql.append(" ORDER BY tp.dateModified DESC, tp.id DESC");
+
+        Query<TradingPartnerListDto> query = session.createQuery(hql.toString(), TradingPartnerListDto.class);
+        bindFilters(query, type, status, search);
+        if (cursor != null) {
+            query.setParameter("cursorDate", cursor.dateModified());
+            query.setParameter("cursorId", cursor.id());
+        }
+        query.setMaxResults(limit + 1);
+        return query;
+    }
+
     public TradingPartner save(TradingPartner partner) {
         try (Session session = sessionFactory.openSession()) {
             session.beginTransaction();
@@ -72,6 +203,132 @@ public class TradingPartnerRepository {
         }
     }
 
+    // Read-modify-write in einer Session, damit das Fenster zwischen Lesen und versioniertem UPDATE kurz bleibt.
+    // Bei veralteter version schlägt der Commit fehl (OptimisticLockException), der Service wiederholt dann.
+    public Optional<TradingPartner> update(Long id, Consumer<TradingPartner> mutation) {
+        return update(id, LockMode.NONE, mutation);
+    }
+
+    // Für Wiederholungen nach einem Versionskonflikt: SELECT ... FOR UPDATE am Second-Level-Cache vorbei, der
+    // Versuch kann danach nicht erneut verlieren
+    public Optional<TradingPartner> updateLocked(Long id, Consumer<TradingPartner> mutation) {
+        return update(id, LockMode.PESSIMISTIC_WRITE, mutation);
+    }
+
+    private Optional<TradingPartner> update(Long id, LockMode lockMode, Consumer<TradingPartner> mutation) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                TradingPartner partner = session.get(TradingPartner.class, id, lockMode);
+                if (partner == null) {
+                    tx.rollback();
+                    return Optional.empty();
+                }
+                mutation.accept(partner);
+                tx.commit();
+                partner.setRecentFinancialEntries(FinancialEntryRepository.findRecent(session, id));
+                return Optional.of(partner);
+            } catch (RuntimeException e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Summen hart setzen (Reparatur nach erkannter Drift); dateModified mit, damit ETags ungültig werden
+    public void storeFinancialTotals(Long id, FinancialTotals totals, LocalDateTime now) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            SoftLock lock = null;
+            try {
+                session.createNativeQuery("UPDATE trading_partners SET claims = :openClaims, "
+                        + "settledClaims = :settledClaims, payable = :openPayables, "
+                        + "settledPayables = :settledPayables, transactionCount = :transactionCount, "
+                        + "dateModified = :now WHERE id = :id")
+                        .addSynchronizedQuerySpace(SecondLevelCache.PATCH_QUERY_SPACE)
+                        .setParameter("openClaims", totals.openClaims())
+                        .setParameter("settledClaims", totals.settledClaims())
+                        .setParameter("openPayables", totals.openPayables())
+                        .setParameter("settledPayables", totals.settledPayables())
+                        .setParameter("transactionCount", totals.transactionCount())
+                        .setParameter("now", now)
+                        .setParameter("id", id)
+                        .executeUpdate();
+                lock = SecondLevelCache.lockPatchedPartner(session, id);
+                session.getTransaction().commit();
+            } finally {
+                SecondLevelCache.unlockPatchedPartner(session, id, lock);
+            }
+        }
+    }
+
+    // Leere Tabelle auf PostgreSQL auf jsonb umstellen, sonst Start-Abbruch ohne Migration (JsonbListColumns)
+    public boolean prepareJsonbListColumns() {
+        return JsonbListColumns.prepare(sessionFactory);
+    }
+
+    // elements ist ein JSON-Array mit dem neuen Element; version wird erhöht, damit ein parallel offenes Formular
+    // beim Speichern den Konflikt bemerkt. 0 Zeilen: Partner fehlt oder Index außerhalb der Liste.
+    public int appendContact(Long id, String elements, LocalDateTime now) {
+        return patchJsonList(APPEND_CONTACT, id, null, elements, now);
+    }
+
+    public int replaceContact(Long id, int index, String elements, LocalDateTime now) {
+        return patchJsonList(REPLACE_CONTACT, id, index, elements, now);
+    }
+
+    public int removeContact(Long id, int index, LocalDateTime now) {
+        return patchJsonList(REMOVE_CONTACT, id, index, null, now);
+    }
+
+    public int appendAddress(Long id, String elements, LocalDateTime now) {
+        return patchJsonList(APPEND_ADDRESS, id, null, elements, now);
+    }
+
+    public int replaceAddress(Long id, int index, String elements, LocalDateTime now) {
+        return patchJsonList(REPLACE_ADDRESS, id, index, elements, now);
+    }
+
+    public int removeAddress(Long id, int index, LocalDateTime now) {
+        return patchJsonList(REMOVE_ADDRESS, id, index, null, now);
+    }
+
+    private int patchJsonList(String sql, Long id, Integer index, String elements, LocalDateTime now) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            SoftLock lock = null;
+            try {
+                // Eigener Query-Space: sonst leert Hibernate alle Entity-Regionen und den Query-Cache
+                NativeQuery<?> query = session.createNativeQuery(sql)
+                        .addSynchronizedQuerySpace(SecondLevelCache.PATCH_QUERY_SPACE)
+                        .setParameter("id", id)
+                        .setParameter("now", now);
+                if (index != null) {
+                    query.setParameter("index", index);
+                }
+                if (elements != null) {
+                    query.setParameter("elements", elements);
+                }
+                int updated = query.executeUpdate();
+                // Erst nach dem UPDATE: bis zum Commit warten parallele Updates dieses Partners auf die Zeilensperre
+                if (updated > 0) {
+                    lock = SecondLevelCache.lockPatchedPartner(session, id);
+                }
+                tx.commit();
+                return updated;
+            } catch (RuntimeException e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            } finally {
+                SecondLevelCache.unlockPatchedPartner(session, id, lock);
+            }
+        }
+    }
+
     public void deleteById(Long id) {
         try (Session session = sessionFactory.openSession()) {
             session.beginTransaction();
@@ -88,14 +345,46 @@ public class TradingPartnerRepository {
             Query<Long> query = session.createQuery("SELECT COUNT(tp) FROM TradingPartner tp WHERE tp.status = :status",
                     Long.class);
             query.setParameter("status", status);
+            query.setCacheable(true);
             return query.uniqueResult();
         }
     }
 
+    // Nach Schreibzugriffen per JDBC an Hibernate vorbei (Bulk-Import)
+    public void evictSecondLevelCache() {
+        SecondLevelCache.evictAfterBulkWrite(sessionFactory);
+    }
+
     public boolean existsById(Long id) {
         try (Session session = sessionFactory.openSession()) {
             TradingPartner partner = session.get(TradingPartner.class, id);
             return partner != null;
         }
     }
+
+    private void appendFilters(StringBuilder hql, PartnerType type, PartnerStatus status, String search) {
+        if (type != null) {
+            hql.append(" AND tp.type = :type");
+        }
+        if (status != null) {
+            hql.append(" AND tp.status = :status");
+        }
+        if (search != null && !search.trim().isEmpty()) {
+            hql.append(" AND (LOWER(tp.name) LIKE :search ESCAPE '\\'")
+                    .append(" OR LOWER(tp.taxId) LIKE :search ESCAPE '\\'")
+                    .append(" OR LOWER(tp.about) LIKE :search ESCAPE '\\')");
+        }
+    }
+
+    private void bindFilters(Query<?> query, PartnerType type, PartnerStatus status, String search) {
+        if (type != null) {
+            query.setParameter("type", type);
+        }
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (search != null && !search.trim().isEmpty()) {
+            query.setParameter("search", search);
+        }
+    }
 }
\ No newline at end of file
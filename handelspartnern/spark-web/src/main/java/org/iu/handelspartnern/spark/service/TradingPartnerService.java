@@ -7,24 +7,59 @@ import org.iu.handelspartnern.common.entity.PartnerType;
 import org.iu.handelspartnern.common.entity.TradingPartner;
 import org.iu.handelspartnern.common.entity.FinancialEntry;
 import org.iu.handelspartnern.common.entity.FinancialEntryStatus;
+import org.iu.handelspartnern.common.entity.FinancialTotals;
+import org.iu.handelspartnern.common.entity.converter.AddressConverter;
+import org.iu.handelspartnern.common.entity.converter.ContactConverter;
 import org.iu.handelspartnern.common.dto.AddTradingPartnerDto;
+import org.iu.handelspartnern.common.dto.FinancialEntryResult;
+import org.iu.handelspartnern.common.dto.PartnerCursor;
+import org.iu.handelspartnern.common.dto.PartnerVersionConflictException;
+import org.iu.handelspartnern.common.dto.PartnerListPage;
+import org.iu.handelspartnern.common.dto.PartnerRowStream;
+import org.iu.handelspartnern.common.dto.PartnerStatement;
+import org.iu.handelspartnern.common.dto.PartnerVersion;
 import org.iu.handelspartnern.common.dto.TradingPartnerListDto;
+import org.iu.handelspartnern.common.infra.PartnerCache;
+import org.iu.handelspartnern.common.infra.PartnerChangeBus;
+import org.iu.handelspartnern.common.infra.StatementArchive;
+import org.iu.handelspartnern.spark.repository.FinancialEntryRepository;
 import org.iu.handelspartnern.spark.repository.TradingPartnerRepository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import javax.persistence.OptimisticLockException;
+import org.hibernate.StaleStateException;
 
 /**
  * Spark Java Service - Exakte Kopie des Spring Service
  */
 public class TradingPartnerService {
 
-    private final TradingPartnerRepository repository;
+    private static final int MAX_WRITE_ATTEMPTS = 10;
+    private static final ContactConverter CONTACT_CONVERTER = new ContactConverter();
+    private static final AddressConverter ADDRESS_CONVERTER = new AddressConverter();
 
-    public TradingPartnerService(TradingPartnerRepository repository) {
+    private final TradingPartnerRepository repository;
+    private final FinancialEntryRepository financialEntryRepository;
+    private final PartnerCache partnerCache;
+    // Meldet Änderungen an die Caches der anderen Instanzen
+    private final PartnerChangeBus changeBus;
+    // contacts/addresses als jsonb migriert: einzelne Elemente per jsonb_set statt Read-modify-write
+    private final boolean jsonbLists;
+
+    public TradingPartnerService(TradingPartnerRepository repository,
+            FinancialEntryRepository financialEntryRepository, PartnerCache partnerCache,
+            PartnerChangeBus changeBus) {
         this.repository = repository;
+        this.financialEntryRepository = financialEntryRepository;
+        this.partnerCache = partnerCache;
+        this.changeBus = changeBus;
+        this.jsonbLists = repository.prepareJsonbListColumns();
     }
 
     public List<TradingPartnerListDto> getAllPartners() {
@@ -32,27 +67,77 @@ public class TradingPartnerService {
     }
 
     public List<TradingPartnerListDto> getAllPartners(PartnerType type, PartnerStatus status, String search) {
-        String searchLower = (search != null && !search.trim().isEmpty()) ? search.trim().toLowerCase() : null;
-
-        return repository.findAll().stream()
-                .filter(partner -> type == null || type.equals(partner.getType()))
-                .filter(partner -> status == null || status.equals(partner.getStatus()))
-                .filter(partner -> {
-                    if (searchLower == null) {
-                        return true;
-                    }
-                    String nameMatch = partner.getName() != null ? partner.getName().toLowerCase() : "";
-                    String taxIdMatch = partner.getTaxId() != null ? partner.getTaxId().toLowerCase() : "";
-                    String aboutMatch = partner.getAbout() != null ? partner.getAbout().toLowerCase() : "";
-                    return nameMatch.contains(searchLower) || taxIdMatch.contains(searchLower)
-                            || aboutMatch.contains(searchLower);
-                })
-                .map(this::convertToListDto)
-                .collect(Collectors.toList());
+        // Filter und Suche laufen in der Datenbank, die DTOs werden direkt aus Skalar-Spalten projiziert
+        return repository.findListWithFilters(type, status, toSearchPattern(search));
+    }
+
+    public PartnerListPage getPartnerPage(PartnerType type, PartnerStatus status, String search, String cursor,
+            Integer limit) {
+        PartnerCursor after = PartnerCursor.decode(cursor);
+        int pageSize = PartnerListPage.normalizeLimit(limit);
+
+        List<TradingPartnerListDto> rows = repository.findListPage(type, status, toSearchPattern(search), after,
+                pageSize);
+        return PartnerListPage.of(rows, pageSize);
+    }
+
+    // Wie getPartnerPage, die Zeilen werden aber erst gelesen, während consumer sie rendert (Datenbank-Cursor).
+    // Cursor und Connection bleiben nur für die Dauer von consumer offen.
+    public void streamPartnerPage(PartnerType type, PartnerStatus status, String search, String cursor,
+            Integer limit, Consumer<PartnerRowStream> consumer) {
+        PartnerCursor after = PartnerCursor.decode(cursor);
+        int pageSize = PartnerListPage.normalizeLimit(limit);
+
+        try (PartnerRowStream rows = new PartnerRowStream(
+                repository.streamListPage(type, status, toSearchPattern(search), after, pageSize), pageSize)) {
+            consumer.accept(rows);
+        }
+    }
+
+    public PartnerListPage getFirstPartnerPage() {
+        return getPartnerPage(null, null, null, null, null);
     }
 
+    // Aus dem Partner-Cache; jeder Aufruf bekommt eine eigene Kopie
     public Optional<TradingPartner> getPartnerById(Long id) {
-        return repository.findById(id);
+        return partnerCache.get(id, repository::findById);
+    }
+
+    // Stand für bedingte GETs, immer aus der Datenbank (nicht aus dem Partner-Cache)
+    public Optional<PartnerVersion> getPartnerVersion(Long id) {
+        return repository.findVersion(id);
+    }
+
+    // Nach Schreibzugriffen per JDBC an Service und Hibernate vorbei (Bulk-Import): Partner-Cache,
+    // Second-Level-Cache und gecachte Abfragen verwerfen, auf dieser und allen anderen Instanzen
+    public void invalidateCaches() {
+        repository.evictSecondLevelCache();
+        partnerCache.invalidateAll();
+        changeBus.publishAll();
+    }
+
+    // Kontoauszug: Summen per Aggregat-Query, Buchungen per Datenbank-Cursor, beides in einer Lese-Transaktion.
+    // Liefert false, wenn der Partner nicht existiert; consumer wird dann nicht aufgerufen.
+    public boolean streamStatement(Long id, Consumer<PartnerStatement> consumer) {
+        Optional<PartnerStatement> statement = financialEntryRepository.streamStatement(id);
+        if (statement.isEmpty()) {
+            return false;
+        }
+        try (PartnerStatement opened = statement.get()) {
+            consumer.accept(opened);
+        }
+        return true;
+    }
+
+    public List<Long> getPartnerIds(PartnerType type, PartnerStatus status) {
+        return repository.findIds(type, status);
+    }
+
+    // Ein Auszug für den Sammel-Export, gepuffert und in eigener Lese-Transaktion (läuft auf einem Export-Worker)
+    public Optional<StatementArchive.Entry> renderStatement(Long id) {
+        List<StatementArchive.Entry> rendered = new ArrayList<>(1);
+        streamStatement(id, statement -> rendered.add(StatementArchive.Entry.of(statement)));
+        return rendered.stream().findFirst();
     }
 
     public TradingPartner createPartner(AddTradingPartnerDto dto) {
@@ -70,7 +155,10 @@ public class TradingPartnerService {
             partner.setClaims(BigDecimal.ZERO);
             partner.setPayable(BigDecimal.ZERO);
 
+            // Lokal kein Invalidieren nötig: nicht gefundene ids landen nicht im Cache, und das Speichern
+            // entwertet die gecachten Listen selbst. Die anderen Instanzen müssen ihre Listen verwerfen.
             TradingPartner saved = repository.save(partner);
+            changeBus.publish(saved.getId());
             System.out.println("Partner created with id: " + saved.getId());
             return saved;
 
@@ -82,42 +170,36 @@ public class TradingPartnerService {
     }
 
     public TradingPartner updatePartner(Long id, TradingPartner updatedPartner) {
+        return updatePartner(id, updatedPartner, null);
+    }
+
+    // expectedVersion ist die version, auf der der Client bearbeitet hat (Formular/API). Weicht der gespeicherte
+    // Stand ab, hat jemand anderes zwischenzeitlich gespeichert: PartnerVersionConflictException statt still zu
+    // überschreiben. null = ohne Prüfung (letzter Schreiber gewinnt), z. B. direkt nach dem Anlegen.
+    public TradingPartner updatePartner(Long id, TradingPartner updatedPartner, Long expectedVersion) {
         try {
             System.out.println("updatePartner called for id: " + id);
 
-            TradingPartner existingPartner = repository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Partner mit ID " + id + " nicht gefunden"));
-
-            existingPartner.setName(updatedPartner.getName());
-            existingPartner.setType(updatedPartner.getType());
-            existingPartner.setStatus(updatedPartner.getStatus());
-            existingPartner.setTaxId(updatedPartner.getTaxId());
-            existingPartner.setPaymentTerms(updatedPartner.getPaymentTerms());
-            existingPartner.setAbout(updatedPartner.getAbout());
-            existingPartner.setCorporateImageUrl(updatedPartner.getCorporateImageUrl());
-
-            existingPartner.setContacts(new ArrayList<>(updatedPartner.getContacts()));
-            existingPartner.setAddresses(new ArrayList<>(updatedPartner.getAddresses()));
-
-            if (updatedPartner.getFinancialEntries() != null) {
-                existingPartner.setFinancialEntries(new ArrayList<>(updatedPartner.getFinancialEntries()));
-            } else {
-                existingPartner.recalculateFinancials();
-            }
-
-            if (updatedPartner.getClaims() != null) {
-                existingPartner.setClaims(updatedPartner.getClaims());
-            }
-            if (updatedPartner.getPayable() != null) {
-                existingPartner.setPayable(updatedPartner.getPayable());
-            }
-
-            existingPartner.setUpdated(LocalDateTime.now());
-
-            TradingPartner saved = repository.save(existingPartner);
+            TradingPartner saved = updateWithRetry(id, existingPartner -> {
+                if (expectedVersion != null && !expectedVersion.equals(existingPartner.getVersion())) {
+                    throw new PartnerVersionConflictException(id, expectedVersion, existingPartner.getVersion());
+                }
+                existingPartner.setName(updatedPartner.getName());
+                existingPartner.setType(updatedPartner.getType());
+                existingPartner.setStatus(updatedPartner.getStatus());
+                existingPartner.setTaxId(updatedPartner.getTaxId());
+                existingPartner.setPaymentTerms(updatedPartner.getPaymentTerms());
+                existingPartner.setAbout(updatedPartner.getAbout());
+                existingPartner.setCorporateImageUrl(updatedPartner.getCorporateImageUrl());
+
+                existingPartner.setContacts(new ArrayList<>(updatedPartner.getContacts()));
+                existingPartner.setAddresses(new ArrayList<>(updatedPartner.getAddresses()));
+            });
             System.out.println("Partner updated: " + saved.getName());
             return saved;
 
+        } catch (PartnerVersionConflictException e) {
+            throw e;
         } catch (Exception e) {
             System.err.println("Error updating partner: " + e.getMessage());
             e.printStackTrace();
@@ -133,7 +215,7 @@ public class TradingPartnerService {
                 throw new RuntimeException("Partner mit ID " + id + " nicht gefunden");
             }
 
-            repository.deleteById(id);
+            evicting(id, () -> repository.deleteById(id));
             System.out.println("Partner deleted: " + id);
 
         } catch (Exception e) {
@@ -145,38 +227,107 @@ public class TradingPartnerService {
 
     // ===== HELPER METHODS =====
 
-    private TradingPartnerListDto convertToListDto(TradingPartner partner) {
+    // Read-modify-write mit Optimistic Locking: bei einem Versionskonflikt wird die Änderung auf den frisch
+    // geladenen Stand erneut angewendet, parallel angehängte Kontakte/Adressen bleiben erhalten. Wiederholungen
+    // sperren die Zeile beim Lesen, sonst kann ein Writer unter Last jeden Versuch verlieren. Cache und Bus
+    // einmal nach dem letzten Versuch, nicht je Versuch (ein zurückgerollter Versuch hat nichts geändert).
+    private TradingPartner updateWithRetry(Long partnerId, Consumer<TradingPartner> mutation) {
+        return evicting(partnerId, () -> {
+            for (int attempt = 1;; attempt++) {
+                Consumer<TradingPartner> change = partner -> {
+                    mutation.accept(partner);
+                    partner.setUpdated(LocalDateTime.now());
+                };
+                try {
+                    return (attempt == 1 ? repository.update(partnerId, change)
+                            : repository.updateLocked(partnerId, change))
+                            .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
+                } catch (RuntimeException e) {
+                    if (!isVersionConflict(e) || attempt >= MAX_WRITE_ATTEMPTS) {
+                        throw e;
+                    }
+                    backoff(attempt);
+                }
+            }
+        });
+    }
+
+    private TradingPartner patchJsonList(Long partnerId, IntSupplier update) {
+        return patchJsonList(partnerId, null, null, update);
+    }
+
+    // Ein UPDATE direkt auf der jsonb-Spalte, ohne Laden und ohne Retry-Schleife; danach den neuen Stand für die
+    // Antwort lesen. index null = Anhängen, dort bedeutet 0 Zeilen nur "Partner fehlt".
+    private TradingPartner patchJsonList(Long partnerId, Integer index, String indexError, IntSupplier update) {
+        if (index != null && index < 0) {
+            throw new IllegalArgumentException(indexError);
+        }
+        if (evicting(partnerId, update::getAsInt) == 0) {
+            if (index == null || !repository.existsById(partnerId)) {
+                throw new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden");
+            }
+            throw new IllegalArgumentException(indexError);
+        }
+        return repository.findById(partnerId).orElseThrow(
+                () -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
+    }
+
+    // Jede Repository-Methode committet selbst; danach den Partner aus dem Cache nehmen und die anderen Instanzen
+    // benachrichtigen, auch wenn sie wirft
+    private <T> T evicting(Long partnerId, Supplier<T> write) {
+        try {
+            return write.get();
+        } finally {
+            partnerCache.invalidate(partnerId);
+            changeBus.publish(partnerId);
+        }
+    }
+
+    private void evicting(Long partnerId, Runnable write) {
+        evicting(partnerId, () -> {
+            write.run();
+            return null;
+        });
+    }
+
+    private static boolean isVersionConflict(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockException || t instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Exponentielles Backoff mit Jitter, damit konkurrierende Writer nicht im Gleichtakt erneut kollidieren
+    private void backoff(int attempt) {
         try {
-            return new TradingPartnerListDto(
-                    partner.getId(),
-                    partner.getName(),
-                    partner.getCorporateImageUrl(),
-                    partner.getType(),
-                    partner.getStatus(),
-                    partner.getClaims(),
-                    partner.getPayable(),
-                    partner.getUpdated());
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L << Math.min(attempt, 6)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Unterbrochen beim Wiederholen der Änderung", e);
+        }
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error converting to DTO: " + e.getMessage());
-            // Return basic DTO with minimal info
-            return new TradingPartnerListDto(
-                    partner.getId(),
-                    partner.getName() != null ? partner.getName() : "Unknown",
-                    null,
-                    partner.getType(),
-                    partner.getStatus(),
-                    BigDecimal.ZERO,
-                    BigDecimal.ZERO,
-                    LocalDateTime.now());
+    private String toSearchPattern(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return null;
         }
+        String escaped = search.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
     // ===== FINANZ-METHODEN =====
 
-    public TradingPartner addFinancialEntry(Long partnerId, FinancialEntry entry) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
+    // Liefert nur die neue Buchung und die fortgeschriebenen Summen; der Partner und seine übrigen Buchungen werden
+    // nicht geladen, eine Buchung kostet also unabhängig von der Historie gleich viel
+    public FinancialEntryResult addFinancialEntry(Long partnerId, FinancialEntry entry) {
+        if (!repository.existsById(partnerId)) {
+            throw new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden");
+        }
 
         if (entry.getDate() == null) {
             entry.setDate(LocalDate.now());
@@ -187,65 +338,73 @@ public class TradingPartnerService {
         if (entry.getStatus() == null) {
             entry.setStatus(FinancialEntryStatus.OPEN);
         }
-        partner.addFinancialEntry(entry);
-        partner.setUpdated(LocalDateTime.now());
+        entry.setPartnerId(partnerId);
 
-        return repository.save(partner);
+        // Append-only: ein INSERT für die Buchung, die Summen am Partner werden per Delta fortgeschrieben
+        FinancialEntry saved = evicting(partnerId, () -> financialEntryRepository.append(entry));
+        return new FinancialEntryResult(saved, getFinancialTotals(partnerId));
     }
 
-    public TradingPartner updateFinancialEntryStatus(Long partnerId, UUID entryId, FinancialEntryStatus status) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
-
-        boolean updated = false;
-        for (FinancialEntry entry : partner.getFinancialEntries()) {
-            if (entry != null && entryId.equals(entry.getId())) {
-                entry.setStatus(status);
-                updated = true;
-                break;
-            }
-        }
-
-        if (!updated) {
-            throw new RuntimeException("Finanztransaktion mit ID " + entryId + " nicht gefunden");
+    public FinancialEntryResult updateFinancialEntryStatus(Long partnerId, UUID entryId, FinancialEntryStatus status) {
+        if (!repository.existsById(partnerId)) {
+            throw new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden");
         }
 
-        partner.recalculateFinancials();
-        partner.setUpdated(LocalDateTime.now());
-        return repository.save(partner);
+        FinancialEntry updated = evicting(partnerId,
+                () -> financialEntryRepository.updateStatus(partnerId, entryId, status))
+                .orElseThrow(() -> new RuntimeException("Finanztransaktion mit ID " + entryId + " nicht gefunden"));
+        return new FinancialEntryResult(updated, getFinancialTotals(partnerId));
     }
 
-    public void addClaim(Long partnerId, BigDecimal amount) {
-        TradingPartner partner = repository.findById(partnerId)
+    // Summen-Projektion, am Partner-Cache vorbei
+    private FinancialTotals getFinancialTotals(Long partnerId) {
+        return repository.findFinancialTotals(partnerId)
                 .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
-
-        BigDecimal currentClaims = partner.getClaims() != null ? partner.getClaims() : BigDecimal.ZERO;
-        partner.setClaims(currentClaims.add(amount));
-        partner.setUpdated(LocalDateTime.now());
-        repository.save(partner);
     }
 
-    public void addPayable(Long partnerId, BigDecimal amount) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
+    // Drift-Prüfung: Summen aus allen Buchungen neu berechnen und mit den gespeicherten Werten vergleichen.
+    // Liest am Cache vorbei, die Prüfung soll den Stand der Datenbank sehen.
+    public Map<String, Object> verifyFinancials(Long partnerId, boolean repair) {
+        FinancialTotals stored = getFinancialTotals(partnerId);
+        FinancialTotals recalculated = financialEntryRepository.calculateTotals(partnerId);
+        FinancialTotals drift = recalculated.minus(stored);
+
+        boolean repaired = false;
+        if (!drift.isZero()) {
+            System.err.println("Finanzsummen-Drift bei Partner " + partnerId + ": " + drift);
+            if (repair) {
+                evicting(partnerId, () -> repository.storeFinancialTotals(partnerId, recalculated,
+                        LocalDateTime.now()));
+                repaired = true;
+            }
+        }
 
-        BigDecimal currentPayables = partner.getPayable() != null ? partner.getPayable() : BigDecimal.ZERO;
-        partner.setPayable(currentPayables.add(amount));
-        partner.setUpdated(LocalDateTime.now());
-        repository.save(partner);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("partnerId", partnerId);
+        report.put("consistent", drift.isZero());
+        report.put("stored", stored);
+        report.put("recalculated", recalculated);
+        report.put("drift", drift);
+        report.put("repaired", repaired);
+        return report;
+    }
+
+    // Vollständige Buchungs-Historie, neueste zuerst; nicht im Partner-Cache
+    public List<FinancialEntry> getFinancialEntries(Long partnerId) {
+        return financialEntryRepository.findByPartnerId(partnerId);
     }
 
     public Map<String, BigDecimal> getPartnerBalance(Long partnerId) {
-        TradingPartner partner = repository.findById(partnerId)
+        TradingPartner partner = getPartnerById(partnerId)
                 .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
 
-        TradingPartner.FinancialOverview overview = partner.getFinancialOverview();
+        FinancialTotals totals = partner.getFinancialTotals();
 
         Map<String, BigDecimal> balances = new HashMap<>();
-        balances.put("openClaims", overview.getOpenClaims());
-        balances.put("settledClaims", overview.getSettledClaims());
-        balances.put("openPayables", overview.getOpenPayables());
-        balances.put("settledPayables", overview.getSettledPayables());
+        balances.put("openClaims", totals.openClaims());
+        balances.put("settledClaims", totals.settledClaims());
+        balances.put("openPayables", totals.openPayables());
+        balances.put("settledPayables", totals.settledPayables());
         balances.put("claims", partner.getClaims());
         balances.put("payable", partner.getPayable());
         return balances;
@@ -254,86 +413,92 @@ public class TradingPartnerService {
     // ===== CONTACT MANAGEMENT =====
 
     public TradingPartner addContact(Long partnerId, Contact contact) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
-
-        List<Contact> contacts = new ArrayList<>(partner.getContacts());
-        contacts.add(contact);
-        partner.setContacts(contacts);
-        partner.setUpdated(LocalDateTime.now());
-        return repository.save(partner);
+        if (jsonbLists) {
+            String elements = CONTACT_CONVERTER.convertToDatabaseColumn(List.of(contact));
+            return patchJsonList(partnerId,
+                    () -> repository.appendContact(partnerId, elements, LocalDateTime.now()));
+        }
+        return updateWithRetry(partnerId, partner -> {
+            List<Contact> contacts = new ArrayList<>(partner.getContacts());
+            contacts.add(contact);
+            partner.setContacts(contacts);
+        });
     }
 
     public TradingPartner updateContact(Long partnerId, int contactIndex, Contact contact) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
-
-        List<Contact> contacts = new ArrayList<>(partner.getContacts());
-        if (contactIndex < 0 || contactIndex >= contacts.size()) {
-            throw new IllegalArgumentException("Ungültiger Kontakt-Index");
+        if (jsonbLists) {
+            String elements = CONTACT_CONVERTER.convertToDatabaseColumn(List.of(contact));
+            return patchJsonList(partnerId, contactIndex, "Ungültiger Kontakt-Index",
+                    () -> repository.replaceContact(partnerId, contactIndex, elements, LocalDateTime.now()));
         }
-
-        contacts.set(contactIndex, contact);
-        partner.setContacts(contacts);
-        partner.setUpdated(LocalDateTime.now());
-        return repository.save(partner);
+        return updateWithRetry(partnerId, partner -> {
+            List<Contact> contacts = new ArrayList<>(partner.getContacts());
+            if (contactIndex < 0 || contactIndex >= contacts.size()) {
+                throw new IllegalArgumentException("Ungültiger Kontakt-Index");
+            }
+            contacts.set(contactIndex, contact);
+            partner.setContacts(contacts);
+        });
     }
 
     public TradingPartner deleteContact(Long partnerId, int contactIndex) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
-
-        List<Contact> contacts = new ArrayList<>(partner.getContacts());
-        if (contactIndex < 0 || contactIndex >= contacts.size()) {
-            throw new IllegalArgumentException("Ungültiger Kontakt-Index");
+        if (jsonbLists) {
+            return patchJsonList(partnerId, contactIndex, "Ungültiger Kontakt-Index",
+                    () -> repository.removeContact(partnerId, contactIndex, LocalDateTime.now()));
         }
-
-        contacts.remove(contactIndex);
-        partner.setContacts(contacts);
-        partner.setUpdated(LocalDateTime.now());
-        return repository.save(partner);
+        return updateWithRetry(partnerId, partner -> {
+            List<Contact> contacts = new ArrayList<>(partner.getContacts());
+            if (contactIndex < 0 || contactIndex >= contacts.size()) {
+                throw new IllegalArgumentException("Ungültiger Kontakt-Index");
+            }
+            contacts.remove(contactIndex);
+            partner.setContacts(contacts);
+        });
     }
 
     // ===== ADDRESS MANAGEMENT =====
 
     public TradingPartner addAddress(Long partnerId, Address address) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
-
-        List<Address> addresses = new ArrayList<>(partner.getAddresses());
-        addresses.add(address);
-        partner.setAddresses(addresses);
-        partner.setUpdated(LocalDateTime.now());
-        return repository.save(partner);
+        if (jsonbLists) {
+            String elements = ADDRESS_CONVERTER.convertToDatabaseColumn(List.of(address));
+            return patchJsonList(partnerId,
+                    () -> repository.appendAddress(partnerId, elements, LocalDateTime.now()));
+        }
+        return updateWithRetry(partnerId, partner -> {
+            List<Address> addresses = new ArrayList<>(partner.getAddresses());
+            addresses.add(address);
+            partner.setAddresses(addresses);
+        });
     }
 
     public TradingPartner updateAddress(Long partnerId, int addressIndex, Address address) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
-
-        List<Address> addresses = new ArrayList<>(partner.getAddresses());
-        if (addressIndex < 0 || addressIndex >= addresses.size()) {
-            throw new IllegalArgumentException("Ungültiger Adress-Index");
+        if (jsonbLists) {
+            String elements = ADDRESS_CONVERTER.convertToDatabaseColumn(List.of(address));
+            return patchJsonList(partnerId, addressIndex, "Ungültiger Adress-Index",
+                    () -> repository.replaceAddress(partnerId, addressIndex, elements, LocalDateTime.now()));
         }
-
-        addresses.set(addressIndex, address);
-        partner.setAddresses(addresses);
-        partner.setUpdated(LocalDateTime.now());
-        return repository.save(partner);
+        return updateWithRetry(partnerId, partner -> {
+            List<Address> addresses = new ArrayList<>(partner.getAddresses());
+            if (addressIndex < 0 || addressIndex >= addresses.size()) {
+                throw new IllegalArgumentException("Ungültiger Adress-Index");
+            }
+            addresses.set(addressIndex, address);
+            partner.setAddresses(addresses);
+        });
     }
 
     public TradingPartner deleteAddress(Long partnerId, int addressIndex) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
-
-        List<Address> addresses = new ArrayList<>(partner.getAddresses());
-        if (addressIndex < 0 || addressIndex >= addresses.size()) {
-            throw new IllegalArgumentException("Ungültiger Adress-Index");
+        if (jsonbLists) {
+            return patchJsonList(partnerId, addressIndex, "Ungültiger Adress-Index",
+                    () -> repository.removeAddress(partnerId, addressIndex, LocalDateTime.now()));
         }
-
-        addresses.remove(addressIndex);
-        partner.setAddresses(addresses);
-        partner.setUpdated(LocalDateTime.now());
-        return repository.save(partner);
+        return updateWithRetry(partnerId, partner -> {
+            List<Address> addresses = new ArrayList<>(partner.getAddresses());
+            if (addressIndex < 0 || addressIndex >= addresses.size()) {
+                throw new IllegalArgumentException("Ungültiger Adress-Index");
+            }
+            addresses.remove(addressIndex);
+            partner.setAddresses(addresses);
+        });
     }
 }
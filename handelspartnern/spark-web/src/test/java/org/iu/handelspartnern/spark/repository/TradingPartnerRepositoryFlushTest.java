@@ -0,0 +1,97 @@
+package org.iu.handelspartnern.spark.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.stat.Statistics;
+import org.iu.handelspartnern.common.entity.Address;
+import org.iu.handelspartnern.common.entity.Contact;
+import org.iu.handelspartnern.common.entity.PartnerStatus;
+import org.iu.handelspartnern.common.entity.PartnerType;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+import org.iu.handelspartnern.spark.config.AppConfig;
+import org.iu.handelspartnern.spark.config.DatabaseConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Ein geladener Partner darf beim Flush nicht als geändert gelten: Kontakte und Adressen werden über equals mit
+ * ihrem Snapshot verglichen. Gezählt werden die Entity-UPDATEs der Hibernate-Statistik.
+ */
+class TradingPartnerRepositoryFlushTest {
+
+    private static DatabaseConfig databaseConfig;
+    private static TradingPartnerRepository repository;
+
+    private Long partnerId;
+
+    @BeforeAll
+    static void setUp() {
+        databaseConfig = new DatabaseConfig(new AppConfig("application-test.properties"), new SimpleMeterRegistry());
+        databaseConfig.initialize();
+        repository = new TradingPartnerRepository(databaseConfig);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        databaseConfig.shutdown();
+    }
+
+    @BeforeEach
+    void createPartner() {
+        TradingPartner partner = new TradingPartner();
+        partner.setName("Flush");
+        partner.setType(PartnerType.SUPPLIER);
+        partner.setStatus(PartnerStatus.ACTIVE);
+        partner.setClaims(BigDecimal.ZERO);
+        partner.setPayable(BigDecimal.ZERO);
+        partner.setContacts(new ArrayList<>(List.of(
+                new Contact("Anna Muster", "anna@example.com", "+49 30 1234", "Einkauf"),
+                new Contact("Ben Beispiel", "ben@example.com", null, null))));
+        partner.setAddresses(new ArrayList<>(List.of(
+                new Address("Hauptstraße 1", "Berlin", "10115", "DE", "Rechnung"))));
+        partnerId = repository.save(partner).getId();
+    }
+
+    @Test
+    void loadingWithoutChangesIssuesNoUpdate() {
+        assertEquals(0, updatesDuring(partner -> { }));
+        assertEquals(0, updatesDuring(partner -> { }));
+    }
+
+    @Test
+    void replacingListsWithEqualCopiesIssuesNoUpdate() {
+        assertEquals(0, updatesDuring(partner -> {
+            List<Contact> contacts = new ArrayList<>();
+            for (Contact c : partner.getContacts()) {
+                contacts.add(new Contact(c.getName(), c.getEmail(), c.getPhone(), c.getRole()));
+            }
+            partner.setContacts(contacts);
+            partner.setAddresses(new ArrayList<>(partner.getAddresses()));
+        }));
+    }
+
+    @Test
+    void changingOneContactIssuesExactlyOneUpdate() {
+        Long versionBefore = repository.findVersion(partnerId).orElseThrow().version();
+
+        assertEquals(1, updatesDuring(partner -> partner.getContacts().get(0).setPhone("+49 30 9999")));
+
+        assertEquals(versionBefore + 1, repository.findVersion(partnerId).orElseThrow().version());
+        assertEquals("+49 30 9999", repository.findById(partnerId).orElseThrow().getContacts().get(0).getPhone());
+    }
+
+    private long updatesDuring(Consumer<TradingPartner> mutation) {
+        Statistics statistics = databaseConfig.getSessionFactory().getStatistics();
+        statistics.clear();
+        repository.update(partnerId, mutation).orElseThrow();
+        return statistics.getEntityUpdateCount();
+    }
+}
@@ -0,0 +1,151 @@
+package org.iu.handelspartnern.spark.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.iu.handelspartnern.common.dto.AddTradingPartnerDto;
+import org.iu.handelspartnern.common.entity.Contact;
+import org.iu.handelspartnern.common.entity.PartnerType;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+import org.iu.handelspartnern.common.infra.PartnerCache;
+import org.iu.handelspartnern.common.infra.PartnerCacheInvalidator;
+import org.iu.handelspartnern.common.infra.PartnerChangeBus;
+import org.iu.handelspartnern.spark.config.AppConfig;
+import org.iu.handelspartnern.spark.config.DatabaseConfig;
+import org.iu.handelspartnern.spark.repository.FinancialEntryRepository;
+import org.iu.handelspartnern.spark.repository.TradingPartnerRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Zwei vollständige Instanzen (DatabaseConfig, Partner-Cache, Service, Partner-Änderungs-Bus) auf einer
+ * PostgreSQL-Datenbank (zonky embedded-postgres, als root über {@code unshare -U}). Schreibt A, muss ein
+ * gecachter Lesezugriff auf B danach den neuen Stand liefern. Startet PostgreSQL nicht, schlägt der Test fehl.
+ */
+class PartnerCacheAcrossInstancesTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static EmbeddedPostgres postgres;
+    private static Instance first;
+    private static Instance second;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        first = new Instance();
+        second = new Instance();
+        first.awaitConnected();
+        second.awaitConnected();
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (second != null) {
+            second.close();
+        }
+        if (first != null) {
+            first.close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void updateOnOneInstanceReachesCachedReadOnTheOther() throws Exception {
+        Long partnerId = createPartner("Vorher");
+        assertEquals("Vorher", second.service.getPartnerById(partnerId).orElseThrow().getName());
+
+        TradingPartner changed = first.service.getPartnerById(partnerId).orElseThrow();
+        changed.setName("Nachher");
+        first.service.updatePartner(partnerId, changed);
+
+        awaitOnSecond(partnerId, partner -> partner.map(p -> "Nachher".equals(p.getName())).orElse(false));
+    }
+
+    @Test
+    void contactAddedOnOneInstanceReachesCachedReadOnTheOther() throws Exception {
+        Long partnerId = createPartner("Kontakte");
+        assertTrue(second.service.getPartnerById(partnerId).orElseThrow().getContacts().isEmpty());
+
+        first.service.addContact(partnerId, new Contact("Anna Muster", "anna@example.com", null, null));
+
+        awaitOnSecond(partnerId, partner -> partner.map(p -> p.getContacts().size() == 1).orElse(false));
+    }
+
+    @Test
+    void deleteOnOneInstanceReachesCachedReadOnTheOther() throws Exception {
+        Long partnerId = createPartner("Gelöscht");
+        assertTrue(second.service.getPartnerById(partnerId).isPresent());
+
+        first.service.deletePartner(partnerId);
+
+        awaitOnSecond(partnerId, Optional::isEmpty);
+    }
+
+    private static Long createPartner(String name) {
+        return first.service.createPartner(new AddTradingPartnerDto(name, Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), PartnerType.CUSTOMER)).getId();
+    }
+
+    // Die Meldung kommt asynchron; ohne Bus bliebe der gecachte Stand bis zum Ablauf der TTL (5 Minuten)
+    private static void awaitOnSecond(Long partnerId, Predicate<Optional<TradingPartner>> expected)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!expected.test(second.service.getPartnerById(partnerId))) {
+            assertTrue(System.nanoTime() < deadline, "Änderung nicht bei der zweiten Instanz angekommen");
+            Thread.sleep(20);
+        }
+    }
+
+    private static final class Instance implements AutoCloseable {
+
+        private final DatabaseConfig databaseConfig;
+        private final PartnerChangeBus changeBus;
+        private final TradingPartnerService service;
+
+        Instance() {
+            Properties properties = new Properties();
+            properties.setProperty("db.url", postgres.getJdbcUrl("postgres", "postgres"));
+            properties.setProperty("db.username", "postgres");
+            properties.setProperty("db.password", "postgres");
+            properties.setProperty("hibernate.show-sql", "false");
+            properties.setProperty("hibernate.format-sql", "false");
+            databaseConfig = new DatabaseConfig(new AppConfig(properties), new SimpleMeterRegistry());
+            databaseConfig.initialize();
+
+            PartnerCache partnerCache = new PartnerCache(100, Duration.ofMinutes(5));
+            changeBus = new PartnerChangeBus(postgres.getJdbcUrl("postgres", "postgres"), "postgres", "postgres",
+                    PartnerChangeBus.DEFAULT_CHANNEL,
+                    new PartnerCacheInvalidator(partnerCache, databaseConfig.getSessionFactory()));
+            changeBus.start();
+            service = new TradingPartnerService(new TradingPartnerRepository(databaseConfig),
+                    new FinancialEntryRepository(databaseConfig), partnerCache, changeBus);
+        }
+
+        // Erst nach LISTEN verbunden; vorher gesendete Meldungen kämen nicht an
+        void awaitConnected() throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            while (!changeBus.isConnected()) {
+                assertTrue(System.nanoTime() < deadline, "Bus nicht verbunden");
+                Thread.sleep(20);
+            }
+        }
+
+        @Override
+        public void close() {
+            changeBus.close();
+            databaseConfig.shutdown();
+        }
+    }
+}
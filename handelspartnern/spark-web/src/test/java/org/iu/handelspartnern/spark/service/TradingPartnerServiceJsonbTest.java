@@ -0,0 +1,255 @@
+package org.iu.handelspartnern.spark.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.stat.Statistics;
+import org.iu.handelspartnern.common.dto.AddTradingPartnerDto;
+import org.iu.handelspartnern.common.entity.Address;
+import org.iu.handelspartnern.common.entity.Contact;
+import org.iu.handelspartnern.common.entity.FinancialEntry;
+import org.iu.handelspartnern.common.entity.FinancialEntryStatus;
+import org.iu.handelspartnern.common.entity.FinancialEntryType;
+import org.iu.handelspartnern.common.entity.PartnerType;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+import org.iu.handelspartnern.common.infra.PartnerCache;
+import org.iu.handelspartnern.common.infra.PartnerChangeBus;
+import org.iu.handelspartnern.spark.config.AppConfig;
+import org.iu.handelspartnern.spark.config.DatabaseConfig;
+import org.iu.handelspartnern.spark.repository.FinancialEntryRepository;
+import org.iu.handelspartnern.spark.repository.TradingPartnerRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Kontakte und Adressen auf PostgreSQL (zonky embedded-postgres): hbm2ddl legt ein frisches Schema an, der
+ * Service stellt die leere Tabelle beim Start auf jsonb um und ändert einzelne Elemente danach per
+ * jsonb_set / || / - ohne Entity-UPDATE. Startet PostgreSQL nicht, schlagen die Tests fehl.
+ */
+class TradingPartnerServiceJsonbTest {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 10;
+
+    private static EmbeddedPostgres postgres;
+    private static DatabaseConfig databaseConfig;
+    private static FinancialEntryRepository financialEntryRepository;
+    private static TradingPartnerService service;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        Properties properties = new Properties();
+        properties.setProperty("db.url", postgres.getJdbcUrl("postgres", "postgres"));
+        properties.setProperty("db.username", "postgres");
+        properties.setProperty("db.password", "postgres");
+        properties.setProperty("hibernate.show-sql", "false");
+        properties.setProperty("hibernate.format-sql", "false");
+        databaseConfig = new DatabaseConfig(new AppConfig(properties), new SimpleMeterRegistry());
+        databaseConfig.initialize();
+        financialEntryRepository = new FinancialEntryRepository(databaseConfig);
+        service = new TradingPartnerService(new TradingPartnerRepository(databaseConfig),
+                financialEntryRepository, new PartnerCache(100, Duration.ofMinutes(5)),
+                PartnerChangeBus.disabled());
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (databaseConfig != null) {
+            databaseConfig.shutdown();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void freshSchemaIsConvertedToJsonbWithIndexes() throws Exception {
+        assertEquals(List.of("jsonb", "jsonb"), query("SELECT data_type FROM information_schema.columns "
+                + "WHERE table_name = 'trading_partners' AND column_name IN ('contacts', 'addresses')"));
+        assertEquals(List.of("idx_trading_partners_addresses", "idx_trading_partners_contacts"),
+                query("SELECT indexname FROM pg_indexes WHERE tablename = 'trading_partners' "
+                        + "AND indexdef LIKE '%USING gin%' ORDER BY indexname"));
+    }
+
+    @Test
+    void contactsAreAddedChangedAndRemovedInPlace() {
+        Long partnerId = createPartner("Kontakte");
+        long version = version(partnerId);
+        Statistics statistics = databaseConfig.getSessionFactory().getStatistics();
+        statistics.clear();
+
+        service.addContact(partnerId, new Contact("Anna Muster", "anna@example.com", null, "Einkauf"));
+        service.addContact(partnerId, new Contact("Ben Beispiel", "ben@example.com", null, null));
+        TradingPartner changed = service.updateContact(partnerId, 1,
+                new Contact("Ben Beispiel", "ben@example.com", "+49 30 1234", "Vertrieb"));
+        assertEquals("+49 30 1234", changed.getContacts().get(1).getPhone());
+        TradingPartner removed = service.deleteContact(partnerId, 0);
+
+        assertEquals(List.of(new Contact("Ben Beispiel", "ben@example.com", "+49 30 1234", "Vertrieb")),
+                removed.getContacts());
+        assertEquals(version + 4, version(partnerId));
+        assertEquals(removed.getContacts(), service.getPartnerById(partnerId).orElseThrow().getContacts());
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void addressesAreAddedChangedAndRemovedInPlace() {
+        Long partnerId = createPartner("Adressen");
+        long version = version(partnerId);
+
+        service.addAddress(partnerId, new Address("Hauptstraße 1", "Berlin", "10115", "DE", "Rechnung"));
+        service.addAddress(partnerId, new Address("Lagerweg 2", "Hamburg", "20095", "DE", "Lieferung"));
+        service.updateAddress(partnerId, 0, new Address("Hauptstraße 3", "Berlin", "10115", "DE", "Rechnung"));
+        TradingPartner removed = service.deleteAddress(partnerId, 1);
+
+        assertEquals(List.of(new Address("Hauptstraße 3", "Berlin", "10115", "DE", "Rechnung")),
+                removed.getAddresses());
+        assertEquals(version + 4, version(partnerId));
+    }
+
+    @Test
+    void invalidIndexHitsNoRowAndChangesNothing() {
+        Long partnerId = createPartner("Ungültiger Index");
+        service.addContact(partnerId, new Contact("Anna Muster", "anna@example.com", null, null));
+        long version = version(partnerId);
+        Contact other = new Contact("Ben Beispiel", "ben@example.com", null, null);
+        Address address = new Address("Hauptstraße 1", "Berlin", "10115", "DE", "Rechnung");
+
+        assertInvalidIndex("Ungültiger Kontakt-Index", () -> service.updateContact(partnerId, 1, other));
+        assertInvalidIndex("Ungültiger Kontakt-Index", () -> service.deleteContact(partnerId, 1));
+        assertInvalidIndex("Ungültiger Kontakt-Index", () -> service.deleteContact(partnerId, -1));
+        assertInvalidIndex("Ungültiger Adress-Index", () -> service.updateAddress(partnerId, 0, address));
+        assertInvalidIndex("Ungültiger Adress-Index", () -> service.deleteAddress(partnerId, 0));
+
+        assertEquals(version, version(partnerId));
+        TradingPartner partner = service.getPartnerById(partnerId).orElseThrow();
+        assertEquals(List.of(new Contact("Anna Muster", "anna@example.com", null, null)), partner.getContacts());
+        assertEquals(List.of(), partner.getAddresses());
+    }
+
+    @Test
+    void missingPartnerIsNotReportedAsInvalidIndex() {
+        Contact contact = new Contact("Anna Muster", "anna@example.com", null, null);
+
+        RuntimeException append = assertThrows(RuntimeException.class, () -> service.addContact(-1L, contact));
+        RuntimeException replace = assertThrows(RuntimeException.class,
+                () -> service.updateContact(Long.MAX_VALUE, 0, contact));
+
+        assertEquals("Partner mit ID -1 nicht gefunden", append.getMessage());
+        assertFalse(replace instanceof IllegalArgumentException);
+    }
+
+    @Test
+    void parallelContactsAreNotLost() throws Exception {
+        Long partnerId = createPartner("Parallel");
+        long version = version(partnerId);
+        int writes = THREADS * WRITES_PER_THREAD;
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                    service.addContact(partnerId, new Contact("Parallel " + thread + "-" + i,
+                            "parallel-" + thread + "-" + i + "@example.com", null, null));
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        assertEquals(writes, service.getPartnerById(partnerId).orElseThrow().getContacts().size());
+        assertEquals(version + writes, version(partnerId));
+    }
+
+    // Der Leser hat seinen Snapshot vor dem Delta, lädt den Partner aber erst nach dem Commit und bevor ihn jemand
+    // neu lädt: ohne Sperre des Cache-Eintrags läge danach der alte Stand im Second-Level-Cache
+    @Test
+    void readerWithOlderSnapshotDoesNotCacheStaleState() {
+        Long partnerId = createPartner("Alter Snapshot");
+        FinancialEntry claim = new FinancialEntry(FinancialEntryType.CLAIM, FinancialEntryStatus.OPEN,
+                BigDecimal.ONE, "Nach dem Snapshot", null, null);
+        claim.setPartnerId(partnerId);
+
+        try (Session reader = databaseConfig.getSessionFactory().openSession()) {
+            reader.doWork(connection -> connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ));
+            Transaction tx = reader.beginTransaction();
+            reader.createNativeQuery("SELECT COUNT(*) FROM trading_partners").getSingleResult();
+
+            financialEntryRepository.append(claim);
+
+            assertEquals(0, BigDecimal.ZERO.compareTo(reader.get(TradingPartner.class, partnerId).getClaims()));
+            tx.commit();
+        }
+
+        assertEquals(0, BigDecimal.ONE.compareTo(service.getPartnerById(partnerId).orElseThrow().getClaims()));
+    }
+
+    private static Long createPartner(String name) {
+        return service.createPartner(new AddTradingPartnerDto(name, Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), PartnerType.CUSTOMER)).getId();
+    }
+
+    private static long version(Long partnerId) {
+        return service.getPartnerVersion(partnerId).orElseThrow().version();
+    }
+
+    private static void assertInvalidIndex(String message, Runnable write) {
+        assertEquals(message, assertThrows(IllegalArgumentException.class, write::run).getMessage());
+    }
+
+    private static List<String> query(String sql) throws Exception {
+        List<String> values = new ArrayList<>();
+        try (Connection connection = databaseConfig.getDataSource().getConnection();
+                Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                values.add(rs.getString(1));
+            }
+        }
+        return values;
+    }
+
+    // Alle Threads starten gleichzeitig, damit sich die Schreibzugriffe tatsächlich überschneiden
+    private static void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
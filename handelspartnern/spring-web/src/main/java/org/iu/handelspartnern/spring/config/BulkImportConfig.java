@@ -0,0 +1,23 @@
+package org.iu.handelspartnern.spring.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.iu.handelspartnern.common.infra.importer.BulkImporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Bulk-Import per JDBC-Batch auf dem Hikari-Pool (app.import.batch-size Zeilen je Batch und Transaktion).
+ * reWriteBatchedInserts steht in der Datasource-URL.
+ */
+@Configuration
+public class BulkImportConfig {
+
+    @Bean
+    public BulkImporter bulkImporter(DataSource dataSource, ObjectMapper objectMapper,
+            @Value("${app.import.batch-size:1000}") int batchSize) {
+        return new BulkImporter(dataSource, objectMapper, batchSize);
+    }
+}
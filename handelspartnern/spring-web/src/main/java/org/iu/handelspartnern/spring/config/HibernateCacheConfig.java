@@ -0,0 +1,32 @@
+package org.iu.handelspartnern.spring.config;
+
+import org.iu.handelspartnern.common.infra.SecondLevelCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Second-Level-Cache für TradingPartner und Query-Cache (app.hibernate-cache.*). Der CacheManager ist bewusst keine
+ * Bean: er gehört der SessionFactory, die ihn beim Herunterfahren schließt. Die Statistiken bindet Actuator
+ * (HibernateMetricsAutoConfiguration), sobald hibernate-micrometer auf dem Classpath liegt.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+            @Value("${app.hibernate-cache.second-level:true}") boolean secondLevelCache,
+            @Value("${app.hibernate-cache.queries:true}") boolean queryCache,
+            @Value("${app.hibernate-cache.partners.max-size:10000}") long partnerMaxSize,
+            @Value("${app.hibernate-cache.partners.ttl-seconds:600}") long partnerTtlSeconds,
+            @Value("${app.hibernate-cache.query-results.max-size:1000}") long queryMaxSize,
+            @Value("${app.hibernate-cache.query-results.ttl-seconds:600}") long queryTtlSeconds) {
+        return hibernateProperties -> hibernateProperties.putAll(SecondLevelCache.hibernateSettings(
+                SecondLevelCache.createCacheManager("spring-web", partnerMaxSize,
+                        Duration.ofSeconds(partnerTtlSeconds), queryMaxSize, Duration.ofSeconds(queryTtlSeconds)),
+                secondLevelCache, queryCache));
+    }
+}
@@ -0,0 +1,29 @@
+package org.iu.handelspartnern.spring.config;
+
+import org.iu.handelspartnern.common.infra.PartnerCache;
+import org.iu.handelspartnern.common.infra.metrics.PartnerCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Read-through-Cache vor TradingPartnerService#getPartnerById (app.partner-cache.max-size Partner, höchstens
+ * app.partner-cache.ttl-seconds alt; 0 schaltet ihn ab).
+ */
+@Configuration
+public class PartnerCacheConfig {
+
+    @Bean
+    public PartnerCache partnerCache(@Value("${app.partner-cache.max-size:10000}") long maxSize,
+            @Value("${app.partner-cache.ttl-seconds:60}") long ttlSeconds) {
+        return new PartnerCache(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    // Von Spring Boot automatisch gebunden: /actuator/metrics/cache.gets?tag=cache:partners
+    @Bean
+    public PartnerCacheMetrics partnerCacheMetrics(PartnerCache partnerCache) {
+        return new PartnerCacheMetrics(partnerCache);
+    }
+}
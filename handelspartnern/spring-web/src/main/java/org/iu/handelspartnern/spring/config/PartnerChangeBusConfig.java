@@ -0,0 +1,33 @@
+package org.iu.handelspartnern.spring.config;
+
+import org.hibernate.SessionFactory;
+import org.iu.handelspartnern.common.infra.PartnerCache;
+import org.iu.handelspartnern.common.infra.PartnerCacheInvalidator;
+import org.iu.handelspartnern.common.infra.PartnerChangeBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Cache-Invalidierung zwischen Instanzen per LISTEN/NOTIFY (app.partner-events.*). Der Bus lauscht auf einer
+ * eigenen Connection mit denselben Zugangsdaten wie die Datasource und wird beim Herunterfahren geschlossen.
+ */
+@Configuration
+public class PartnerChangeBusConfig {
+
+    @Bean(initMethod = "start")
+    public PartnerChangeBus partnerChangeBus(@Value("${app.partner-events.enabled:true}") boolean enabled,
+            @Value("${app.partner-events.channel:" + PartnerChangeBus.DEFAULT_CHANNEL + "}") String channel,
+            DataSourceProperties dataSourceProperties, PartnerCache partnerCache,
+            EntityManagerFactory entityManagerFactory) {
+        if (!enabled) {
+            return PartnerChangeBus.disabled();
+        }
+        return new PartnerChangeBus(dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(), channel,
+                new PartnerCacheInvalidator(partnerCache, entityManagerFactory.unwrap(SessionFactory.class)));
+    }
+}
@@ -0,0 +1,20 @@
+package org.iu.handelspartnern.spring.config;
+
+import org.iu.handelspartnern.common.infra.StatementArchive;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gemeinsamer Worker-Pool für den Sammel-Export der Kontoauszüge (app.export.threads, 0 = ein Worker je Kern).
+ * Jeder Worker belegt beim Rendern eine Connection, die Zahl sollte also unter der Hikari-Poolgröße bleiben.
+ */
+@Configuration
+public class StatementExportConfig {
+
+    // close() beendet den Pool beim Herunterfahren des Contexts
+    @Bean
+    public StatementArchive statementArchive(@Value("${app.export.threads:0}") int threads) {
+        return new StatementArchive(threads);
+    }
+}
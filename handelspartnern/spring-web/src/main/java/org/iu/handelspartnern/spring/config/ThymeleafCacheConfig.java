@@ -0,0 +1,131 @@
+package org.iu.handelspartnern.spring.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.iu.handelspartnern.common.template.TemplateCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.thymeleaf.cache.StandardCache;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.spring5.templateresolver.SpringResourceTemplateResolver;
+
+/**
+ * Begrenzter Template-Cache für die von Spring Boot konfigurierte SpringTemplateEngine.
+ *
+ * Mit spring.thymeleaf.cache=true (Default) landen geparste Templates in einem auf app.thymeleaf.cache.max-size
+ * Einträge begrenzten Cache, der vor dem Start des Webservers mit allen Templates und Fragmenten aus
+ * common-template gefüllt wird. Entwicklung: Profil dev bzw. spring.thymeleaf.cache=false.
+ */
+@Configuration
+public class ThymeleafCacheConfig implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThymeleafCacheConfig.class);
+
+    private static final String TEMPLATE_PREFIX = "templates/";
+    private static final String TEMPLATE_SUFFIX = ".html";
+    private static final Pattern FRAGMENT_PATTERN = Pattern.compile("th:fragment=\"\\s*([\\w-]+)");
+
+    private final SpringTemplateEngine templateEngine;
+    private final StandardCacheManager cacheManager;
+    private final boolean cacheable;
+    private final boolean warmUp;
+
+    public ThymeleafCacheConfig(SpringTemplateEngine templateEngine, SpringResourceTemplateResolver templateResolver,
+            @Value("${spring.thymeleaf.cache:true}") boolean cacheable,
+            @Value("${app.thymeleaf.cache.max-size:100}") int maxSize,
+            @Value("${app.thymeleaf.cache.ttl-ms:0}") long ttlMs,
+            @Value("${app.thymeleaf.warm-up:true}") boolean warmUp) {
+        this.templateEngine = templateEngine;
+        this.cacheable = cacheable;
+        this.warmUp = warmUp;
+
+        this.cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(maxSize);
+        cacheManager.setTemplateCacheInitialSize(Math.min(maxSize, 20));
+        cacheManager.setTemplateCacheEnableCounters(true);
+        templateEngine.setCacheManager(cacheManager);
+
+        if (ttlMs > 0) {
+            templateResolver.setCacheTTLMs(ttlMs);
+        }
+    }
+
+    // Von Spring Boot automatisch gebunden: /actuator/metrics/cache.gets?tag=cache:thymeleaf-templates
+    @Bean
+    public TemplateCacheMetrics templateCacheMetrics() {
+        return new TemplateCacheMetrics((StandardCache<?, ?>) cacheManager.getTemplateCache());
+    }
+
+    // Läuft nach dem Anlegen aller Beans, aber bevor Tomcat Requests annimmt
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!cacheable) {
+            logger.info("Template-Cache aus (spring.thymeleaf.cache=false), Templates werden bei jedem Request "
+                    + "neu gelesen");
+            return;
+        }
+        if (warmUp) {
+            int parsed = warmUp();
+            logger.info("{} Templates/Fragmente vorab geparst (Cache max. {})", parsed,
+                    cacheManager.getTemplateCacheMaxSize());
+        }
+    }
+
+    // Parst jedes Template und jedes darin deklarierte th:fragment in den Cache, ohne es zu rendern
+    // (processThrottled parst sofort, verarbeitet aber erst beim Abruf). Eingebettete th:replace/th:insert
+    // werden pro einbettendem Template gecacht und landen beim ersten Rendern im Cache.
+    private int warmUp() {
+        Context context = new Context();
+        int parsed = 0;
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver(getClass().getClassLoader())
+                    .getResources("classpath*:" + TEMPLATE_PREFIX + "**/*" + TEMPLATE_SUFFIX);
+            for (Resource resource : resources) {
+                String url = resource.getURL().toString();
+                String template = url.substring(url.lastIndexOf(TEMPLATE_PREFIX) + TEMPLATE_PREFIX.length(),
+                        url.length() - TEMPLATE_SUFFIX.length());
+                try {
+                    templateEngine.processThrottled(template, null, context);
+                    parsed++;
+                    for (String fragment : declaredFragments(resource)) {
+                        templateEngine.processThrottled(template, Collections.singleton(fragment), context);
+                        parsed++;
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Template {} konnte nicht vorab geparst werden: {}", template, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Templates für den Warm-up nicht gefunden: {}", e.getMessage());
+        }
+        return parsed;
+    }
+
+    private static Set<String> declaredFragments(Resource resource) throws IOException {
+        String html;
+        try (InputStream in = resource.getInputStream()) {
+            html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Set<String> fragments = new LinkedHashSet<>();
+        Matcher matcher = FRAGMENT_PATTERN.matcher(html);
+        while (matcher.find()) {
+            fragments.add(matcher.group(1));
+        }
+        return fragments;
+    }
+}
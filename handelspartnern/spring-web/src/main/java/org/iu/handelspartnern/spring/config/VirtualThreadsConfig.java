@@ -0,0 +1,48 @@
+package org.iu.handelspartnern.spring.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Virtual Threads für Tomcat-Requests (Spring Boot 2.7 kennt spring.threads.virtual.enabled noch nicht).
+ *
+ * Aktiv mit app.virtual-threads.enabled=true (Profil prod). Das Projekt kompiliert mit release 17, daher wird
+ * der Executor per Reflection erzeugt; auf JDKs ohne Virtual Threads bleibt der Tomcat-Thread-Pool aktiv.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        if (executor == null) {
+            logger.warn("app.virtual-threads.enabled=true benötigt JDK 21+ (aktuell {}), verwende Tomcat-Thread-Pool",
+                    System.getProperty("java.version"));
+            return protocolHandler -> {
+            };
+        }
+        logger.info("Tomcat verarbeitet Requests auf Virtual Threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    // Entspricht Executors.newVirtualThreadPerTaskExecutor() ab JDK 21
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual-Thread-Executor konnte nicht erzeugt werden", e);
+        }
+    }
+}
@@ -6,36 +6,59 @@ import org.iu.handelspartnern.common.entity.TradingPartner;
 import org.iu.handelspartnern.common.entity.Contact;
 import org.iu.handelspartnern.common.entity.Address;
 import org.iu.handelspartnern.common.dto.AddTradingPartnerDto;
+import org.iu.handelspartnern.common.dto.FinancialEntryResult;
+import org.iu.handelspartnern.common.dto.PartnerListPage;
+import org.iu.handelspartnern.common.dto.PartnerVersion;
+import org.iu.handelspartnern.common.dto.PartnerVersionConflictException;
+import org.iu.handelspartnern.common.dto.importer.ImportReport;
 import org.iu.handelspartnern.common.dto.TradingPartnerListDto;
 import org.iu.handelspartnern.spring.service.TradingPartnerService;
 import org.iu.handelspartnern.common.entity.FinancialEntry;
 import org.iu.handelspartnern.common.entity.FinancialEntryStatus;
 import org.iu.handelspartnern.common.entity.FinancialEntryType;
+import org.iu.handelspartnern.common.infra.StatementArchive;
+import org.iu.handelspartnern.common.infra.importer.BulkImporter;
+import org.iu.handelspartnern.common.infra.importer.ImportFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.thymeleaf.context.LazyContextVariable;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.spring5.expression.ThymeleafEvaluationContext;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.HashMap;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.UUID;
 import java.nio.charset.StandardCharsets;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 @Controller
 @RequestMapping("/")
@@ -44,6 +67,12 @@ public class TradingPartnerController {
     @Autowired
     private TradingPartnerService tradingPartnerService;
 
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
     // Main Page - Full HTML
     @GetMapping("/")
     public String index(Model model,
@@ -52,8 +81,8 @@ public class TradingPartnerController {
             @RequestParam(required = false) String search) {
 
         try {
-            List<TradingPartnerListDto> partners = tradingPartnerService.getAllPartners(type, status, search);
-            model.addAttribute("partners", partners);
+            PartnerListPage page = tradingPartnerService.getPartnerPage(type, status, search, null, null);
+            addPartnerPage(model, page);
             model.addAttribute("partnerTypes", PartnerType.values());
             model.addAttribute("partnerStatuses", PartnerStatus.values());
 
@@ -77,19 +106,20 @@ public class TradingPartnerController {
             @RequestParam(required = false) PartnerType type,
             @RequestParam(required = false) PartnerStatus status,
             @RequestParam(required = false) String search,
-            HttpServletRequest request) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest request,
+            HttpServletResponse response) {
 
         try {
             System.out.println("GET /partners called - type: " + type + ", status: " + status + ", search: " + search);
 
-            List<TradingPartnerListDto> partners = tradingPartnerService.getAllPartners(type, status, search);
-            model.addAttribute("partners", partners);
-
-            System.out.println("Found " + partners.size() + " partners");
-
-            // Return fragment for HTMX requests
+            // HTMX: Zeilen per Datenbank-Cursor direkt in den Response rendern;
+            // Folgeseiten (Infinite Scroll) liefern nur die Zeilen
             if (isHtmxRequest(request)) {
-                return "fragments/partner-list :: partner-list";
+                String fragment = cursor != null && !cursor.isBlank() ? "partner-rows" : "partner-list";
+                streamPartnerList(fragment, type, status, search, cursor, limit, request, response);
+                return null;
             }
 
             return "redirect:/";
@@ -98,6 +128,11 @@ public class TradingPartnerController {
             System.err.println("Error in partnersList: " + e.getMessage());
             e.printStackTrace();
 
+            // Schon teilweise gesendet: kein Fallback mehr möglich
+            if (response.isCommitted()) {
+                return null;
+            }
+
             // Fallback
             model.addAttribute("partners", new ArrayList<TradingPartnerListDto>());
 
@@ -111,15 +146,23 @@ public class TradingPartnerController {
 
     // Partner Detail Fragment - KORRIGIERT
     @GetMapping("/partners/{id}")
-    public String partnerDetail(@PathVariable Long id, Model model, HttpServletRequest request) {
+    public String partnerDetail(@PathVariable Long id, Model model, HttpServletRequest request,
+            HttpServletResponse response) {
         try {
             System.out.println("GET /partners/" + id + " called");
 
+            // Ohne HX-Request gibt es nur eine Weiterleitung, bedingt beantwortet wird nur das Fragment
+            response.setHeader(HttpHeaders.VARY, "HX-Request");
+            if (isHtmxRequest(request) && notModified(request, response, id, "detail")) {
+                return null;
+            }
+
             Optional<TradingPartner> partnerOpt = tradingPartnerService.getPartnerById(id);
             if (partnerOpt.isPresent()) {
                 model.addAttribute("partner", partnerOpt.get());
 
                 if (isHtmxRequest(request)) {
+                    setValidators(response, PartnerVersion.of(partnerOpt.get()), "detail");
                     return "fragments/partner-detail :: partner-detail";
                 }
             } else {
@@ -242,8 +285,7 @@ public class TradingPartnerController {
             System.out.println("Partner created successfully");
 
             // Return updated partner list
-            List<TradingPartnerListDto> partners = tradingPartnerService.getAllPartners();
-            model.addAttribute("partners", partners);
+            addPartnerPage(model, tradingPartnerService.getFirstPartnerPage());
 
             if (isHtmxRequest(request)) {
                 return "fragments/partner-list :: partner-list";
@@ -293,8 +335,10 @@ public class TradingPartnerController {
             @RequestParam(value = "addresses", required = false) String addresses,
             @RequestParam(value = "about", required = false) String about,
             @RequestParam(value = "corporateImageUrl", required = false) String corporateImageUrl,
+            @RequestParam(value = "version", required = false) Long version,
             Model model,
-            HttpServletRequest request) {
+            HttpServletRequest request,
+            HttpServletResponse response) {
 
         System.out.println("PUT /partners/" + id + " called");
 
@@ -318,17 +362,26 @@ public class TradingPartnerController {
                 partner.setAbout(about);
                 partner.setCorporateImageUrl(corporateImageUrl);
 
-                tradingPartnerService.updatePartner(id, partner);
+                // version aus dem Formular: wer auf einem veralteten Stand gespeichert hat, bekommt 409
+                tradingPartnerService.updatePartner(id, partner, version);
 
                 // Return updated partner list
-                List<TradingPartnerListDto> partners = tradingPartnerService.getAllPartners();
-                model.addAttribute("partners", partners);
+                addPartnerPage(model, tradingPartnerService.getFirstPartnerPage());
 
                 if (isHtmxRequest(request)) {
                     return "fragments/partner-list :: partner-list";
                 }
             }
 
+        } catch (PartnerVersionConflictException e) {
+            // Formular mit dem aktuellen Stand erneut zeigen, die eigenen Eingaben gehen dabei bewusst verloren
+            response.setStatus(HttpServletResponse.SC_CONFLICT);
+            tradingPartnerService.getPartnerById(id).ifPresent(current -> model.addAttribute("partner", current));
+            model.addAttribute("error", e.getMessage());
+            model.addAttribute("partnerTypes", PartnerType.values());
+            model.addAttribute("partnerStatuses", PartnerStatus.values());
+            model.addAttribute("isNewPartner", false);
+            return "fragments/partner-form :: partner-form";
         } catch (Exception e) {
             System.err.println("Error updating partner: " + e.getMessage());
             e.printStackTrace();
@@ -345,8 +398,7 @@ public class TradingPartnerController {
 
             tradingPartnerService.deletePartner(id);
 
-            List<TradingPartnerListDto> partners = tradingPartnerService.getAllPartners();
-            model.addAttribute("partners", partners);
+            addPartnerPage(model, tradingPartnerService.getFirstPartnerPage());
 
             if (isHtmxRequest(request)) {
                 return "fragments/partner-list :: partner-list";
@@ -356,8 +408,7 @@ public class TradingPartnerController {
             System.err.println("Error deleting partner: " + e.getMessage());
             e.printStackTrace();
 
-            List<TradingPartnerListDto> partners = tradingPartnerService.getAllPartners();
-            model.addAttribute("partners", partners);
+            addPartnerPage(model, tradingPartnerService.getFirstPartnerPage());
 
             if (isHtmxRequest(request)) {
                 return "fragments/partner-list :: partner-list";
@@ -371,6 +422,61 @@ public class TradingPartnerController {
     private boolean isHtmxRequest(HttpServletRequest request) {
         return "true".equals(request.getHeader("HX-Request"));
     }
+
+    // Bedingter GET: vergleicht If-None-Match/If-Modified-Since mit dem per Projektion gelesenen Stand, ohne den
+    // Partner samt Buchungen zu laden oder zu rendern. Mit null als View schreibt Spring keinen Body.
+    private boolean notModified(HttpServletRequest request, HttpServletResponse response, Long id,
+            String representation) {
+        Optional<PartnerVersion> version = tradingPartnerService.getPartnerVersion(id);
+        if (version.isEmpty() || !version.get().isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH),
+                request.getHeader(HttpHeaders.IF_MODIFIED_SINCE), representation)) {
+            return false;
+        }
+        setValidators(response, version.get(), representation);
+        response.setStatus(HttpStatus.NOT_MODIFIED.value());
+        return true;
+    }
+
+    // Validatoren aus dem tatsächlich ausgelieferten Stand, damit eine ältere Kopie aus dem Partner-Cache nie das
+    // ETag eines neueren Stands bekommt. no-cache: Browser fragen jedes Mal nach, geteilte Caches speichern nichts
+    private void setValidators(HttpServletResponse response, PartnerVersion version, String representation) {
+        response.setHeader(HttpHeaders.ETAG, version.etag(representation));
+        response.setHeader(HttpHeaders.LAST_MODIFIED, version.lastModifiedHeader());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+    }
+
+    // Rendert das Fragment innerhalb der Lese-Transaktion direkt in den Response-Writer, statt es über den
+    // View-Resolver nach dem Handler zu rendern (dann wäre der Datenbank-Cursor bereits geschlossen)
+    private void streamPartnerList(String fragment, PartnerType type, PartnerStatus status, String search,
+            String cursor, Integer limit, HttpServletRequest request, HttpServletResponse response) {
+        response.setContentType("text/html;charset=UTF-8");
+        tradingPartnerService.streamPartnerPage(type, status, search, cursor, limit, rows -> {
+            WebContext context = new WebContext(request, response, request.getServletContext(),
+                    RequestContextUtils.getLocale(request));
+            context.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                    new ThymeleafEvaluationContext(applicationContext, null));
+            context.setVariable("partners", rows);
+            // nextCursor steht erst nach den Zeilen fest; das Template liest ihn erst dahinter
+            context.setVariable("nextCursor", new LazyContextVariable<String>() {
+                @Override
+                protected String loadValue() {
+                    return rows.getNextCursor();
+                }
+            });
+            try {
+                templateEngine.process("fragments/partner-list", Collections.singleton(fragment), context,
+                        response.getWriter());
+                response.flushBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void addPartnerPage(Model model, PartnerListPage page) {
+        model.addAttribute("partners", page.partners());
+        model.addAttribute("nextCursor", page.nextCursor());
+    }
 }
 
 // SEPARATE API-CONTROLLER FOR REST ENDPOINTS
@@ -378,9 +484,39 @@ public class TradingPartnerController {
 @RequestMapping("/api")
 class ApiController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int STATEMENT_BUFFER_SIZE = 8192;
+
     @Autowired
     private TradingPartnerService tradingPartnerService;
 
+    @Autowired
+    private StatementArchive statementArchive;
+
+    @Autowired
+    private BulkImporter bulkImporter;
+
+    // Partner List - Keyset-Pagination, nächster Cursor im Header X-Next-Cursor
+    @GetMapping("/partners")
+    public ResponseEntity<?> getPartners(@RequestParam(required = false) PartnerType type,
+            @RequestParam(required = false) PartnerStatus status,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            PartnerListPage page = tradingPartnerService.getPartnerPage(type, status, search, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.hasMore()) {
+                response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.partners());
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
     // Financial Balance
     @GetMapping("/partners/{id}/balance")
     public ResponseEntity<?> getPartnerBalance(@PathVariable Long id) {
@@ -400,6 +536,18 @@ class ApiController {
         }
     }
 
+    // Drift-Prüfung der laufenden Finanzsummen gegen eine vollständige Neuberechnung
+    @GetMapping("/partners/{id}/financials/verify")
+    public ResponseEntity<?> verifyFinancials(@PathVariable Long id) {
+        return financialsReport(id, false);
+    }
+
+    // Wie verify, setzt bei Drift aber die neu berechneten Summen
+    @PostMapping("/partners/{id}/financials/recalculate")
+    public ResponseEntity<?> recalculateFinancials(@PathVariable Long id) {
+        return financialsReport(id, true);
+    }
+
     @PostMapping("/partners/financial-transaction")
     public ResponseEntity<?> addFinancialTransaction(@RequestBody Map<String, Object> transactionData) {
         try {
@@ -439,8 +587,8 @@ class ApiController {
                             .map(LocalDate::parse)
                             .orElse(LocalDate.now()));
 
-            TradingPartner updated = tradingPartnerService.addFinancialEntry(partnerId, entry);
-            return okWithFinancials(updated, "Transaktion erfolgreich erfasst.");
+            FinancialEntryResult result = tradingPartnerService.addFinancialEntry(partnerId, entry);
+            return okWithFinancials(result, "Transaktion erfolgreich erfasst.");
 
         } catch (IllegalArgumentException e) {
             return badRequest(e.getMessage());
@@ -453,8 +601,17 @@ class ApiController {
     }
 
     @GetMapping("/partners/{id}/transactions")
-    public ResponseEntity<?> getPartnerTransactions(@PathVariable Long id) {
+    public ResponseEntity<?> getPartnerTransactions(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_MODIFIED_SINCE, required = false) String ifModifiedSince) {
         try {
+            // Bedingter GET: Stand per Projektion, ohne den Partner samt Buchungen zu laden
+            Optional<PartnerVersion> version = tradingPartnerService.getPartnerVersion(id);
+            if (version.isPresent() && version.get().isNotModified(ifNoneMatch, ifModifiedSince, "transactions")) {
+                return withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version.get(), "transactions")
+                        .build();
+            }
+
             Optional<TradingPartner> partnerOpt = tradingPartnerService.getPartnerById(id);
             if (partnerOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
@@ -492,7 +649,7 @@ class ApiController {
                     "status", partner.getStatus(),
                     "type", partner.getType()));
 
-            List<Map<String, Object>> transactions = partner.getFinancialEntries().stream()
+            List<Map<String, Object>> transactions = tradingPartnerService.getFinancialEntries(id).stream()
                     .filter(Objects::nonNull)
                     .sorted(Comparator
                             .comparing((FinancialEntry entry) -> entry.getDate(),
@@ -519,7 +676,7 @@ class ApiController {
                     .collect(Collectors.toList());
 
             response.put("transactions", transactions);
-            return ResponseEntity.ok(response);
+            return withValidators(ResponseEntity.ok(), PartnerVersion.of(partner), "transactions").body(response);
         } catch (Exception e) {
             byte[] bytes = ("Fehler beim Export: " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
             HttpHeaders headers = new HttpHeaders();
@@ -541,8 +698,8 @@ class ApiController {
             FinancialEntryStatus status = FinancialEntryStatus.valueOf(statusRaw.toUpperCase(Locale.ROOT));
             UUID uuid = UUID.fromString(entryId);
 
-            TradingPartner updated = tradingPartnerService.updateFinancialEntryStatus(partnerId, uuid, status);
-            return okWithFinancials(updated, "Transaktionsstatus aktualisiert");
+            FinancialEntryResult result = tradingPartnerService.updateFinancialEntryStatus(partnerId, uuid, status);
+            return okWithFinancials(result, "Transaktionsstatus aktualisiert");
         } catch (IllegalArgumentException e) {
             return badRequest(e.getMessage());
         } catch (Exception e) {
@@ -550,69 +707,78 @@ class ApiController {
         }
     }
 
+    // Streamt den Kontoauszug direkt in den Response (chunked, auf Wunsch gzip); ohne Zwischenpuffer und
+    // Content-Length, der Heap-Bedarf hängt also nicht von der Zahl der Buchungen ab
     @GetMapping("/partners/{id}/export-statement")
-    public ResponseEntity<byte[]> exportPartnerStatement(@PathVariable Long id) {
+    public void exportPartnerStatement(@PathVariable Long id, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         try {
-            Optional<TradingPartner> partnerOpt = tradingPartnerService.getPartnerById(id);
-            if (partnerOpt.isEmpty()) {
-                return ResponseEntity.notFound().build();
+            boolean found = tradingPartnerService.streamStatement(id, statement -> {
+                response.setContentType("text/plain;charset=UTF-8");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + statement.getFilename() + "\"");
+                try {
+                    Writer writer = openStatementWriter(request, response);
+                    statement.writeCsv(writer);
+                    // Erst nach vollständigem Auszug schließen: bricht der Export ab, fehlt das Chunk- bzw.
+                    // gzip-Ende und der Client erkennt die unvollständige Datei
+                    writer.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!found) {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
             }
+        } catch (RuntimeException e) {
+            if (response.isCommitted()) {
+                throw e;
+            }
+            response.reset();
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Fehler beim Export: "
+                    + (e.getMessage() != null ? e.getMessage() : "Unbekannter Fehler"));
+        }
+    }
 
-            TradingPartner partner = partnerOpt.get();
-            TradingPartner.FinancialOverview overview = partner.getFinancialOverview();
-
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
-
-            StringBuilder builder = new StringBuilder();
-            builder.append("Kontoauszug für;").append(escapeCsv(partner.getName())).append('\n');
-            builder.append("Erstellt am;").append(LocalDateTime.now().format(formatter)).append('\n');
-            builder.append("Partner-ID;").append(partner.getId()).append('\n');
-            builder.append("Partner-Typ;").append(partner.getType()).append('\n');
-            builder.append("Status;").append(partner.getStatus()).append('\n');
-            builder.append("Steuernummer;").append(escapeCsv(partner.getTaxId())).append('\n');
-            builder.append('\n');
-            builder.append("Offene Forderungen;").append(overview.getOpenClaims()).append('\n');
-            builder.append("Beglichene Forderungen;").append(overview.getSettledClaims()).append('\n');
-            builder.append("Offene Verbindlichkeiten;").append(overview.getOpenPayables()).append('\n');
-            builder.append("Beglichene Verbindlichkeiten;").append(overview.getSettledPayables()).append('\n');
-            builder.append("Transaktionen insgesamt;").append(overview.getTransactionCount()).append('\n');
-            builder.append('\n');
-            builder.append("Typ;Status;Betrag;Datum;Verwendungszweck;Referenz\n");
-
-            partner.getFinancialEntries().stream()
-                    .filter(Objects::nonNull)
-                    .sorted(Comparator
-                            .comparing((FinancialEntry entry) -> entry.getDate(),
-                                    Comparator.nullsLast(Comparator.naturalOrder()))
-                            .thenComparing(FinancialEntry::getCreatedAt,
-                                    Comparator.nullsLast(Comparator.naturalOrder()))
-                            .reversed())
-                    .forEach(entry -> builder
-                            .append(entry.getType())
-                            .append(';').append(entry.getStatus())
-                            .append(';').append(entry.getAmount() != null ? entry.getAmount().toPlainString() : "0.00")
-                            .append(';').append(entry.getDate() != null ? entry.getDate() : "-")
-                            .append(';').append(escapeCsv(entry.getPurpose()))
-                            .append(';').append(escapeCsv(entry.getReference()))
-                            .append('\n'));
-
-            byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
-            String filename = "kontoauszug-" + slugify(partner.getName()) + "-" + LocalDate.now() + ".csv";
+    // Sammel-Export: ein ZIP mit einem Kontoauszug je Partner, parallel gerendert und direkt gestreamt
+    @GetMapping("/partners/export-statements")
+    public void exportPartnerStatements(@RequestParam(required = false) PartnerType type,
+            @RequestParam(required = false) PartnerStatus status, HttpServletResponse response) throws IOException {
+        try {
+            List<Long> partnerIds = tradingPartnerService.getPartnerIds(type, status);
+            response.setContentType("application/zip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"kontoauszuege-" + LocalDate.now() + ".zip\"");
+
+            OutputStream out = new BufferedOutputStream(response.getOutputStream(), STATEMENT_BUFFER_SIZE);
+            int written = statementArchive.write(partnerIds, tradingPartnerService::renderStatement, out);
+            // Erst nach vollständigem ZIP schließen, siehe exportPartnerStatement
+            out.close();
+            System.out.println("Sammel-Export: " + written + " Kontoauszüge");
+        } catch (RuntimeException e) {
+            if (response.isCommitted()) {
+                throw e;
+            }
+            response.reset();
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Fehler beim Export: "
+                    + (e.getMessage() != null ? e.getMessage() : "Unbekannter Fehler"));
+        }
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_PLAIN);
-            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
-            headers.setContentLength(bytes.length);
+    // Bulk-Import: Datei als Request-Body (text/csv oder application/json), gestreamt gelesen und per JDBC-Batch
+    // geschrieben. Antwort ist der Report mit Zeilenfehlern; Status 400 nur, wenn die Datei nicht lesbar war.
+    @PostMapping("/import/partners")
+    public ResponseEntity<?> importPartners(HttpServletRequest request) throws IOException {
+        return runImport(request, false);
+    }
 
-            return new ResponseEntity<>(bytes, headers, HttpStatus.OK);
-        } catch (Exception e) {
-            byte[] errorBytes = ("Fehler beim Export: "
-                    + (e.getMessage() != null ? e.getMessage() : "Unbekannter Fehler"))
-                    .getBytes(StandardCharsets.UTF_8);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_PLAIN);
-            return new ResponseEntity<>(errorBytes, headers, HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+    @PostMapping("/import/financial-entries")
+    public ResponseEntity<?> importFinancialEntries(HttpServletRequest request) throws IOException {
+        return runImport(request, true);
     }
 
     // Contact Management Endpoints
@@ -630,12 +796,7 @@ class ApiController {
                         "Kontaktdaten sind unvollständig. Bitte mindestens Name, E-Mail oder Telefon angeben.");
             }
 
-            TradingPartner partner = partnerOpt.get();
-            List<Contact> contacts = new ArrayList<>(partner.getContacts());
-            contacts.add(normalized);
-            partner.setContacts(contacts);
-
-            TradingPartner updated = tradingPartnerService.updatePartner(id, partner);
+            TradingPartner updated = tradingPartnerService.addContact(id, normalized);
             return okWithContacts(updated, "Kontakt erfolgreich hinzugefügt");
         } catch (Exception e) {
             return errorResponse(e);
@@ -657,18 +818,10 @@ class ApiController {
                         "Kontaktdaten sind unvollständig. Bitte mindestens Name, E-Mail oder Telefon angeben.");
             }
 
-            TradingPartner partner = partnerOpt.get();
-            List<Contact> contacts = new ArrayList<>(partner.getContacts());
-
-            if (contactIndex < 0 || contactIndex >= contacts.size()) {
-                return badRequest("Kontaktindex ist ungültig.");
-            }
-
-            contacts.set(contactIndex, normalized);
-            partner.setContacts(contacts);
-
-            TradingPartner updated = tradingPartnerService.updatePartner(id, partner);
+            TradingPartner updated = tradingPartnerService.updateContact(id, contactIndex, normalized);
             return okWithContacts(updated, "Kontakt erfolgreich aktualisiert");
+        } catch (IllegalArgumentException e) {
+            return badRequest("Kontaktindex ist ungültig.");
         } catch (Exception e) {
             return errorResponse(e);
         }
@@ -682,18 +835,10 @@ class ApiController {
                 return ResponseEntity.notFound().build();
             }
 
-            TradingPartner partner = partnerOpt.get();
-            List<Contact> contacts = new ArrayList<>(partner.getContacts());
-
-            if (contactIndex < 0 || contactIndex >= contacts.size()) {
-                return badRequest("Kontaktindex ist ungültig.");
-            }
-
-            contacts.remove(contactIndex);
-            partner.setContacts(contacts);
-
-            TradingPartner updated = tradingPartnerService.updatePartner(id, partner);
+            TradingPartner updated = tradingPartnerService.deleteContact(id, contactIndex);
             return okWithContacts(updated, "Kontakt erfolgreich gelöscht");
+        } catch (IllegalArgumentException e) {
+            return badRequest("Kontaktindex ist ungültig.");
         } catch (Exception e) {
             return errorResponse(e);
         }
@@ -713,12 +858,7 @@ class ApiController {
                 return badRequest("Adresse ist unvollständig. Straße und Stadt sind Pflichtfelder.");
             }
 
-            TradingPartner partner = partnerOpt.get();
-            List<Address> addresses = new ArrayList<>(partner.getAddresses());
-            addresses.add(normalized);
-            partner.setAddresses(addresses);
-
-            TradingPartner updated = tradingPartnerService.updatePartner(id, partner);
+            TradingPartner updated = tradingPartnerService.addAddress(id, normalized);
             return okWithAddresses(updated, "Adresse erfolgreich hinzugefügt");
         } catch (Exception e) {
             return errorResponse(e);
@@ -739,18 +879,10 @@ class ApiController {
                 return badRequest("Adresse ist unvollständig. Straße und Stadt sind Pflichtfelder.");
             }
 
-            TradingPartner partner = partnerOpt.get();
-            List<Address> addresses = new ArrayList<>(partner.getAddresses());
-
-            if (addressIndex < 0 || addressIndex >= addresses.size()) {
-                return badRequest("Adressindex ist ungültig.");
-            }
-
-            addresses.set(addressIndex, normalized);
-            partner.setAddresses(addresses);
-
-            TradingPartner updated = tradingPartnerService.updatePartner(id, partner);
+            TradingPartner updated = tradingPartnerService.updateAddress(id, addressIndex, normalized);
             return okWithAddresses(updated, "Adresse erfolgreich aktualisiert");
+        } catch (IllegalArgumentException e) {
+            return badRequest("Adressindex ist ungültig.");
         } catch (Exception e) {
             return errorResponse(e);
         }
@@ -764,29 +896,22 @@ class ApiController {
                 return ResponseEntity.notFound().build();
             }
 
-            TradingPartner partner = partnerOpt.get();
-            List<Address> addresses = new ArrayList<>(partner.getAddresses());
-
-            if (addressIndex < 0 || addressIndex >= addresses.size()) {
-                return badRequest("Adressindex ist ungültig.");
-            }
-
-            addresses.remove(addressIndex);
-            partner.setAddresses(addresses);
-
-            TradingPartner updated = tradingPartnerService.updatePartner(id, partner);
+            TradingPartner updated = tradingPartnerService.deleteAddress(id, addressIndex);
             return okWithAddresses(updated, "Adresse erfolgreich gelöscht");
+        } catch (IllegalArgumentException e) {
+            return badRequest("Adressindex ist ungültig.");
         } catch (Exception e) {
             return errorResponse(e);
         }
     }
 
-    private ResponseEntity<Map<String, Object>> okWithFinancials(TradingPartner partner, String message) {
+    // Nur die geänderte Buchung und die neuen Summen; die Liste liefert GET /api/partners/{id}/transactions
+    private ResponseEntity<Map<String, Object>> okWithFinancials(FinancialEntryResult result, String message) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", message);
-        response.put("financialOverview", partner.getFinancialOverview());
-        response.put("transactions", partner.getFinancialEntries());
+        response.put("transaction", result.entry());
+        response.put("financialTotals", result.totals());
         return ResponseEntity.ok(response);
     }
 
@@ -806,6 +931,25 @@ class ApiController {
         return ResponseEntity.ok(response);
     }
 
+    private ResponseEntity<?> financialsReport(Long id, boolean repair) {
+        try {
+            if (tradingPartnerService.getPartnerById(id).isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(tradingPartnerService.verifyFinancials(id, repair));
+        } catch (Exception e) {
+            return errorResponse(e);
+        }
+    }
+
+    // Validatoren aus dem tatsächlich ausgelieferten Stand, nicht aus dem vorab gelesenen
+    private ResponseEntity.BodyBuilder withValidators(ResponseEntity.BodyBuilder builder, PartnerVersion version,
+            String representation) {
+        return builder.eTag(version.etag(representation))
+                .lastModified(version.lastModifiedMillis())
+                .cacheControl(CacheControl.noCache().cachePrivate());
+    }
+
     private ResponseEntity<Map<String, Object>> badRequest(String message) {
         Map<String, Object> response = new HashMap<>();
         response.put("success", false);
@@ -820,25 +964,43 @@ class ApiController {
         return ResponseEntity.status(500).body(response);
     }
 
-    private String escapeCsv(String value) {
-        if (value == null) {
-            return "";
+    private ResponseEntity<?> runImport(HttpServletRequest request, boolean financialEntries) throws IOException {
+        // Ein Formular-Body würde beim Lesen der Parameter verbraucht, die Datei kommt deshalb als roher Body
+        String contentType = request.getContentType();
+        if (contentType != null && (contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+                || contentType.startsWith("multipart/"))) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+                    .body(Map.of("success", false, "message",
+                            "Datei als Request-Body mit Content-Type text/csv oder application/json senden."));
         }
-        String sanitized = value.replaceAll("[\\r\\n]+", " ").trim();
-        if (sanitized.contains(";") || sanitized.contains("\"")) {
-            sanitized = '"' + sanitized.replace("\"", "\"\"") + '"';
+        try {
+            ImportFormat format = ImportFormat.detect(request.getParameter("format"), contentType, null);
+            ImportReport report;
+            try {
+                report = financialEntries
+                        ? bulkImporter.importFinancialEntries(request.getInputStream(), format)
+                        : bulkImporter.importPartners(request.getInputStream(), format);
+            } finally {
+                // Neue Partner bzw. Summen bestehender Partner kommen per JDBC, an den Caches vorbei
+                tradingPartnerService.invalidateCaches();
+            }
+            return ResponseEntity.status(report.getAborted() == null ? HttpStatus.OK : HttpStatus.BAD_REQUEST)
+                    .body(report);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
         }
-        return sanitized;
     }
 
-    private String slugify(String value) {
-        if (value == null || value.isBlank()) {
-            return "partner";
+    // gzip nur, wenn der Client es per Accept-Encoding anbietet
+    private Writer openStatementWriter(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        OutputStream out = response.getOutputStream();
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip")) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            out = new GZIPOutputStream(out, STATEMENT_BUFFER_SIZE);
         }
-        return value.toLowerCase(Locale.ROOT)
-                .replaceAll("[^a-z0-9]+", "-")
-                .replaceAll("-+", "-")
-                .replaceAll("(^-|-$)", "");
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), STATEMENT_BUFFER_SIZE);
     }
 
     private Contact normalizeContact(Contact incoming) {
@@ -0,0 +1,50 @@
+package org.iu.handelspartnern.spring.repository;
+
+import org.iu.handelspartnern.common.dto.StatementLine;
+import org.iu.handelspartnern.common.entity.FinancialEntry;
+import org.iu.handelspartnern.common.entity.FinancialEntryStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+@Repository
+public interface FinancialEntryRepository extends JpaRepository<FinancialEntry, UUID>, FinancialEntryRepositoryCustom {
+
+    List<FinancialEntry> findByPartnerIdOrderByDateDescCreatedAtDesc(Long partnerId);
+
+    Optional<FinancialEntry> findByIdAndPartnerId(UUID id, Long partnerId);
+
+    // Die letzten Buchungen für die Finanzübersicht (TradingPartner.RECENT_ENTRIES), per LIMIT aus der Datenbank
+    List<FinancialEntry> findTop5ByPartnerIdOrderByDateDescCreatedAtDesc(Long partnerId);
+
+    // Zeilen je Roundtrip beim Streamen des Kontoauszugs
+    String STATEMENT_FETCH_SIZE = "500";
+
+    // Kontoauszug: Projektion per Datenbank-Cursor, neueste Buchung zuerst (Index partner_id, entry_date, created_at)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STATEMENT_FETCH_SIZE))
+    @Query(StatementLine.JPQL_SELECT + " WHERE e.partnerId = :partnerId ORDER BY e.date DESC, e.createdAt DESC")
+    Stream<StatementLine> streamStatementLines(@Param("partnerId") Long partnerId);
+
+    // Summe und Anzahl je Typ und Status, siehe FinancialTotals#ofGroup
+    @Query("SELECT e.type, e.status, SUM(e.amount), COUNT(e) FROM FinancialEntry e WHERE e.partnerId = :partnerId "
+            + "GROUP BY e.type, e.status")
+    List<Object[]> sumByTypeAndStatus(@Param("partnerId") Long partnerId);
+
+    // Ein einzelnes bedingtes UPDATE auf die Buchung: 0 Zeilen, wenn der Status inzwischen nicht mehr expected ist.
+    // Leert den Persistence Context, eine zuvor geladene Buchung ist danach nicht mehr verwaltet.
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE FinancialEntry e SET e.status = :status WHERE e.id = :id AND e.status = :expected")
+    int updateStatus(@Param("id") UUID id, @Param("expected") FinancialEntryStatus expected,
+            @Param("status") FinancialEntryStatus status);
+}
@@ -0,0 +1,9 @@
+package org.iu.handelspartnern.spring.repository;
+
+import org.iu.handelspartnern.common.entity.FinancialEntry;
+
+public interface FinancialEntryRepositoryCustom {
+
+    // Neue Buchung per INSERT anhängen (save() würde wegen der vorbelegten UUID erst ein SELECT für merge() absetzen)
+    FinancialEntry append(FinancialEntry entry);
+}
@@ -0,0 +1,17 @@
+package org.iu.handelspartnern.spring.repository;
+
+import org.iu.handelspartnern.common.entity.FinancialEntry;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class FinancialEntryRepositoryImpl implements FinancialEntryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public FinancialEntry append(FinancialEntry entry) {
+        entityManager.persist(entry);
+        return entry;
+    }
+}
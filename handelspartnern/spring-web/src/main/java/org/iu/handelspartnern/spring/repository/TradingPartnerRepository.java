@@ -1,29 +1,203 @@
 package org.iu.handelspartnern.spring.repository;
 
+import org.iu.handelspartnern.common.dto.FinancialEntryResult;
+import org.iu.handelspartnern.common.dto.PartnerVersion;
+import org.iu.handelspartnern.common.dto.TradingPartnerListDto;
+import org.iu.handelspartnern.common.entity.FinancialTotals;
 import org.iu.handelspartnern.common.entity.TradingPartner;
 import org.iu.handelspartnern.common.entity.PartnerStatus;
 import org.iu.handelspartnern.common.entity.PartnerType;
+import org.iu.handelspartnern.common.infra.SecondLevelCache;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import static org.hibernate.annotations.QueryHints.NATIVE_SPACES;
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface TradingPartnerRepository extends JpaRepository<TradingPartner, Long> {
 
     List<TradingPartner> findByStatusOrderByDateModifiedDesc(PartnerStatus status);
 
+    // Nur id, version und dateModified für bedingte GETs: ein Index-Lookup über den Primärschlüssel, ohne Caches
+    @Query("SELECT new org.iu.handelspartnern.common.dto.PartnerVersion(tp.id, tp.version, tp.dateModified) "
+            + "FROM TradingPartner tp WHERE tp.id = :id")
+    Optional<PartnerVersion> findVersion(@Param("id") Long id);
+
+    // Für Wiederholungen nach einem Versionskonflikt: SELECT ... FOR UPDATE am Second-Level-Cache vorbei, der
+    // Versuch kann danach nicht erneut verlieren
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT tp FROM TradingPartner tp WHERE tp.id = :id")
+    Optional<TradingPartner> findByIdForUpdate(@Param("id") Long id);
+
+    // Nur die laufenden Summen, z. B. für die Antwort nach einer Buchung
+    @Query(FinancialEntryResult.TOTALS_JPQL_SELECT + " WHERE tp.id = :id")
+    Optional<FinancialTotals> findFinancialTotals(@Param("id") Long id);
+
     List<TradingPartner> findByTypeAndStatusOrderByNameAsc(PartnerType type, PartnerStatus status);
 
     List<TradingPartner> findByNameContainingIgnoreCaseOrderByNameAsc(String name);
 
+    // search ist ein bereits kleingeschriebenes LIKE-Pattern (siehe TradingPartnerService#toSearchPattern).
+    // Spring Data bindet einen in LIKE verwendeten null-Parameter als '', daher COALESCE statt IS NULL.
+    // Der Query-Cache hält nur die ids, die Partner selbst kommen aus dem Second-Level-Cache.
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = SecondLevelCache.PARTNER_LIST_REGION)})
     @Query("SELECT tp FROM TradingPartner tp WHERE " + "(:type IS NULL OR tp.type = :type) AND "
             + "(:status IS NULL OR tp.status = :status) AND "
-            + "(:search IS NULL OR LOWER(tp.name) LIKE LOWER(CONCAT('%', :search, '%'))) "
+            + "(COALESCE(:search, '') = '' OR LOWER(tp.name) LIKE :search ESCAPE '\\' "
+            + "OR LOWER(tp.taxId) LIKE :search ESCAPE '\\' "
+            + "OR LOWER(tp.about) LIKE :search ESCAPE '\\') "
             + "ORDER BY tp.dateModified DESC")
     List<TradingPartner> findWithFilters(@Param("type") PartnerType type, @Param("status") PartnerStatus status,
             @Param("search") String search);
 
+    // Nur die ids, z. B. für den Sammel-Export der Kontoauszüge
+    @Query("SELECT tp.id FROM TradingPartner tp WHERE (:type IS NULL OR tp.type = :type) AND "
+            + "(:status IS NULL OR tp.status = :status) ORDER BY tp.id")
+    List<Long> findIds(@Param("type") PartnerType type, @Param("status") PartnerStatus status);
+
+    // Projektion nur auf Skalar-Spalten: weder JSON-Spalten noch Buchungen werden geladen
+    String LIST_DTO_SELECT = "SELECT new org.iu.handelspartnern.common.dto.TradingPartnerListDto("
+            + "tp.id, tp.name, tp.corporateImageUrl, tp.type, tp.status, tp.claims, tp.payable, tp.dateModified) "
+            + "FROM TradingPartner tp ";
+
+    String LIST_FILTER = "WHERE (:type IS NULL OR tp.type = :type) AND "
+            + "(:status IS NULL OR tp.status = :status) AND "
+            + "(COALESCE(:search, '') = '' OR LOWER(tp.name) LIKE :search ESCAPE '\\' "
+            + "OR LOWER(tp.taxId) LIKE :search ESCAPE '\\' "
+            + "OR LOWER(tp.about) LIKE :search ESCAPE '\\') ";
+
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = SecondLevelCache.PARTNER_LIST_REGION)})
+    @Query(LIST_DTO_SELECT + LIST_FILTER + "ORDER BY tp.dateModified DESC")
+    List<TradingPartnerListDto> findListWithFilters(@Param("type") PartnerType type,
+            @Param("status") PartnerStatus status, @Param("search") String search);
+
+    // Keyset-Pagination über (dateModified, id): erste Seite und Folgeseiten ohne OFFSET.
+    // Pageable liefert nur das LIMIT (PageRequest.of(0, limit + 1)), die Sortierung steht in der Query.
+    // Cursor und Limit gehören zum Cache-Schlüssel; die Stream-Varianten laufen am Query-Cache vorbei.
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = SecondLevelCache.PARTNER_LIST_REGION)})
+    @Query(LIST_DTO_SELECT + LIST_FILTER + "ORDER BY tp.dateModified DESC, tp.id DESC")
+    List<TradingPartnerListDto> findListPage(@Param("type") PartnerType type, @Param("status") PartnerStatus status,
+            @Param("search") String search, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = SecondLevelCache.PARTNER_LIST_REGION)})
+    @Query(LIST_DTO_SELECT + LIST_FILTER
+            + "AND (tp.dateModified < :cursorDate OR (tp.dateModified = :cursorDate AND tp.id < :cursorId)) "
+            + "ORDER BY tp.dateModified DESC, tp.id DESC")
+    List<TradingPartnerListDto> findListPageAfter(@Param("type") PartnerType type,
+            @Param("status") PartnerStatus status, @Param("search") String search,
+            @Param("cursorDate") LocalDateTime cursorDate, @Param("cursorId") Long cursorId, Pageable pageable);
+
+    // Dieselben Seiten als Stream über einen Datenbank-Cursor (nur innerhalb einer Transaktion lesbar):
+    // die Zeilen werden erst beim Rendern gelesen, jeweils STREAM_FETCH_SIZE pro Roundtrip
+    String STREAM_FETCH_SIZE = "50";
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(LIST_DTO_SELECT + LIST_FILTER + "ORDER BY tp.dateModified DESC, tp.id DESC")
+    Stream<TradingPartnerListDto> streamListPage(@Param("type") PartnerType type,
+            @Param("status") PartnerStatus status, @Param("search") String search, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(LIST_DTO_SELECT + LIST_FILTER
+            + "AND (tp.dateModified < :cursorDate OR (tp.dateModified = :cursorDate AND tp.id < :cursorId)) "
+            + "ORDER BY tp.dateModified DESC, tp.id DESC")
+    Stream<TradingPartnerListDto> streamListPageAfter(@Param("type") PartnerType type,
+            @Param("status") PartnerStatus status, @Param("search") String search,
+            @Param("cursorDate") LocalDateTime cursorDate, @Param("cursorId") Long cursorId, Pageable pageable);
+
+    // Summen per Delta fortschreiben: ein UPDATE auf die Partnerzeile, atomar in der Datenbank addiert. Nativ mit
+    // eigenem Query-Space statt JPQL, sonst leert Hibernate die ganze Partner-Region und den Query-Cache; den
+    // Cache-Eintrag des Partners sperrt der Service bis nach dem Commit (SecondLevelCache#lockPatchedPartner).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = SecondLevelCache.PATCH_QUERY_SPACE))
+    @Query(value = "UPDATE trading_partners SET "
+            + "claims = claims + :#{#delta.openClaims()}, "
+            + "settledClaims = settledClaims + :#{#delta.settledClaims()}, "
+            + "payable = payable + :#{#delta.openPayables()}, "
+            + "settledPayables = settledPayables + :#{#delta.settledPayables()}, "
+            + "transactionCount = transactionCount + :#{#delta.transactionCount()}, "
+            + "dateModified = :now WHERE id = :id", nativeQuery = true)
+    int applyFinancialDelta(@Param("id") Long id, @Param("delta") FinancialTotals delta,
+            @Param("now") LocalDateTime now);
+
+    // Summen hart setzen (Reparatur nach erkannter Drift); dateModified mit, damit ETags ungültig werden
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = SecondLevelCache.PATCH_QUERY_SPACE))
+    @Query(value = "UPDATE trading_partners SET "
+            + "claims = :#{#totals.openClaims()}, "
+            + "settledClaims = :#{#totals.settledClaims()}, "
+            + "payable = :#{#totals.openPayables()}, "
+            + "settledPayables = :#{#totals.settledPayables()}, "
+            + "transactionCount = :#{#totals.transactionCount()}, "
+            + "dateModified = :now WHERE id = :id", nativeQuery = true)
+    int storeFinancialTotals(@Param("id") Long id, @Param("totals") FinancialTotals totals,
+            @Param("now") LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     long countByStatus(PartnerStatus status);
+
+    // Einzelne Listenelemente in einem UPDATE ändern, ohne den Partner zu laden (nur PostgreSQL/jsonb).
+    // elements ist ein JSON-Array mit dem neuen Element; version wird erhöht, damit ein parallel offenes
+    // Formular beim Speichern den Konflikt bemerkt. 0 Zeilen: Partner fehlt oder Index außerhalb der Liste.
+    // Query-Space wie bei applyFinancialDelta.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = SecondLevelCache.PATCH_QUERY_SPACE))
+    @Query(value = "UPDATE trading_partners SET contacts = contacts || CAST(:elements AS jsonb), "
+            + "version = version + 1, dateModified = :now WHERE id = :id", nativeQuery = true)
+    int appendContact(@Param("id") Long id, @Param("elements") String elements, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = SecondLevelCache.PATCH_QUERY_SPACE))
+    @Query(value = "UPDATE trading_partners SET contacts = jsonb_set(contacts, ARRAY[CAST(:index AS text)], "
+            + "CAST(:elements AS jsonb) -> 0, false), version = version + 1, dateModified = :now "
+            + "WHERE id = :id AND jsonb_array_length(contacts) > :index", nativeQuery = true)
+    int replaceContact(@Param("id") Long id, @Param("index") int index, @Param("elements") String elements,
+            @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = SecondLevelCache.PATCH_QUERY_SPACE))
+    @Query(value = "UPDATE trading_partners SET contacts = contacts - CAST(:index AS integer), "
+            + "version = version + 1, dateModified = :now "
+            + "WHERE id = :id AND jsonb_array_length(contacts) > :index", nativeQuery = true)
+    int removeContact(@Param("id") Long id, @Param("index") int index, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = SecondLevelCache.PATCH_QUERY_SPACE))
+    @Query(value = "UPDATE trading_partners SET addresses = COALESCE(addresses, '[]') || CAST(:elements AS jsonb), "
+            + "version = version + 1, dateModified = :now WHERE id = :id", nativeQuery = true)
+    int appendAddress(@Param("id") Long id, @Param("elements") String elements, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = SecondLevelCache.PATCH_QUERY_SPACE))
+    @Query(value = "UPDATE trading_partners SET addresses = jsonb_set(addresses, ARRAY[CAST(:index AS text)], "
+            + "CAST(:elements AS jsonb) -> 0, false), version = version + 1, dateModified = :now "
+            + "WHERE id = :id AND jsonb_array_length(addresses) > :index", nativeQuery = true)
+    int replaceAddress(@Param("id") Long id, @Param("index") int index, @Param("elements") String elements,
+            @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = NATIVE_SPACES, value = SecondLevelCache.PATCH_QUERY_SPACE))
+    @Query(value = "UPDATE trading_partners SET addresses = addresses - CAST(:index AS integer), "
+            + "version = version + 1, dateModified = :now "
+            + "WHERE id = :id AND jsonb_array_length(addresses) > :index", nativeQuery = true)
+    int removeAddress(@Param("id") Long id, @Param("index") int index, @Param("now") LocalDateTime now);
 }
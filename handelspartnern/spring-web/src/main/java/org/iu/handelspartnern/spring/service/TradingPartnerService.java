@@ -1,30 +1,86 @@
 package org.iu.handelspartnern.spring.service;
 
+import org.iu.handelspartnern.common.entity.Address;
+import org.iu.handelspartnern.common.entity.Contact;
 import org.iu.handelspartnern.common.entity.PartnerStatus;
 import org.iu.handelspartnern.common.entity.PartnerType;
 import org.iu.handelspartnern.common.entity.TradingPartner;
 import org.iu.handelspartnern.common.entity.FinancialEntry;
 import org.iu.handelspartnern.common.entity.FinancialEntryStatus;
+import org.iu.handelspartnern.common.entity.FinancialEntryType;
+import org.iu.handelspartnern.common.entity.FinancialTotals;
+import org.iu.handelspartnern.common.entity.converter.AddressConverter;
+import org.iu.handelspartnern.common.entity.converter.ContactConverter;
 import org.iu.handelspartnern.common.dto.AddTradingPartnerDto;
+import org.iu.handelspartnern.common.dto.FinancialEntryResult;
+import org.iu.handelspartnern.common.dto.PartnerCursor;
+import org.iu.handelspartnern.common.dto.PartnerVersionConflictException;
+import org.iu.handelspartnern.common.dto.PartnerListPage;
+import org.iu.handelspartnern.common.dto.PartnerRowStream;
+import org.iu.handelspartnern.common.dto.PartnerStatement;
+import org.iu.handelspartnern.common.dto.PartnerVersion;
 import org.iu.handelspartnern.common.dto.TradingPartnerListDto;
+import org.iu.handelspartnern.common.infra.JsonbListColumns;
+import org.iu.handelspartnern.common.infra.PartnerCache;
+import org.iu.handelspartnern.common.infra.PartnerChangeBus;
+import org.iu.handelspartnern.common.infra.SecondLevelCache;
+import org.iu.handelspartnern.common.infra.StatementArchive;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.SoftLock;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+import javax.persistence.EntityManagerFactory;
+import org.iu.handelspartnern.spring.repository.FinancialEntryRepository;
 import org.iu.handelspartnern.spring.repository.TradingPartnerRepository;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Transactional
 public class TradingPartnerService {
 
-    private final TradingPartnerRepository repository;
+    private static final int MAX_WRITE_ATTEMPTS = 10;
+    private static final ContactConverter CONTACT_CONVERTER = new ContactConverter();
+    private static final AddressConverter ADDRESS_CONVERTER = new AddressConverter();
 
-    public TradingPartnerService(TradingPartnerRepository repository) {
+    private final TradingPartnerRepository repository;
+    private final FinancialEntryRepository financialEntryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PartnerCache partnerCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final SessionFactory sessionFactory;
+    // Meldet Änderungen an die Caches der anderen Instanzen
+    private final PartnerChangeBus changeBus;
+    // contacts/addresses als jsonb migriert: einzelne Elemente per jsonb_set statt Read-modify-write
+    private final boolean jsonbLists;
+
+    public TradingPartnerService(TradingPartnerRepository repository,
+            FinancialEntryRepository financialEntryRepository, PlatformTransactionManager transactionManager,
+            PartnerCache partnerCache, EntityManagerFactory entityManagerFactory, PartnerChangeBus changeBus) {
         this.repository = repository;
+        this.financialEntryRepository = financialEntryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partnerCache = partnerCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.changeBus = changeBus;
+        this.jsonbLists = JsonbListColumns.prepare(sessionFactory);
     }
 
     @Transactional(readOnly = true)
@@ -34,28 +90,105 @@ public class TradingPartnerService {
 
     @Transactional(readOnly = true)
     public List<TradingPartnerListDto> getAllPartners(PartnerType type, PartnerStatus status, String search) {
-        String searchLower = (search != null && !search.trim().isEmpty()) ? search.trim().toLowerCase() : null;
-
-        return repository.findAll(Sort.by(Sort.Direction.DESC, "dateModified")).stream()
-                .filter(partner -> type == null || type.equals(partner.getType()))
-                .filter(partner -> status == null || status.equals(partner.getStatus()))
-                .filter(partner -> {
-                    if (searchLower == null) {
-                        return true;
-                    }
-                    String nameMatch = partner.getName() != null ? partner.getName().toLowerCase() : "";
-                    String taxIdMatch = partner.getTaxId() != null ? partner.getTaxId().toLowerCase() : "";
-                    String aboutMatch = partner.getAbout() != null ? partner.getAbout().toLowerCase() : "";
-                    return nameMatch.contains(searchLower) || taxIdMatch.contains(searchLower)
-                            || aboutMatch.contains(searchLower);
-                })
-                .map(this::convertToListDto)
-                .collect(Collectors.toList());
+        // Filter und Suche laufen in der Datenbank, die DTOs werden direkt aus Skalar-Spalten projiziert
+        return repository.findListWithFilters(type, status, toSearchPattern(search));
+    }
+
+    @Transactional(readOnly = true)
+    public PartnerListPage getPartnerPage(PartnerType type, PartnerStatus status, String search, String cursor,
+            Integer limit) {
+        PartnerCursor after = PartnerCursor.decode(cursor);
+        int pageSize = PartnerListPage.normalizeLimit(limit);
+        String searchPattern = toSearchPattern(search);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<TradingPartnerListDto> rows = after == null
+                ? repository.findListPage(type, status, searchPattern, pageable)
+                : repository.findListPageAfter(type, status, searchPattern, after.dateModified(), after.id(),
+                        pageable);
+        return PartnerListPage.of(rows, pageSize);
+    }
+
+    // Wie getPartnerPage, die Zeilen werden aber erst gelesen, während consumer sie rendert (Datenbank-Cursor).
+    // Cursor und Connection bleiben nur für die Dauer von consumer offen.
+    @Transactional(readOnly = true)
+    public void streamPartnerPage(PartnerType type, PartnerStatus status, String search, String cursor,
+            Integer limit, Consumer<PartnerRowStream> consumer) {
+        PartnerCursor after = PartnerCursor.decode(cursor);
+        int pageSize = PartnerListPage.normalizeLimit(limit);
+        String searchPattern = toSearchPattern(search);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        Stream<TradingPartnerListDto> stream = after == null
+                ? repository.streamListPage(type, status, searchPattern, pageable)
+                : repository.streamListPageAfter(type, status, searchPattern, after.dateModified(), after.id(),
+                        pageable);
+        try (PartnerRowStream rows = new PartnerRowStream(stream, pageSize)) {
+            consumer.accept(rows);
+        }
     }
 
+    @Transactional(readOnly = true)
+    public PartnerListPage getFirstPartnerPage() {
+        return getPartnerPage(null, null, null, null, null);
+    }
+
+    // Aus dem Partner-Cache; jeder Aufruf bekommt eine eigene, nicht verwaltete Kopie
     @Transactional(readOnly = true)
     public Optional<TradingPartner> getPartnerById(Long id) {
-        return repository.findById(id);
+        return partnerCache.get(id, this::loadPartner);
+    }
+
+    // Partner plus die letzten Buchungen für die Finanzübersicht, die Collection bleibt ungeladen
+    private Optional<TradingPartner> loadPartner(Long id) {
+        Optional<TradingPartner> partner = repository.findById(id);
+        partner.ifPresent(p -> p.setRecentFinancialEntries(
+                financialEntryRepository.findTop5ByPartnerIdOrderByDateDescCreatedAtDesc(id)));
+        return partner;
+    }
+
+    // Stand für bedingte GETs, immer aus der Datenbank (nicht aus dem Partner-Cache)
+    @Transactional(readOnly = true)
+    public Optional<PartnerVersion> getPartnerVersion(Long id) {
+        return repository.findVersion(id);
+    }
+
+    // Nach Schreibzugriffen per JDBC an Service und Hibernate vorbei (Bulk-Import): Partner-Cache,
+    // Second-Level-Cache und gecachte Abfragen verwerfen, auf dieser und allen anderen Instanzen
+    public void invalidateCaches() {
+        SecondLevelCache.evictAfterBulkWrite(sessionFactory);
+        partnerCache.invalidateAll();
+        changeBus.publishAll();
+    }
+
+    // Kontoauszug: Summen per Aggregat-Query, Buchungen per Datenbank-Cursor, beides in einer Lese-Transaktion.
+    // Liefert false, wenn der Partner nicht existiert; consumer wird dann nicht aufgerufen.
+    @Transactional(readOnly = true)
+    public boolean streamStatement(Long id, Consumer<PartnerStatement> consumer) {
+        Optional<TradingPartner> partner = repository.findById(id);
+        if (partner.isEmpty()) {
+            return false;
+        }
+
+        FinancialTotals totals = calculateTotals(id);
+        try (PartnerStatement statement = new PartnerStatement(partner.get(), totals,
+                financialEntryRepository.streamStatementLines(id))) {
+            consumer.accept(statement);
+        }
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> getPartnerIds(PartnerType type, PartnerStatus status) {
+        return repository.findIds(type, status);
+    }
+
+    // Ein Auszug für den Sammel-Export, gepuffert und in eigener Lese-Transaktion (läuft auf einem Export-Worker)
+    @Transactional(readOnly = true)
+    public Optional<StatementArchive.Entry> renderStatement(Long id) {
+        List<StatementArchive.Entry> rendered = new ArrayList<>(1);
+        streamStatement(id, statement -> rendered.add(StatementArchive.Entry.of(statement)));
+        return rendered.stream().findFirst();
     }
 
     @Transactional
@@ -74,7 +207,10 @@ public class TradingPartnerService {
             partner.setClaims(BigDecimal.ZERO);
             partner.setPayable(BigDecimal.ZERO);
 
+            // Lokal wäre kein Invalidieren nötig (nicht gefundene ids landen nicht im Cache), die anderen Instanzen
+            // müssen aber ihre gecachten Listen verwerfen
             TradingPartner saved = repository.save(partner);
+            evictAfterCompletion(saved.getId());
             System.out.println("Partner created with id: " + saved.getId());
             return saved;
 
@@ -85,44 +221,40 @@ public class TradingPartnerService {
         }
     }
 
-    @Transactional
+    // Eigene Transaktion pro Versuch (siehe updateWithRetry), daher nicht in der Klassen-Transaktion
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public TradingPartner updatePartner(Long id, TradingPartner updatedPartner) {
+        return updatePartner(id, updatedPartner, null);
+    }
+
+    // expectedVersion ist die version, auf der der Client bearbeitet hat (Formular/API). Weicht der gespeicherte
+    // Stand ab, hat jemand anderes zwischenzeitlich gespeichert: PartnerVersionConflictException statt still zu
+    // überschreiben. null = ohne Prüfung (letzter Schreiber gewinnt), z. B. direkt nach dem Anlegen.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TradingPartner updatePartner(Long id, TradingPartner updatedPartner, Long expectedVersion) {
         try {
             System.out.println("updatePartner called for id: " + id);
 
-            TradingPartner existingPartner = repository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Partner mit ID " + id + " nicht gefunden"));
-
-            existingPartner.setName(updatedPartner.getName());
-            existingPartner.setType(updatedPartner.getType());
-            existingPartner.setStatus(updatedPartner.getStatus());
-            existingPartner.setTaxId(updatedPartner.getTaxId());
-            existingPartner.setPaymentTerms(updatedPartner.getPaymentTerms());
-            existingPartner.setAbout(updatedPartner.getAbout());
-            existingPartner.setCorporateImageUrl(updatedPartner.getCorporateImageUrl());
-
-            existingPartner.setContacts(new ArrayList<>(updatedPartner.getContacts()));
-            existingPartner.setAddresses(new ArrayList<>(updatedPartner.getAddresses()));
-
-            if (updatedPartner.getFinancialEntries() != null) {
-                existingPartner.setFinancialEntries(new ArrayList<>(updatedPartner.getFinancialEntries()));
-            } else {
-                existingPartner.recalculateFinancials();
-            }
-
-            if (updatedPartner.getClaims() != null) {
-                existingPartner.setClaims(updatedPartner.getClaims());
-            }
-            if (updatedPartner.getPayable() != null) {
-                existingPartner.setPayable(updatedPartner.getPayable());
-            }
-
-            existingPartner.setUpdated(LocalDateTime.now());
-
-            TradingPartner saved = repository.save(existingPartner);
+            TradingPartner saved = updateWithRetry(id, existingPartner -> {
+                if (expectedVersion != null && !expectedVersion.equals(existingPartner.getVersion())) {
+                    throw new PartnerVersionConflictException(id, expectedVersion, existingPartner.getVersion());
+                }
+                existingPartner.setName(updatedPartner.getName());
+                existingPartner.setType(updatedPartner.getType());
+                existingPartner.setStatus(updatedPartner.getStatus());
+                existingPartner.setTaxId(updatedPartner.getTaxId());
+                existingPartner.setPaymentTerms(updatedPartner.getPaymentTerms());
+                existingPartner.setAbout(updatedPartner.getAbout());
+                existingPartner.setCorporateImageUrl(updatedPartner.getCorporateImageUrl());
+
+                existingPartner.setContacts(new ArrayList<>(updatedPartner.getContacts()));
+                existingPartner.setAddresses(new ArrayList<>(updatedPartner.getAddresses()));
+            });
             System.out.println("Partner updated: " + saved.getName());
             return saved;
 
+        } catch (PartnerVersionConflictException e) {
+            throw e;
         } catch (Exception e) {
             System.err.println("Error updating partner: " + e.getMessage());
             e.printStackTrace();
@@ -140,6 +272,7 @@ public class TradingPartnerService {
             }
 
             repository.deleteById(id);
+            evictAfterCompletion(id);
             System.out.println("Partner deleted: " + id);
 
         } catch (Exception e) {
@@ -151,39 +284,121 @@ public class TradingPartnerService {
 
     // ===== HELPER METHODS =====
 
-    private TradingPartnerListDto convertToListDto(TradingPartner partner) {
+    // Read-modify-write mit Optimistic Locking: bei einem Versionskonflikt wird die Änderung in einer neuen
+    // Transaktion auf den frischen Stand erneut angewendet, parallel angehängte Kontakte/Adressen bleiben erhalten.
+    // Wiederholungen sperren die Zeile beim Lesen, sonst kann ein Writer unter Last jeden Versuch verlieren.
+    private TradingPartner updateWithRetry(Long partnerId, Consumer<TradingPartner> mutation) {
+        for (int attempt = 1;; attempt++) {
+            boolean lock = attempt > 1;
+            try {
+                return transactionTemplate.execute(status -> {
+                    TradingPartner partner = (lock ? repository.findByIdForUpdate(partnerId)
+                            : repository.findById(partnerId)).orElseThrow(
+                                    () -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
+                    mutation.accept(partner);
+                    partner.setUpdated(LocalDateTime.now());
+                    evictAfterCompletion(partnerId);
+                    return repository.saveAndFlush(partner);
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private TradingPartner patchJsonList(Long partnerId, IntSupplier update) {
+        return patchJsonList(partnerId, null, null, update);
+    }
+
+    // Ein UPDATE direkt auf der jsonb-Spalte, ohne Laden und ohne Retry-Schleife; danach den neuen Stand für die
+    // Antwort lesen. index null = Anhängen, dort bedeutet 0 Zeilen nur "Partner fehlt".
+    private TradingPartner patchJsonList(Long partnerId, Integer index, String indexError, IntSupplier update) {
+        if (index != null && index < 0) {
+            throw new IllegalArgumentException(indexError);
+        }
+        return transactionTemplate.execute(status -> {
+            if (update.getAsInt() == 0) {
+                if (index == null || !repository.existsById(partnerId)) {
+                    throw new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden");
+                }
+                throw new IllegalArgumentException(indexError);
+            }
+            evictAfterCompletion(partnerId, true);
+            // Der Eintrag im Second-Level-Cache ist gesperrt, findById liest also den Stand nach dem UPDATE
+            return repository.findById(partnerId).orElseThrow(
+                    () -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
+        });
+    }
+
+    // Erst nach Commit oder Rollback aus dem Cache nehmen: vorher könnte ein paralleler Request noch den alten Stand
+    // laden und erneut ablegen. Die anderen Instanzen erfahren nur von committeten Änderungen. Ohne laufende
+    // Transaktion sofort.
+    private void evictAfterCompletion(Long partnerId) {
+        evictAfterCompletion(partnerId, false);
+    }
+
+    // patched: natives Zeilen-Update (Summen-Delta, jsonb-Patch), an dem Hibernate den Second-Level-Cache nicht
+    // selbst nachführt. Der Eintrag des Partners bleibt dann bis nach dem Commit gesperrt (siehe
+    // SecondLevelCache#lockPatchedPartner), also erst nach dem Update aufrufen.
+    private void evictAfterCompletion(Long partnerId, boolean patched) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            partnerCache.invalidate(partnerId);
+            if (patched) {
+                SecondLevelCache.evictPatchedPartner(sessionFactory, partnerId);
+            }
+            changeBus.publish(partnerId);
+            return;
+        }
+        Session session = patched ? EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory)
+                .unwrap(Session.class) : null;
+        SoftLock lock = patched ? SecondLevelCache.lockPatchedPartner(session, partnerId) : null;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                partnerCache.invalidate(partnerId);
+                if (patched) {
+                    SecondLevelCache.unlockPatchedPartner(session, partnerId, lock);
+                }
+                if (status == STATUS_COMMITTED) {
+                    changeBus.publish(partnerId);
+                }
+            }
+        });
+    }
+
+    // Exponentielles Backoff mit Jitter, damit konkurrierende Writer nicht im Gleichtakt erneut kollidieren
+    private void backoff(int attempt) {
         try {
-            return new TradingPartnerListDto(
-                    partner.getId(),
-                    partner.getName(),
-                    partner.getCorporateImageUrl(),
-                    partner.getType(),
-                    partner.getStatus(),
-                    partner.getClaims(),
-                    partner.getPayable(),
-                    partner.getUpdated());
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L << Math.min(attempt, 6)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Unterbrochen beim Wiederholen der Änderung", e);
+        }
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error converting to DTO: " + e.getMessage());
-            // Return basic DTO with minimal info
-            return new TradingPartnerListDto(
-                    partner.getId(),
-                    partner.getName() != null ? partner.getName() : "Unknown",
-                    null,
-                    partner.getType(),
-                    partner.getStatus(),
-                    BigDecimal.ZERO,
-                    BigDecimal.ZERO,
-                    LocalDateTime.now());
+    private String toSearchPattern(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return null;
         }
+        String escaped = search.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
     }
 
     // ===== FINANZ-METHODEN =====
 
+    // Liefert nur die neue Buchung und die fortgeschriebenen Summen; der Partner und seine übrigen Buchungen werden
+    // nicht geladen, eine Buchung kostet also unabhängig von der Historie gleich viel
     @Transactional
-    public TradingPartner addFinancialEntry(Long partnerId, FinancialEntry entry) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
+    public FinancialEntryResult addFinancialEntry(Long partnerId, FinancialEntry entry) {
+        if (!repository.existsById(partnerId)) {
+            throw new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden");
+        }
 
         if (entry.getDate() == null) {
             entry.setDate(LocalDate.now());
@@ -194,71 +409,205 @@ public class TradingPartnerService {
         if (entry.getStatus() == null) {
             entry.setStatus(FinancialEntryStatus.OPEN);
         }
-        partner.addFinancialEntry(entry);
-        partner.setUpdated(LocalDateTime.now());
+        entry.setPartnerId(partnerId);
+
+        // Append-only: ein INSERT für die Buchung, die Summen am Partner werden per Delta fortgeschrieben
+        financialEntryRepository.append(entry);
+        repository.applyFinancialDelta(partnerId, FinancialTotals.forNewEntry(entry), LocalDateTime.now());
+        evictAfterCompletion(partnerId, true);
 
-        return repository.save(partner);
+        return new FinancialEntryResult(entry, getFinancialTotals(partnerId));
     }
 
     @Transactional
-    public TradingPartner updateFinancialEntryStatus(Long partnerId, UUID entryId, FinancialEntryStatus status) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
+    public FinancialEntryResult updateFinancialEntryStatus(Long partnerId, UUID entryId,
+            FinancialEntryStatus status) {
+        if (!repository.existsById(partnerId)) {
+            throw new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden");
+        }
 
-        boolean updated = false;
-        for (FinancialEntry entry : partner.getFinancialEntries()) {
-            if (entry != null && entryId.equals(entry.getId())) {
+        FinancialEntry entry = financialEntryRepository.findByIdAndPartnerId(entryId, partnerId)
+                .orElseThrow(() -> new RuntimeException("Finanztransaktion mit ID " + entryId + " nicht gefunden"));
+
+        // Hat ein paralleler Request den Status schon umgestellt, greift das bedingte UPDATE nicht und das Delta entfällt
+        if (!status.equals(entry.getStatus())) {
+            if (financialEntryRepository.updateStatus(entryId, entry.getStatus(), status) == 1) {
+                repository.applyFinancialDelta(partnerId, FinancialTotals.forStatusChange(entry, status),
+                        LocalDateTime.now());
+                evictAfterCompletion(partnerId, true);
+                // updateStatus hat den Persistence Context geleert, das ändert nur noch die Antwort
                 entry.setStatus(status);
-                updated = true;
-                break;
+            } else {
+                entry = financialEntryRepository.findByIdAndPartnerId(entryId, partnerId).orElseThrow(
+                        () -> new RuntimeException("Finanztransaktion mit ID " + entryId + " nicht gefunden"));
             }
         }
 
-        if (!updated) {
-            throw new RuntimeException("Finanztransaktion mit ID " + entryId + " nicht gefunden");
-        }
+        return new FinancialEntryResult(entry, getFinancialTotals(partnerId));
+    }
 
-        partner.recalculateFinancials();
-        partner.setUpdated(LocalDateTime.now());
-        return repository.save(partner);
+    // Summen-Projektion, am Partner-Cache vorbei
+    private FinancialTotals getFinancialTotals(Long partnerId) {
+        return repository.findFinancialTotals(partnerId)
+                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
     }
 
+    // Drift-Prüfung: Summen aus allen Buchungen neu berechnen und mit den gespeicherten Werten vergleichen.
+    // Liest am Cache vorbei, die Prüfung soll den Stand der Datenbank sehen.
     @Transactional
-    public void addClaim(Long partnerId, BigDecimal amount) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
+    public Map<String, Object> verifyFinancials(Long partnerId, boolean repair) {
+        FinancialTotals stored = getFinancialTotals(partnerId);
+        FinancialTotals recalculated = calculateTotals(partnerId);
+        FinancialTotals drift = recalculated.minus(stored);
+
+        boolean repaired = false;
+        if (!drift.isZero()) {
+            System.err.println("Finanzsummen-Drift bei Partner " + partnerId + ": " + drift);
+            if (repair) {
+                repository.storeFinancialTotals(partnerId, recalculated, LocalDateTime.now());
+                evictAfterCompletion(partnerId, true);
+                repaired = true;
+            }
+        }
 
-        BigDecimal currentClaims = partner.getClaims() != null ? partner.getClaims() : BigDecimal.ZERO;
-        partner.setClaims(currentClaims.add(amount));
-        partner.setUpdated(LocalDateTime.now());
-        repository.save(partner);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("partnerId", partnerId);
+        report.put("consistent", drift.isZero());
+        report.put("stored", stored);
+        report.put("recalculated", recalculated);
+        report.put("drift", drift);
+        report.put("repaired", repaired);
+        return report;
     }
 
-    @Transactional
-    public void addPayable(Long partnerId, BigDecimal amount) {
-        TradingPartner partner = repository.findById(partnerId)
-                .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
+    // Summen aus allen Buchungen, per GROUP BY in der Datenbank statt über die geladenen Entitäten
+    private FinancialTotals calculateTotals(Long partnerId) {
+        FinancialTotals totals = FinancialTotals.ZERO;
+        for (Object[] group : financialEntryRepository.sumByTypeAndStatus(partnerId)) {
+            totals = totals.plus(FinancialTotals.ofGroup((FinancialEntryType) group[0],
+                    (FinancialEntryStatus) group[1], (BigDecimal) group[2], (Long) group[3]));
+        }
+        return totals;
+    }
 
-        BigDecimal currentPayables = partner.getPayable() != null ? partner.getPayable() : BigDecimal.ZERO;
-        partner.setPayable(currentPayables.add(amount));
-        partner.setUpdated(LocalDateTime.now());
-        repository.save(partner);
+    // Vollständige Buchungs-Historie, neueste zuerst; nicht im Partner-Cache
+    @Transactional(readOnly = true)
+    public List<FinancialEntry> getFinancialEntries(Long partnerId) {
+        return financialEntryRepository.findByPartnerIdOrderByDateDescCreatedAtDesc(partnerId);
     }
 
     @Transactional(readOnly = true)
     public Map<String, BigDecimal> getPartnerBalance(Long partnerId) {
-        TradingPartner partner = repository.findById(partnerId)
+        TradingPartner partner = getPartnerById(partnerId)
                 .orElseThrow(() -> new RuntimeException("Partner mit ID " + partnerId + " nicht gefunden"));
 
-        TradingPartner.FinancialOverview overview = partner.getFinancialOverview();
+        FinancialTotals totals = partner.getFinancialTotals();
 
         Map<String, BigDecimal> balances = new HashMap<>();
-        balances.put("openClaims", overview.getOpenClaims());
-        balances.put("settledClaims", overview.getSettledClaims());
-        balances.put("openPayables", overview.getOpenPayables());
-        balances.put("settledPayables", overview.getSettledPayables());
+        balances.put("openClaims", totals.openClaims());
+        balances.put("settledClaims", totals.settledClaims());
+        balances.put("openPayables", totals.openPayables());
+        balances.put("settledPayables", totals.settledPayables());
         balances.put("claims", partner.getClaims());
         balances.put("payable", partner.getPayable());
         return balances;
     }
+
+    // ===== CONTACT MANAGEMENT =====
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TradingPartner addContact(Long partnerId, Contact contact) {
+        if (jsonbLists) {
+            String elements = CONTACT_CONVERTER.convertToDatabaseColumn(List.of(contact));
+            return patchJsonList(partnerId,
+                    () -> repository.appendContact(partnerId, elements, LocalDateTime.now()));
+        }
+        return updateWithRetry(partnerId, partner -> {
+            List<Contact> contacts = new ArrayList<>(partner.getContacts());
+            contacts.add(contact);
+            partner.setContacts(contacts);
+        });
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TradingPartner updateContact(Long partnerId, int contactIndex, Contact contact) {
+        if (jsonbLists) {
+            String elements = CONTACT_CONVERTER.convertToDatabaseColumn(List.of(contact));
+            return patchJsonList(partnerId, contactIndex, "Ungültiger Kontakt-Index",
+                    () -> repository.replaceContact(partnerId, contactIndex, elements, LocalDateTime.now()));
+        }
+        return updateWithRetry(partnerId, partner -> {
+            List<Contact> contacts = new ArrayList<>(partner.getContacts());
+            if (contactIndex < 0 || contactIndex >= contacts.size()) {
+                throw new IllegalArgumentException("Ungültiger Kontakt-Index");
+            }
+            contacts.set(contactIndex, contact);
+            partner.setContacts(contacts);
+        });
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TradingPartner deleteContact(Long partnerId, int contactIndex) {
+        if (jsonbLists) {
+            return patchJsonList(partnerId, contactIndex, "Ungültiger Kontakt-Index",
+                    () -> repository.removeContact(partnerId, contactIndex, LocalDateTime.now()));
+        }
+        return updateWithRetry(partnerId, partner -> {
+            List<Contact> contacts = new ArrayList<>(partner.getContacts());
+            if (contactIndex < 0 || contactIndex >= contacts.size()) {
+                throw new IllegalArgumentException("Ungültiger Kontakt-Index");
+            }
+            contacts.remove(contactIndex);
+            partner.setContacts(contacts);
+        });
+    }
+
+    // ===== ADDRESS MANAGEMENT =====
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TradingPartner addAddress(Long partnerId, Address address) {
+        if (jsonbLists) {
+            String elements = ADDRESS_CONVERTER.convertToDatabaseColumn(List.of(address));
+            return patchJsonList(partnerId,
+                    () -> repository.appendAddress(partnerId, elements, LocalDateTime.now()));
+        }
+        return updateWithRetry(partnerId, partner -> {
+            List<Address> addresses = new ArrayList<>(partner.getAddresses());
+            addresses.add(address);
+            partner.setAddresses(addresses);
+        });
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TradingPartner updateAddress(Long partnerId, int addressIndex, Address address) {
+        if (jsonbLists) {
+            String elements = ADDRESS_CONVERTER.convertToDatabaseColumn(List.of(address));
+            return patchJsonList(partnerId, addressIndex, "Ungültiger Adress-Index",
+                    () -> repository.replaceAddress(partnerId, addressIndex, elements, LocalDateTime.now()));
+        }
+        return updateWithRetry(partnerId, partner -> {
+            List<Address> addresses = new ArrayList<>(partner.getAddresses());
+            if (addressIndex < 0 || addressIndex >= addresses.size()) {
+                throw new IllegalArgumentException("Ungültiger Adress-Index");
+            }
+            addresses.set(addressIndex, address);
+            partner.setAddresses(addresses);
+        });
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TradingPartner deleteAddress(Long partnerId, int addressIndex) {
+        if (jsonbLists) {
+            return patchJsonList(partnerId, addressIndex, "Ungültiger Adress-Index",
+                    () -> repository.removeAddress(partnerId, addressIndex, LocalDateTime.now()));
+        }
+        return updateWithRetry(partnerId, partner -> {
+            List<Address> addresses = new ArrayList<>(partner.getAddresses());
+            if (addressIndex < 0 || addressIndex >= addresses.size()) {
+                throw new IllegalArgumentException("Ungültiger Adress-Index");
+            }
+            addresses.remove(addressIndex);
+            partner.setAddresses(addresses);
+        });
+    }
 }
@@ -0,0 +1,159 @@
+package org.iu.handelspartnern.spring.service;
+
+import org.iu.handelspartnern.common.dto.AddTradingPartnerDto;
+import org.iu.handelspartnern.common.dto.PartnerVersionConflictException;
+import org.iu.handelspartnern.common.entity.Contact;
+import org.iu.handelspartnern.common.entity.FinancialEntry;
+import org.iu.handelspartnern.common.entity.FinancialEntryStatus;
+import org.iu.handelspartnern.common.entity.FinancialEntryType;
+import org.iu.handelspartnern.common.entity.FinancialTotals;
+import org.iu.handelspartnern.common.entity.PartnerType;
+import org.iu.handelspartnern.common.entity.TradingPartner;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lost-Update-Prüfung für Spring mit vollständigem Kontext auf H2 (Profil test): parallele Buchungen laufen über
+ * Delta-Updates, parallele Kontakte über Optimistic Locking mit der Retry-Schleife um das TransactionTemplate. Auf
+ * H2 gibt es keine jsonb-Spalten. Dazu die Cache-Invalidierung erst nach Commit.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class TradingPartnerServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int WRITES_PER_THREAD = 10;
+
+    @Autowired
+    private TradingPartnerService service;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void parallelEntriesAndContactsAreNotLost() throws Exception {
+        Long partnerId = createPartner("Lost Update");
+        int writes = THREADS * WRITES_PER_THREAD;
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            tasks.add(() -> {
+                for (int i = 0; i < WRITES_PER_THREAD; i++) {
+                    String name = "Stress " + thread + "-" + i;
+                    service.addFinancialEntry(partnerId, claim(name));
+                    service.addContact(partnerId, new Contact(name, "stress-" + thread + "-" + i + "@example.com",
+                            null, null));
+                }
+                return null;
+            });
+        }
+        runConcurrently(tasks);
+
+        Map<String, Object> report = service.verifyFinancials(partnerId, false);
+        assertEquals(Boolean.TRUE, report.get("consistent"), () -> "Drift: " + report.get("drift"));
+        FinancialTotals stored = (FinancialTotals) report.get("stored");
+        assertEquals(writes, stored.transactionCount());
+        assertEquals(0, new BigDecimal(writes).compareTo(stored.openClaims()));
+
+        TradingPartner partner = service.getPartnerById(partnerId).orElseThrow();
+        assertEquals(writes, partner.getContacts().size());
+        assertEquals(writes, service.getFinancialEntries(partnerId).size());
+    }
+
+    @Test
+    void staleVersionIsRejectedInsteadOfOverwritten() {
+        Long partnerId = createPartner("Veraltete Version");
+        TradingPartner loaded = service.getPartnerById(partnerId).orElseThrow();
+        Long staleVersion = loaded.getVersion();
+
+        service.addContact(partnerId, new Contact("Zwischendurch", "zwischendurch@example.com", null, null));
+
+        loaded.setName("Überschrieben");
+        PartnerVersionConflictException conflict = assertThrows(PartnerVersionConflictException.class,
+                () -> service.updatePartner(partnerId, loaded, staleVersion));
+        assertEquals(staleVersion, conflict.getExpectedVersion());
+        assertTrue(conflict.getCurrentVersion() > staleVersion);
+
+        TradingPartner current = service.getPartnerById(partnerId).orElseThrow();
+        assertEquals("Veraltete Version", current.getName());
+        assertEquals(1, current.getContacts().size());
+    }
+
+    // Liest ein anderer Request vor dem Commit, legt er den alten Stand in den Partner-Cache. Erst die
+    // Invalidierung nach dem Commit entfernt ihn wieder; eine sofortige Invalidierung käme dafür zu früh.
+    @Test
+    void readBeforeCommitDoesNotLeaveStaleStateInCache() throws Exception {
+        Long partnerId = createPartner("Nach Commit");
+        assertEquals(0, BigDecimal.ZERO.compareTo(service.getPartnerById(partnerId).orElseThrow().getClaims()));
+
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                service.addFinancialEntry(partnerId, claim("Vor dem Commit"));
+                try {
+                    TradingPartner seen = reader.submit(() -> service.getPartnerById(partnerId).orElseThrow())
+                            .get(1, TimeUnit.MINUTES);
+                    assertEquals(0, BigDecimal.ZERO.compareTo(seen.getClaims()));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } finally {
+            reader.shutdownNow();
+        }
+
+        assertEquals(0, BigDecimal.ONE.compareTo(service.getPartnerById(partnerId).orElseThrow().getClaims()));
+    }
+
+    private Long createPartner(String name) {
+        return service.createPartner(new AddTradingPartnerDto(name, Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), PartnerType.CUSTOMER)).getId();
+    }
+
+    private static FinancialEntry claim(String description) {
+        return new FinancialEntry(FinancialEntryType.CLAIM, FinancialEntryStatus.OPEN, new BigDecimal("1.00"),
+                description, null, null);
+    }
+
+    // Alle Threads starten gleichzeitig, damit sich die Schreibzugriffe tatsächlich überschneiden
+    private static void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+#!/bin/bash
+
+# ⚖️ Spring Boot vs. Spark Java Load Test
+# Startet spring-web und spark-web nacheinander gegen je eine eigene lokale Datenbank (H2-TCP-Server oder
+# embedded PostgreSQL), legt dieselben Testdaten an, treibt denselben HTMX-/API-Request-Mix und schreibt
+# Durchsatz, Latenz-Perzentile und Allokationsrate beider Apps in einen JSON-Report.
+#
+# Usage: ./scripts/framework-loadtest.sh [harness-optionen]
+#   ./scripts/framework-loadtest.sh --partners=1000 --entries=50 --clients=100 --duration=60
+#   ./scripts/framework-loadtest.sh --db=postgres --apps=spark
+#
+# Alle Optionen: handelspartnern/loadtest (LoadTestOptions). Die Apps laufen mit demselben JDK wie der Harness
+# (JAVA_HOME oder java im PATH), außer --java=<pfad> ist gesetzt.
+
+set -e
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+PROJECT_ROOT="$(dirname "$SCRIPT_DIR")"
+RESULTS_DIR="$PROJECT_ROOT/metrics/loadtest"
+
+# Colors for output
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+JAVA_BIN="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+mkdir -p "$RESULTS_DIR"
+
+echo -e "${BLUE}⚖️ Spring vs. Spark load test${NC}"
+
+cd "$PROJECT_ROOT/handelspartnern"
+mvn -q install -pl spring-web,spark-web,loadtest -am -DskipTests
+for module in spring-web spark-web loadtest; do
+    mvn -q -pl "$module" dependency:build-classpath -Dmdep.outputFile="$RESULTS_DIR/classpath-$module.txt"
+done
+SPRING_CP="$(cat "$RESULTS_DIR/classpath-spring-web.txt"):$PROJECT_ROOT/handelspartnern/spring-web/target/classes"
+SPARK_CP="$(cat "$RESULTS_DIR/classpath-spark-web.txt"):$PROJECT_ROOT/handelspartnern/spark-web/target/classes"
+HARNESS_CP="$(cat "$RESULTS_DIR/classpath-loadtest.txt"):$PROJECT_ROOT/handelspartnern/loadtest/target/classes"
+
+cd "$PROJECT_ROOT"
+"$JAVA_BIN" -cp "$HARNESS_CP" org.iu.handelspartnern.loadtest.LoadTestHarness \
+    --spring-classpath="$SPRING_CP" --spark-classpath="$SPARK_CP" "$@"
+
+echo -e "${GREEN}✅ Load test finished${NC}"
@@ -0,0 +1,104 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minimaler Closed-Loop-Lastgenerator ohne externe Tools (hey/wrk): N Clients senden für die angegebene Dauer
+ * jeweils den nächsten Request, sobald die vorige Antwort da ist. Ausgabe als eine JSON-Zeile.
+ *
+ * Usage: java scripts/loadtest/HttpLoad.java <url> [clients] [duration_seconds]
+ */
+public class HttpLoad {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java HttpLoad.java <url> [clients] [duration_seconds]");
+            System.exit(2);
+        }
+        URI uri = URI.create(args[0]);
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+        List<long[]> latenciesPerClient = new ArrayList<>();
+        int[] counts = new int[clients];
+        LongAdder errors = new LongAdder();
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            long[] latencies = new long[1024];
+            latenciesPerClient.add(latencies);
+            Thread thread = new Thread(() -> {
+                long[] buffer = latencies;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request,
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                            continue;
+                        }
+                        if (counts[client] == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                            synchronized (latenciesPerClient) {
+                                latenciesPerClient.set(client, buffer);
+                            }
+                        }
+                        buffer[counts[client]++] = System.nanoTime() - start;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            thread.start();
+        }
+        done.await();
+
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        synchronized (latenciesPerClient) {
+            for (int i = 0; i < clients; i++) {
+                System.arraycopy(latenciesPerClient.get(i), 0, all, offset, counts[i]);
+                offset += counts[i];
+            }
+        }
+        Arrays.sort(all);
+
+        System.out.println(String.format(Locale.ROOT,
+                "{\"url\":\"%s\",\"clients\":%d,\"durationSeconds\":%d,\"requests\":%d,\"errors\":%d,"
+                        + "\"throughput\":%.1f,\"p50Ms\":%.2f,\"p95Ms\":%.2f,\"p99Ms\":%.2f,\"maxMs\":%.2f}",
+                uri, clients, durationSeconds, total, errors.sum(), total / (double) durationSeconds,
+                percentile(all, 0.50), percentile(all, 0.95), percentile(all, 0.99),
+                all.length == 0 ? 0.0 : all[all.length - 1] / 1_000_000.0));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+}
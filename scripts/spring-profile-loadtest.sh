@@ -0,0 +1,92 @@
+#!/bin/bash
+
+# 🌱 Spring Boot Default- vs. prod-Profil Load Test
+# Startet spring-web nacheinander ohne Profil (application.yml) und mit --spring.profiles.active=prod,
+# treibt jeweils dieselbe Last (Closed Loop, N parallele Clients) und vergleicht Durchsatz und Latenzen.
+#
+# Usage: ./scripts/spring-profile-loadtest.sh [clients] [duration_seconds] [path]
+#   ./scripts/spring-profile-loadtest.sh 500 30 /api/partners
+#
+# Für Virtual Threads im prod-Profil JDK 21+ verwenden (JAVA_HOME oder java im PATH).
+# Weitere Argumente für spring-web über SPRING_ARGS, z. B.
+#   SPRING_ARGS="--spring.datasource.url=jdbc:postgresql://db:5432/trading_partners"
+
+set -e
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+PROJECT_ROOT="$(dirname "$SCRIPT_DIR")"
+RESULTS_DIR="$PROJECT_ROOT/metrics/loadtest/spring-profiles-$(date +%Y%m%d-%H%M%S)"
+
+CLIENTS="${1:-500}"
+DURATION="${2:-30}"
+TARGET_PATH="${3:-/api/partners}"
+PORT="${PORT:-8090}"
+WARMUP_SECONDS="${WARMUP_SECONDS:-10}"
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+JAVA_BIN="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+mkdir -p "$RESULTS_DIR"
+
+echo -e "${BLUE}🌱 Spring profile load test: $CLIENTS clients, ${DURATION}s, GET $TARGET_PATH${NC}"
+
+cd "$PROJECT_ROOT/handelspartnern"
+mvn -q install -pl spring-web -am -DskipTests
+mvn -q -pl spring-web dependency:build-classpath -Dmdep.outputFile="$RESULTS_DIR/classpath.txt"
+CLASSPATH="$(cat "$RESULTS_DIR/classpath.txt"):$PROJECT_ROOT/handelspartnern/spring-web/target/classes"
+
+run_profile() {
+    local profile=$1
+    local base_url="http://localhost:$PORT"
+
+    echo -e "${YELLOW}🚀 Starting spring-web (profile: $profile)...${NC}"
+    # shellcheck disable=SC2086
+    "$JAVA_BIN" -cp "$CLASSPATH" org.iu.handelspartnern.spring.SpringWebApplication \
+        --server.port="$PORT" --spring.profiles.active="$profile" $SPRING_ARGS \
+        > "$RESULTS_DIR/spring-$profile.log" 2>&1 &
+    local pid=$!
+
+    for _ in $(seq 1 90); do
+        if curl -sf "$base_url/actuator/health" > /dev/null 2>&1; then
+            break
+        fi
+        sleep 1
+    done
+    if ! curl -sf "$base_url/actuator/health" > /dev/null 2>&1; then
+        echo -e "${RED}❌ spring-web ($profile) did not start, see $RESULTS_DIR/spring-$profile.log${NC}"
+        kill "$pid" 2>/dev/null || true
+        exit 1
+    fi
+
+    echo "   Warmup (${WARMUP_SECONDS}s, 50 clients)"
+    "$JAVA_BIN" "$SCRIPT_DIR/loadtest/HttpLoad.java" "$base_url$TARGET_PATH" 50 "$WARMUP_SECONDS" > /dev/null
+
+    echo "   Measuring (${DURATION}s, $CLIENTS clients)"
+    "$JAVA_BIN" "$SCRIPT_DIR/loadtest/HttpLoad.java" "$base_url$TARGET_PATH" "$CLIENTS" "$DURATION" \
+        > "$RESULTS_DIR/$profile.json"
+
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+    cat "$RESULTS_DIR/$profile.json"
+}
+
+run_profile default
+run_profile prod
+
+echo -e "${YELLOW}📊 Results ($RESULTS_DIR)${NC}"
+python3 - "$RESULTS_DIR" <<'PY'
+import json, sys, os
+results = {p: json.load(open(os.path.join(sys.argv[1], p + ".json"))) for p in ("default", "prod")}
+print(f"   {'profile':<10}{'req/s':>10}{'p50 ms':>10}{'p95 ms':>10}{'p99 ms':>10}{'errors':>8}")
+for profile, r in results.items():
+    print(f"   {profile:<10}{r['throughput']:>10.1f}{r['p50Ms']:>10.2f}{r['p95Ms']:>10.2f}{r['p99Ms']:>10.2f}{r['errors']:>8}")
+json.dump(results, open(os.path.join(sys.argv[1], "summary.json"), "w"), indent=2)
+PY
+
+echo -e "${GREEN}✅ Load test finished${NC}"
@@ -0,0 +1,113 @@
+#!/bin/bash
+
+# 🧵 Virtual Threads vs. Platform Threads Load Test (Spark Java)
+# Startet spark-web nacheinander mit dem Jetty-Thread-Pool und mit server.jetty.virtual-threads=true,
+# treibt jeweils dieselbe Last (Closed Loop, N parallele Clients) und vergleicht Durchsatz und p99-Latenz.
+#
+# Usage: ./scripts/virtual-threads-loadtest.sh [clients] [duration_seconds] [path]
+#   ./scripts/virtual-threads-loadtest.sh 500 30 /api/partners
+#
+# Benötigt JDK 21+ (JAVA_HOME oder java im PATH) und dieselbe Datenbank wie mvn exec:java.
+# Weitere JVM-Optionen für spark-web über SPARK_OPTS, z. B.
+#   SPARK_OPTS="-Ddb.url=jdbc:postgresql://db:5432/trading_partners -Ddb.pool.maximum-pool-size=20"
+# Ohne Datenbank mit H2 im Speicher (H2 liegt im Test-Classpath); SEED_PARTNERS legt je Lauf so viele Partner an:
+#   SEED_PARTNERS=30 SPARK_OPTS="-Ddb.url=jdbc:h2:mem:vt;DB_CLOSE_DELAY=-1 -Ddb.username=sa -Ddb.password= \
+#     -Dhibernate.dialect=org.hibernate.dialect.H2Dialect -Dpartner-events.enabled=false"
+# Gemessene Werte stehen in PERFORMANCE.md (Abschnitt "Spark Java – Jetty & Virtual Threads").
+
+set -e
+
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+PROJECT_ROOT="$(dirname "$SCRIPT_DIR")"
+RESULTS_DIR="$PROJECT_ROOT/metrics/loadtest/virtual-threads-$(date +%Y%m%d-%H%M%S)"
+
+CLIENTS="${1:-500}"
+DURATION="${2:-30}"
+TARGET_PATH="${3:-/api/partners}"
+PORT="${PORT:-4570}"
+WARMUP_SECONDS="${WARMUP_SECONDS:-10}"
+SEED_PARTNERS="${SEED_PARTNERS:-0}"
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+YELLOW='\033[1;33m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+JAVA_BIN="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+java_version=$("$JAVA_BIN" -XshowSettings:properties -version 2>&1 | awk -F'= ' '/java.specification.version/ {print $2}')
+if [ "${java_version%%.*}" -lt 21 ]; then
+    echo -e "${RED}❌ Virtual Threads benötigen JDK 21+, gefunden: $java_version (JAVA_HOME setzen)${NC}"
+    exit 1
+fi
+
+mkdir -p "$RESULTS_DIR"
+
+echo -e "${BLUE}🧵 Virtual threads load test: $CLIENTS clients, ${DURATION}s, GET $TARGET_PATH${NC}"
+
+cd "$PROJECT_ROOT/handelspartnern"
+mvn -q install -pl spark-web -am -DskipTests
+mvn -q -pl spark-web dependency:build-classpath -Dmdep.outputFile="$RESULTS_DIR/classpath.txt"
+CLASSPATH="$(cat "$RESULTS_DIR/classpath.txt"):$PROJECT_ROOT/handelspartnern/spark-web/target/classes"
+
+run_mode() {
+    local mode=$1
+    local virtual_threads=$2
+    local base_url="http://localhost:$PORT"
+
+    echo -e "${YELLOW}🚀 Starting spark-web ($mode)...${NC}"
+    # shellcheck disable=SC2086
+    "$JAVA_BIN" $SPARK_OPTS -Dserver.port="$PORT" -Dhibernate.show-sql=false \
+        -Dserver.jetty.virtual-threads="$virtual_threads" \
+        -cp "$CLASSPATH" org.iu.handelspartnern.spark.SparkWebApplication > "$RESULTS_DIR/spark-$mode.log" 2>&1 &
+    local pid=$!
+
+    for _ in $(seq 1 60); do
+        if curl -sf "$base_url/health" > /dev/null 2>&1; then
+            break
+        fi
+        sleep 1
+    done
+    if ! curl -sf "$base_url/health" > /dev/null 2>&1; then
+        echo -e "${RED}❌ spark-web ($mode) did not start, see $RESULTS_DIR/spark-$mode.log${NC}"
+        kill "$pid" 2>/dev/null || true
+        exit 1
+    fi
+
+    if [ "$SEED_PARTNERS" -gt 0 ]; then
+        echo "   Seeding $SEED_PARTNERS partners"
+        for i in $(seq 1 "$SEED_PARTNERS"); do
+            curl -sf -o /dev/null -X POST -H "Content-Type: application/json" \
+                -d "{\"name\":\"Lasttest Partner $i\",\"type\":\"CUSTOMER\"}" "$base_url/api/partners"
+        done
+    fi
+
+    echo "   Warmup (${WARMUP_SECONDS}s, 50 clients)"
+    "$JAVA_BIN" "$SCRIPT_DIR/loadtest/HttpLoad.java" "$base_url$TARGET_PATH" 50 "$WARMUP_SECONDS" > /dev/null
+
+    echo "   Measuring (${DURATION}s, $CLIENTS clients)"
+    "$JAVA_BIN" "$SCRIPT_DIR/loadtest/HttpLoad.java" "$base_url$TARGET_PATH" "$CLIENTS" "$DURATION" \
+        > "$RESULTS_DIR/$mode.json"
+    curl -sf "$base_url/metrics?name=hikaricp.connections" > "$RESULTS_DIR/$mode-hikaricp.json" || true
+    curl -sf "$base_url/metrics?name=jetty.threads" > "$RESULTS_DIR/$mode-jetty.json" || true
+
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+    cat "$RESULTS_DIR/$mode.json"
+}
+
+run_mode platform false
+run_mode virtual true
+
+echo -e "${YELLOW}📊 Results ($RESULTS_DIR)${NC}"
+python3 - "$RESULTS_DIR" <<'PY'
+import json, sys, os
+results = {mode: json.load(open(os.path.join(sys.argv[1], mode + ".json"))) for mode in ("platform", "virtual")}
+print(f"   {'mode':<10}{'req/s':>10}{'p50 ms':>10}{'p95 ms':>10}{'p99 ms':>10}{'errors':>8}")
+for mode, r in results.items():
+    print(f"   {mode:<10}{r['throughput']:>10.1f}{r['p50Ms']:>10.2f}{r['p95Ms']:>10.2f}{r['p99Ms']:>10.2f}{r['errors']:>8}")
+json.dump(results, open(os.path.join(sys.argv[1], "summary.json"), "w"), indent=2)
+PY
+
+echo -e "${GREEN}✅ Load test finished${NC}"